@@ -0,0 +1,58 @@
+plugins {
+	skyutils.`library-conventions`
+	alias(libs.plugins.jmh)
+}
+
+repositories {
+	maven("https://hub.spigotmc.org/nexus/content/repositories/snapshots")
+}
+
+dependencies {
+	jmh(project(":shared"))
+	jmh(project(":platforms:spigot"))
+	jmh(libs.spigot)
+	jmh(libs.snakeyaml)
+	jmh(libs.adventure.serializer.legacy)
+	jmh(libs.jetbrains.annotations)
+	jmh(libs.jol)
+	jmh(libs.h2)
+}
+
+// Usage:
+// ./gradlew :benchmarks:jmh
+// ./gradlew :benchmarks:jmh -Pbenchmark=Replacer
+jmh {
+	jmhVersion = libs.versions.jmh
+	// Throughput, average time and allocation rate (-prof gc) for every suite
+	benchmarkMode = listOf("thrpt", "avgt")
+	timeUnit = "us"
+	profilers = listOf("gc")
+	fork = 1
+	warmupIterations = 3
+	warmup = "1s"
+	iterations = 5
+	timeOnIteration = "1s"
+	resultFormat = "JSON"
+	resultsFile = project.layout.buildDirectory.file("results/jmh/results.json")
+	if (project.hasProperty("benchmark"))
+		includes = listOf(project.property("benchmark").toString())
+}
+
+// Usage:
+// ./gradlew :benchmarks:footprint
+tasks.register<JavaExec>("footprint") {
+	group = "benchmark"
+	description = "Prints the retained heap size of a 100k entries FlatStorage"
+	classpath = sourceSets["jmh"].runtimeClasspath
+	mainClass = "net.codersky.skyutils.benchmark.FlatStorageFootprint"
+	jvmArgs("-Djdk.attach.allowAttachSelf=true")
+}
+
+// Usage:
+// ./gradlew :benchmarks:sqlRoundTrip
+tasks.register<JavaExec>("sqlRoundTrip") {
+	group = "verification"
+	description = "Saves, reloads and imports SqlStorages on an H2 database, failing if any content differs"
+	classpath = sourceSets["jmh"].runtimeClasspath
+	mainClass = "net.codersky.skyutils.benchmark.SqlStorageRoundTrip"
+}
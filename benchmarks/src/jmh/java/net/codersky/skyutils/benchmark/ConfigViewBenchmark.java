@@ -0,0 +1,58 @@
+package net.codersky.skyutils.benchmark;
+
+import net.codersky.skyutils.storage.Config;
+import net.codersky.skyutils.storage.ConfigView;
+import net.codersky.skyutils.storage.files.FlatStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.File;
+
+/**
+ * JMH suite comparing reads of nested values through {@link Config#getInt(String, int)}
+ * against reads of the same values through a {@link ConfigView}.
+ *
+ * @author xDec0de_
+ *
+ * @since SkyUtils 1.0.0
+ */
+@State(Scope.Benchmark)
+public class ConfigViewBenchmark {
+
+	private Config config;
+	private ConfigView<Settings> view;
+
+	@Setup
+	public void setup() {
+		// Never set up nor saved, so nothing is written to disk.
+		this.config = new FlatStorage(new File("view-benchmark.mcufs"));
+		for (int i = 0; i < 100; i++)
+			config.setInt("section.value" + i, i);
+		config.setInt("section.value", 42);
+		config.setDouble("section.speed", 1.5);
+		this.view = ConfigView.of(config, cfg -> new Settings(cfg.getInt("section.value", 5), cfg.getDouble("section.speed", 1.0)));
+	}
+
+	@Benchmark
+	public int getInt() {
+		return config.getInt("section.value", 5);
+	}
+
+	@Benchmark
+	public int viewGet() {
+		return view.get().value;
+	}
+
+	private static final class Settings {
+
+		private final int value;
+		private final double speed;
+
+		private Settings(int value, double speed) {
+			this.value = value;
+			this.speed = speed;
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package net.codersky.skyutils.benchmark;
+
+import net.codersky.skyutils.storage.DataMap;
+import net.codersky.skyutils.storage.KeyPath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * JMH suite for {@link DataMap#get(String, Class)} and
+ * {@link DataMap#set(String, Object)}, with and without nesting and {@link KeyPath KeyPaths},
+ * on regular and {@link DataMap#isConcurrent() concurrent} maps.
+ *
+ * @author xDec0de_
+ *
+ * @since SkyUtils 1.0.0
+ */
+@State(Scope.Benchmark)
+public class DataMapBenchmark {
+
+	@Param({"true", "false"})
+	public boolean nesting;
+
+	/** Amount of sections on the key, "a.b.c" would have a depth of 3. */
+	@Param({"1", "3", "6"})
+	public int depth;
+
+	@Param({"false", "true"})
+	public boolean concurrent;
+
+	private DataMap map;
+	private String key;
+	private KeyPath path;
+
+	@Setup
+	public void setup() {
+		final StringBuilder builder = new StringBuilder("root");
+		for (int i = 1; i < depth; i++)
+			builder.append(".section").append(i);
+		this.key = builder.toString();
+		this.path = KeyPath.of(key);
+		this.map = new DataMap(nesting, concurrent);
+		for (int i = 0; i < 100; i++)
+			map.set(key + i, i);
+		map.set(key, 42);
+	}
+
+	@Benchmark
+	public Integer get() {
+		return map.get(key, Integer.class);
+	}
+
+	@Benchmark
+	public Integer getKeyPath() {
+		return map.get(path, Integer.class);
+	}
+
+	@Benchmark
+	public int getPrimitive() {
+		return map.getInt(key, 0);
+	}
+
+	@Benchmark
+	public Integer set() {
+		return map.set(key, 42);
+	}
+
+	@Benchmark
+	public Integer setKeyPath() {
+		return map.set(path, 42);
+	}
+
+	@Benchmark
+	public DataMap.Snapshot snapshot() {
+		return map.snapshot();
+	}
+}
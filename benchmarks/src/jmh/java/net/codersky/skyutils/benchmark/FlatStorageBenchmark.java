@@ -0,0 +1,102 @@
+package net.codersky.skyutils.benchmark;
+
+import net.codersky.skyutils.storage.files.BinaryFlatStorage;
+import net.codersky.skyutils.storage.files.FlatStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JMH suite for {@link FlatStorage#save()} and {@link FlatStorage#reload()},
+ * compared with the same content on a {@link BinaryFlatStorage}. Saving a single
+ * modified key is also measured on a {@link FlatStorage#isJournaled() journaled} storage.
+ * Files are written to a temporary directory that is deleted on tear down.
+ *
+ * @author xDec0de_
+ *
+ * @since SkyUtils 1.0.0
+ */
+@State(Scope.Benchmark)
+public class FlatStorageBenchmark {
+
+	/** Amount of entries of each supported type stored on the file. */
+	@Param({"10", "100", "1000"})
+	public int entries;
+
+	private File dir;
+	private FlatStorage storage;
+	private BinaryFlatStorage binary;
+	private FlatStorage journaled;
+	private int counter;
+
+	@Setup
+	public void setup() throws IOException {
+		this.dir = Files.createTempDirectory("skyutils-bench").toFile();
+		this.storage = new FlatStorage(new File(dir, "data.mcufs"));
+		for (int i = 0; i < entries; i++) {
+			storage.setString("string" + i, "Some string value number " + i);
+			storage.setInt("int" + i, i);
+			storage.setDouble("double" + i, i * 0.5);
+			storage.setBoolean("bool" + i, (i & 1) == 0);
+			storage.setUUID("uuid" + i, UUID.randomUUID());
+			storage.setStrings("list" + i, List.of("first", "second", "third"));
+		}
+		storage.save();
+		this.binary = BinaryFlatStorage.convert(storage, new File(dir, "data.mcufb"));
+		Files.copy(storage.asFile().toPath(), dir.toPath().resolve("journal.mcufs"));
+		this.journaled = new FlatStorage(new File(dir, "journal.mcufs"), false, true);
+		journaled.reload();
+	}
+
+	@TearDown
+	public void tearDown() {
+		final File[] files = dir.listFiles();
+		if (files != null)
+			for (File file : files)
+				file.delete();
+		dir.delete();
+	}
+
+	@Benchmark
+	public boolean save() {
+		storage.getMap().setModified(true);
+		return storage.save();
+	}
+
+	@Benchmark
+	public boolean reload() {
+		return storage.reload();
+	}
+
+	@Benchmark
+	public boolean saveOneKey() {
+		storage.setInt("int0", counter++);
+		return storage.save();
+	}
+
+	@Benchmark
+	public boolean saveOneKeyJournaled() {
+		journaled.setInt("int0", counter++);
+		return journaled.save();
+	}
+
+	@Benchmark
+	public boolean saveBinary() {
+		binary.getMap().setModified(true);
+		return binary.save();
+	}
+
+	@Benchmark
+	public boolean reloadBinary() {
+		return binary.reload();
+	}
+}
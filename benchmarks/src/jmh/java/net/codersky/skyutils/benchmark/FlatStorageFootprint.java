@@ -0,0 +1,67 @@
+package net.codersky.skyutils.benchmark;
+
+import net.codersky.skyutils.storage.files.FlatStorage;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Memory footprint of a loaded {@link FlatStorage} with 100k list entries, measured with JOL.
+ * The same content stored on {@link LinkedList LinkedLists}, as {@link FlatStorage} used to
+ * store lists, is measured too for comparison. This isn't a JMH benchmark, run it with
+ * {@code ./gradlew :benchmarks:footprint}.
+ *
+ * @author xDec0de_
+ *
+ * @since SkyUtils 1.0.0
+ */
+public class FlatStorageFootprint {
+
+	private static final int ENTRIES = 100_000;
+
+	public static void main(String[] args) throws IOException {
+		final File dir = Files.createTempDirectory("skyutils-footprint").toFile();
+		final File file = new File(dir, "data.mcufs");
+		try {
+			final FlatStorage writer = new FlatStorage(file);
+			for (int i = 0; i < ENTRIES; i++) {
+				switch (i % 4) {
+				case 0 -> writer.setStrings("strings" + i, List.of("first", "second", "third"));
+				case 1 -> writer.setBooleans("booleans" + i, List.of(true, false, true, true));
+				case 2 -> writer.setFloats("floats" + i, List.of(0.5f, 1.5f, 2.5f));
+				default -> writer.setInts("ints" + i, List.of(i, i + 1, i + 2, i + 3));
+				}
+			}
+			writer.save();
+
+			final FlatStorage storage = new FlatStorage(file);
+			storage.reload();
+			final Map<String, Object> content = storage.getMap().getInternalMap();
+			final Map<String, Object> linked = new HashMap<>(content.size());
+			for (Map.Entry<String, Object> entry : content.entrySet())
+				linked.put(entry.getKey(), toLinkedList(entry.getValue()));
+
+			print("FlatStorage", content);
+			print("LinkedList baseline", linked);
+		} finally {
+			file.delete();
+			dir.delete();
+		}
+	}
+
+	private static Object toLinkedList(Object value) {
+		return value instanceof List<?> lst ? new LinkedList<>(lst) : value;
+	}
+
+	private static void print(String name, Object root) {
+		final GraphLayout layout = GraphLayout.parseInstance(root);
+		System.out.println("=== " + name + ": " + layout.totalSize() + " bytes ===");
+		System.out.println(layout.toFootprint());
+	}
+}
@@ -0,0 +1,35 @@
+package net.codersky.skyutils.benchmark;
+
+import net.codersky.skyutils.java.strings.pattern.color.GradientColorPattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * JMH suite for {@link GradientColorPattern#applyColor(String, boolean)}.
+ * Run it with the gc profiler (Enabled by default on this module) to
+ * see the allocation rate and bytes allocated per call.
+ *
+ * @author xDec0de_
+ *
+ * @since SkyUtils 1.0.0
+ */
+@State(Scope.Benchmark)
+public class GradientColorPatternBenchmark {
+
+	@Param({
+			"No gradient on this message at all",
+			"<#ff0000Short#0000ff>",
+			"&8[<#ff0000Server#0000ff>&8] &7A longer message with <#00ff00&lformatting &rinside#ff00ff> it",
+			"<#f00One#00f> <#0f0Two#f0f> <#00fThree#ff0> <#ff0Four#0ff> <#0ffFive#f00>"
+	})
+	public String message;
+
+	private final GradientColorPattern pattern = new GradientColorPattern();
+
+	@Benchmark
+	public String applyColor() {
+		return pattern.applyColor(message, true);
+	}
+}
@@ -0,0 +1,43 @@
+package net.codersky.skyutils.benchmark;
+
+import net.codersky.skyutils.java.strings.MessageTemplate;
+import net.codersky.skyutils.java.strings.Replacer;
+import net.codersky.skyutils.java.strings.SkyStrings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * JMH suite comparing how messages were obtained before templates
+ * (Default {@link Replacer}, {@link SkyStrings#applyColor(String)} and then
+ * the caller's {@link Replacer}) with {@link MessageTemplate#apply(Replacer)}.
+ *
+ * @author xDec0de_
+ *
+ * @since SkyUtils 1.0.0
+ */
+@State(Scope.Benchmark)
+public class MessageTemplateBenchmark {
+
+	private static final String RAW = "%prefix% <#ff0000Welcome back#0000ff>, &e%player%&7! You have &b%coins% <%coins%:coin:coins>.";
+
+	private final Replacer defReplacer = new Replacer("%prefix%", "&6My&ePlugin &8|&7");
+	private final Replacer replacer = new Replacer("%player%", "xDec0de_", "%coins%", 15);
+	private MessageTemplate template;
+
+	@Setup
+	public void setup() {
+		this.template = new MessageTemplate(RAW, defReplacer);
+	}
+
+	@Benchmark
+	public String parseEveryTime() {
+		return replacer.replaceAt(SkyStrings.applyColor(defReplacer.replaceAt(RAW)));
+	}
+
+	@Benchmark
+	public String template() {
+		return template.apply(replacer);
+	}
+}
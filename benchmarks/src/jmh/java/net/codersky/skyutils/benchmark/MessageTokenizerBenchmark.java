@@ -0,0 +1,102 @@
+package net.codersky.skyutils.benchmark;
+
+import net.codersky.skyutils.crossplatform.MessageReceiver;
+import net.codersky.skyutils.java.strings.SkyStrings;
+import net.codersky.skyutils.java.strings.pattern.ColorPattern;
+import net.codersky.skyutils.java.strings.pattern.MessageTokenizer;
+import net.codersky.skyutils.java.strings.pattern.color.GradientColorPattern;
+import net.codersky.skyutils.java.strings.pattern.color.HexColorPattern;
+import net.kyori.adventure.text.Component;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * JMH suite comparing the {@link MessageTokenizer}, used by {@link SkyStrings}
+ * for default patterns, with applying every pattern one after another.
+ *
+ * @author xDec0de_
+ *
+ * @since SkyUtils 1.0.0
+ */
+@State(Scope.Benchmark)
+public class MessageTokenizerBenchmark {
+
+	@Param({
+			"&7A plain message with &ea couple &7of color codes",
+			"&8[<#ff0000Server#0000ff>&8] &7Hello #ffaa00player&7, welcome!",
+			"&aWelcome! <ab:&eAction bar/ab><c:Console only/c><sound:1;1;entity.player.levelup/>",
+			"&7Click <run;/spawn>&ahere\\> &7to go to <#00ff00the spawn#0000ff>"
+	})
+	public String message;
+
+	private final List<ColorPattern> colorPatterns = List.of(
+			new GradientColorPattern(),
+			new HexColorPattern(),
+			(str, simple) -> SkyStrings.applyColorChar('&', str)
+	);
+	private final MessageReceiver receiver = new BenchReceiver();
+
+	private String chainedColor(String str) {
+		for (ColorPattern pattern : colorPatterns)
+			str = pattern.applyColor(str, true);
+		return str;
+	}
+
+	@Benchmark
+	public String chainedApplyColor() {
+		return chainedColor(message);
+	}
+
+	@Benchmark
+	public String fusedApplyColor() {
+		return SkyStrings.applyColor(message);
+	}
+
+	@Benchmark
+	public String chainedLegacy() {
+		return SkyStrings.stripEventPatterns(SkyStrings.applyTargetPatterns(receiver, chainedColor(message), true));
+	}
+
+	@Benchmark
+	public String fusedLegacy() {
+		return SkyStrings.applyLegacyPatterns(receiver, message, true);
+	}
+
+	@Benchmark
+	public Component chainedComponent() {
+		return SkyStrings.applyEventPatterns(SkyStrings.applyTargetPatterns(receiver, chainedColor(message), true));
+	}
+
+	@Benchmark
+	public Component fusedComponent() {
+		return SkyStrings.applyPatterns(receiver, message, true);
+	}
+
+	/*
+	 * Fixtures
+	 */
+
+	private static class BenchReceiver implements MessageReceiver {
+
+		@NotNull
+		@Override
+		public String getName() {
+			return "Benchmark";
+		}
+
+		@Override
+		public boolean sendMessage(@NotNull String message) {
+			return true;
+		}
+
+		@Override
+		public boolean sendMessage(@NotNull Component message) {
+			return true;
+		}
+	}
+}
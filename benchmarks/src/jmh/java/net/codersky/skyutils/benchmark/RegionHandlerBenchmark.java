@@ -0,0 +1,147 @@
+package net.codersky.skyutils.benchmark;
+
+import net.codersky.skyutils.spigot.regions.Region;
+import net.codersky.skyutils.spigot.regions.Region2D;
+import net.codersky.skyutils.spigot.regions.Region3D;
+import net.codersky.skyutils.spigot.regions.RegionHandler;
+import net.codersky.skyutils.spigot.regions.RegionQuery;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * JMH suite for {@link RegionHandler#getRegionsAt(Location)}, both allocating a new {@link Set}
+ * and reusing a {@link RegionQuery}, for a server tick where every player moves, and for loading every
+ * region, either one by one or with {@link RegionHandler#addRegions(java.util.Collection)}. As no server
+ * is running, both the {@link Server} and the {@link World} used here are
+ * minimal {@link Proxy proxies} that only answer what regions need.
+ *
+ * @author xDec0de_
+ *
+ * @since SkyUtils 1.0.0
+ */
+@State(Scope.Benchmark)
+public class RegionHandlerBenchmark {
+
+	/** Amount of regions registered on the world. */
+	@Param({"10", "1000", "10000"})
+	public int regions;
+
+	/** Amount of online players simulated by {@link #movePlayers()}. */
+	private static final int PLAYERS = 200;
+
+	private RegionHandler handler;
+	private final List<Region> created = new ArrayList<>();
+	private Location[] locations;
+	private int index = 0;
+	private final RegionQuery from = new RegionQuery();
+	private final RegionQuery to = new RegionQuery();
+
+	@Setup
+	public void setup() {
+		final World world = BenchWorld.WORLD;
+		final Random random = new Random(1234);
+		this.handler = new RegionHandler();
+		for (int i = 0; i < regions; i++) {
+			final int x = random.nextInt(20_000) - 10_000, z = random.nextInt(20_000) - 10_000;
+			final int size = 8 + random.nextInt(120);
+			final Region region = (i & 1) == 0
+					? new Region2D(world, x, z, x + size, z + size)
+					: new Region3D(world, x, 0, z, x + size, 64 + random.nextInt(128), z + size);
+			handler.addRegion(region);
+			created.add(region);
+		}
+		this.locations = new Location[1024];
+		for (int i = 0; i < locations.length; i++)
+			locations[i] = new Location(world, random.nextInt(20_000) - 10_000, 64, random.nextInt(20_000) - 10_000);
+	}
+
+	@Benchmark
+	public Set<Region> getRegionsAt() {
+		return handler.getRegionsAt(locations[index++ & (locations.length - 1)]);
+	}
+
+	@Benchmark
+	public RegionQuery getRegionsAtQuery() {
+		return handler.getRegionsAt(locations[index++ & (locations.length - 1)], to);
+	}
+
+	/** The lookups done by the move listener on a tick where {@value #PLAYERS} players cross a block. */
+	@Benchmark
+	public int movePlayers() {
+		int found = 0;
+		for (int i = 0; i < PLAYERS; i++) {
+			final Location location = locations[index++ & (locations.length - 1)];
+			handler.getRegionsAt(location, from);
+			handler.getRegionsAt(location.getWorld(), location.getBlockX() + 1, location.getBlockY(), location.getBlockZ(), to);
+			found += from.size() + to.size();
+		}
+		return found;
+	}
+
+	@Benchmark
+	public RegionHandler addRegions() {
+		final RegionHandler loaded = new RegionHandler();
+		for (Region region : created)
+			loaded.addRegion(region);
+		return loaded;
+	}
+
+	@Benchmark
+	public RegionHandler addRegionsBulk() {
+		final RegionHandler loaded = new RegionHandler();
+		loaded.addRegions(created);
+		return loaded;
+	}
+
+	/*
+	 * Fixtures
+	 */
+
+	private static class BenchWorld {
+
+		private static final UUID WORLD_ID = UUID.randomUUID();
+		private static final World WORLD = (World) Proxy.newProxyInstance(World.class.getClassLoader(),
+				new Class<?>[] {World.class}, (proxy, method, args) -> switch (method.getName()) {
+					case "getUID" -> WORLD_ID;
+					case "getName" -> "benchmark";
+					case "equals" -> proxy == args[0];
+					case "hashCode" -> WORLD_ID.hashCode();
+					case "toString" -> "BenchWorld";
+					default -> throw new UnsupportedOperationException(method.getName());
+				});
+
+		static {
+			if (Bukkit.getServer() == null)
+				Bukkit.setServer(createServer());
+		}
+
+		private static Server createServer() {
+			final Logger logger = Logger.getLogger("SkyUtils-Benchmark");
+			return (Server) Proxy.newProxyInstance(Server.class.getClassLoader(),
+					new Class<?>[] {Server.class}, (proxy, method, args) -> switch (method.getName()) {
+						case "getLogger" -> logger;
+						case "getName", "getVersion", "getBukkitVersion" -> "benchmark";
+						case "getWorld" -> args[0].equals(WORLD_ID) || args[0].equals("benchmark") ? WORLD : null;
+						case "equals" -> proxy == args[0];
+						case "hashCode" -> System.identityHashCode(proxy);
+						case "toString" -> "BenchServer";
+						default -> throw new UnsupportedOperationException(method.getName());
+					});
+		}
+	}
+}
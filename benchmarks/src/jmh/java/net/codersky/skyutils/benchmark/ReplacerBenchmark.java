@@ -0,0 +1,53 @@
+package net.codersky.skyutils.benchmark;
+
+import net.codersky.skyutils.java.strings.CompiledReplacer;
+import net.codersky.skyutils.java.strings.Replacer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * JMH suite comparing {@link Replacer#replaceAt(String)} with
+ * {@link CompiledReplacer#replaceAt(String)}.
+ *
+ * @author xDec0de_
+ *
+ * @since SkyUtils 1.0.0
+ */
+@State(Scope.Benchmark)
+public class ReplacerBenchmark {
+
+	/** Amount of placeholder pairs stored on the {@link Replacer}. */
+	@Param({"2", "8", "32"})
+	public int pairs;
+
+	private Replacer replacer;
+	private CompiledReplacer compiled;
+	private String message;
+
+	@Setup
+	public void setup() {
+		final Object[] replacements = new Object[pairs * 2];
+		final StringBuilder builder = new StringBuilder("&8[&bServer&8] &7");
+		for (int i = 0; i < pairs; i++) {
+			replacements[i * 2] = "%placeholder_" + i + '%';
+			replacements[i * 2 + 1] = "value" + i;
+			builder.append("Some text %placeholder_").append(i).append("% ");
+		}
+		this.replacer = new Replacer(replacements);
+		this.compiled = replacer.compile();
+		this.message = builder.append("and <5:item:items>.").toString();
+	}
+
+	@Benchmark
+	public String replaceAt() {
+		return replacer.replaceAt(message);
+	}
+
+	@Benchmark
+	public String compiledReplaceAt() {
+		return compiled.replaceAt(message);
+	}
+}
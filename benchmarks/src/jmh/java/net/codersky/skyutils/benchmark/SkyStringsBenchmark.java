@@ -0,0 +1,32 @@
+package net.codersky.skyutils.benchmark;
+
+import net.codersky.skyutils.java.strings.SkyStrings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * JMH suite for {@link SkyStrings#applyColor(String)}.
+ *
+ * @author xDec0de_
+ *
+ * @since SkyUtils 1.0.0
+ */
+@State(Scope.Benchmark)
+public class SkyStringsBenchmark {
+
+	@Param({
+			"Plain message without any color at all",
+			"&8[&bServer&8] &7Welcome back, &eplayer&7!",
+			"#ff0000Hex &lcolored #00ff00message #0000ffhere",
+			"<#ff0000This is a long gradient message used for benchmarks#0000ff> &7and more",
+			"<#f00Simple gradient#00f> &8| <#ff00ffSecond gradient on the same line#00ffff>"
+	})
+	public String message;
+
+	@Benchmark
+	public String applyColor() {
+		return SkyStrings.applyColor(message);
+	}
+}
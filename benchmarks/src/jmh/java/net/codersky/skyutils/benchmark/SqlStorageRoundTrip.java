@@ -0,0 +1,96 @@
+package net.codersky.skyutils.benchmark;
+
+import net.codersky.skyutils.storage.Storage;
+import net.codersky.skyutils.storage.files.FlatStorage;
+import net.codersky.skyutils.storage.sql.SqlDatabase;
+import net.codersky.skyutils.storage.sql.SqlStorage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Round trip of {@link SqlStorage} on an H2 database, saving, modifying and reloading a storage,
+ * and then {@link SqlStorage#importFiles(SqlDatabase, String, File) importing} {@link FlatStorage}
+ * files, failing if any reloaded content differs from what was saved. This isn't a JMH benchmark,
+ * run it with {@code ./gradlew :benchmarks:sqlRoundTrip}.
+ *
+ * @author xDec0de_
+ *
+ * @since SkyUtils 1.0.0
+ */
+public class SqlStorageRoundTrip {
+
+	private static final String TABLE = "players";
+
+	public static void main(String[] args) throws IOException {
+		final File dir = Files.createTempDirectory("skyutils-sql").toFile();
+		try (SqlDatabase database = SqlDatabase.h2(new File(dir, "data"), 2)) {
+			saveAndReload(database);
+			importFiles(database, new File(dir, "flat"));
+			System.out.println("SqlStorage round trip passed");
+		} finally {
+			try (Stream<Path> files = Files.walk(dir.toPath())) {
+				files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+			}
+		}
+	}
+
+	private static void saveAndReload(SqlDatabase database) {
+		final SqlStorage storage = new SqlStorage(database, TABLE, "round-trip");
+		storage.setString("name", "xDec0de_");
+		storage.setInt("level", 42);
+		storage.setDouble("balance", 1234.5);
+		storage.setStrings("homes", List.of("spawn", "base", "farm"));
+		storage.setLongs("times", List.of(1L, 2L, 3L));
+		storage.setBoolean("banned", false);
+		check(storage.save(), "First save failed");
+
+		// Only dirty keys are written from now on, including removals.
+		storage.setInt("level", 43);
+		storage.getMap().removeEntries("banned");
+		check(storage.save(), "Second save failed");
+		compare(storage, reload(database, "round-trip"));
+	}
+
+	private static void importFiles(SqlDatabase database, File folder) {
+		final FlatStorage first = new FlatStorage(new File(folder, "first.mcufs"));
+		first.setString("name", "first");
+		first.setInts("scores", List.of(10, 20, 30));
+		final FlatStorage second = new FlatStorage(new File(folder, "second.mcufs"));
+		second.setString("name", "second");
+		second.setFloat("speed", 0.25f);
+		check(first.save() && second.save(), "Failed to save FlatStorage files");
+
+		final int imported = SqlStorage.importFiles(database, TABLE, folder);
+		check(imported == 2, "Expected 2 imported files, got " + imported);
+		compare(first, reload(database, "first"));
+		compare(second, reload(database, "second"));
+	}
+
+	private static SqlStorage reload(SqlDatabase database, String id) {
+		final SqlStorage storage = new SqlStorage(database, TABLE, id);
+		check(storage.reload(), "Failed to reload " + id);
+		return storage;
+	}
+
+	private static void compare(Storage source, SqlStorage actual) {
+		final Map<String, Object> expected = source.getMap().getInternalMap();
+		final Map<String, Object> loaded = actual.getMap().getInternalMap();
+		check(expected.keySet().equals(loaded.keySet()), "Keys of " + actual.getId() + " differ: " + expected.keySet() + " != " + loaded.keySet());
+		for (Map.Entry<String, Object> entry : expected.entrySet())
+			check(Objects.equals(entry.getValue(), loaded.get(entry.getKey())),
+					"Value of " + entry.getKey() + " on " + actual.getId() + " differs: " + entry.getValue() + " != " + loaded.get(entry.getKey()));
+	}
+
+	private static void check(boolean condition, String message) {
+		if (!condition)
+			throw new IllegalStateException(message);
+	}
+}
@@ -0,0 +1,149 @@
+package net.codersky.skyutils.benchmark;
+
+import net.codersky.skyutils.SkyUtils;
+import net.codersky.skyutils.cmd.SkyCommand;
+import net.codersky.skyutils.cmd.SkyCommandSender;
+import net.codersky.skyutils.cmd.SubCommandHandler;
+import net.codersky.skyutils.crossplatform.SkyConsole;
+import net.codersky.skyutils.crossplatform.player.SkyPlayer;
+import net.kyori.adventure.text.Component;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JMH suite for {@link SubCommandHandler#onTab(SkyCommand, SkyCommandSender, String[])}.
+ *
+ * @author xDec0de_
+ *
+ * @since SkyUtils 1.0.0
+ */
+@State(Scope.Benchmark)
+public class SubCommandHandlerBenchmark {
+
+	/** Amount of sub commands injected on the handler. */
+	@Param({"5", "50"})
+	public int subCommands;
+
+	private final SubCommandHandler<Object, SkyCommandSender> handler = new SubCommandHandler<>();
+	private final SkyCommandSender sender = new BenchSender();
+	private BenchCommand mainCmd;
+	private final String[] partialSubCommand = {"sub"};
+	private final String[] subCommandArgs = {"sub1", "o"};
+
+	@Setup
+	public void setup() {
+		this.mainCmd = new BenchCommand("main", List.of());
+		for (int i = 0; i < subCommands; i++)
+			handler.inject(new BenchCommand("sub" + i, List.of("alias" + i, "s" + i)));
+	}
+
+	@Benchmark
+	public List<String> tabSubCommands() {
+		return handler.onTab(mainCmd, sender, partialSubCommand);
+	}
+
+	@Benchmark
+	public List<String> tabSubCommandArgs() {
+		return handler.onTab(mainCmd, sender, subCommandArgs);
+	}
+
+	/*
+	 * Fixtures
+	 */
+
+	private record BenchCommand(String name, List<String> aliases) implements SkyCommand<Object, SkyCommandSender> {
+
+		private static final List<String> SUGGESTIONS = List.of("one", "two", "three", "other", "online");
+
+		@NotNull
+		@Override
+		public String getName() {
+			return name;
+		}
+
+		@NotNull
+		@Override
+		public List<String> getAliases() {
+			return aliases;
+		}
+
+		@NotNull
+		@Override
+		public SkyUtils<Object> getUtils() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean onCommand(@NotNull SkyCommandSender sender, @NotNull String[] args) {
+			return true;
+		}
+
+		@Nullable
+		@Override
+		public List<String> onTab(@NotNull SkyCommandSender sender, @NotNull String[] args) {
+			return new ArrayList<>(SUGGESTIONS);
+		}
+
+		@NotNull
+		@Override
+		@SafeVarargs
+		public final SkyCommand<Object, SkyCommandSender> inject(@NotNull SkyCommand<Object, SkyCommandSender>... commands) {
+			return this;
+		}
+	}
+
+	private static class BenchSender implements SkyCommandSender {
+
+		@NotNull
+		@Override
+		public String getName() {
+			return "Benchmark";
+		}
+
+		@Override
+		public boolean sendMessage(@NotNull String message) {
+			return true;
+		}
+
+		@Override
+		public boolean sendMessage(@NotNull Component message) {
+			return true;
+		}
+
+		@Override
+		public boolean isPlayer() {
+			return false;
+		}
+
+		@Nullable
+		@Override
+		public SkyPlayer asPlayer() {
+			return null;
+		}
+
+		@Nullable
+		@Override
+		public SkyConsole asConsole() {
+			return null;
+		}
+
+		@Override
+		public boolean hasPermission(@NotNull String permission) {
+			return true;
+		}
+
+		@NotNull
+		@Override
+		public SkyUtils<?> getUtils() {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -54,6 +54,10 @@ tasks {
 
 subprojects {
 
+	// Benchmarks are never shaded nor published, see benchmarks/build.gradle.kts
+	if (name == "benchmarks")
+		return@subprojects
+
 	apply(plugin = "maven-publish")
 	apply(plugin = "skyutils.shadow-conventions")
 	apply(plugin = "skyutils.library-conventions")
@@ -1,7 +1,10 @@
 package net.codersky.skyutils.spigot;
 
+import net.codersky.skyutils.storage.files.AsyncSaver;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * The SkyUtils class, this class is not intended to be
  * used as it provides nothing, just an empty {@link #onEnable()}
@@ -17,4 +20,14 @@ public class SkyUtilsSpigot extends JavaPlugin {
 	public void onEnable() {
 		// This method is intentionally empty, Codacy, please, stop complaining :(
 	}
+
+	@Override
+	public void onDisable() {
+		try {
+			if (!AsyncSaver.shutdownDefault(30, TimeUnit.SECONDS))
+				getLogger().warning("Some asynchronous saves didn't finish in time");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
 }
@@ -0,0 +1,73 @@
+package net.codersky.skyutils.spigot.player;
+
+import net.codersky.skyutils.storage.PlayerDataStore;
+import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link Listener} that loads the storage of players from a {@link PlayerDataStore}
+ * while they log in, so storages are already loaded once players join, and releases
+ * them once players quit. Storages are loaded on the async pre-login thread, so players
+ * whose storage can't be loaded are kicked instead of joining without their data.
+ *
+ * @since SkyUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+public class SpigotPlayerDataListener implements Listener {
+
+	private final PlayerDataStore<?> store;
+	/** Pre-logins that loaded a storage, so only those release it if disallowed afterwards. */
+	private final Set<AsyncPlayerPreLoginEvent> loaded = ConcurrentHashMap.newKeySet();
+
+	public SpigotPlayerDataListener(@NotNull PlayerDataStore<?> store) {
+		this.store = Objects.requireNonNull(store, "Store cannot be null");
+	}
+
+	@NotNull
+	public SpigotPlayerDataListener init(@NotNull JavaPlugin plugin) {
+		Bukkit.getPluginManager().registerEvents(this, plugin);
+		return this;
+	}
+
+	@EventHandler(priority = EventPriority.HIGHEST)
+	public void onPreLogin(AsyncPlayerPreLoginEvent e) {
+		if (e.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED)
+			return;
+		try {
+			store.loadNow(e.getUniqueId());
+			loaded.add(e);
+		} catch (RuntimeException ex) {
+			ex.printStackTrace();
+			e.disallow(AsyncPlayerPreLoginEvent.Result.KICK_OTHER, "Failed to load your data, please try again later.");
+		}
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onPreLoginResult(AsyncPlayerPreLoginEvent e) {
+		if (loaded.remove(e) && e.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED)
+			store.release(e.getUniqueId());
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onLogin(PlayerLoginEvent e) {
+		if (e.getResult() != PlayerLoginEvent.Result.ALLOWED)
+			store.release(e.getPlayer().getUniqueId());
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onQuit(PlayerQuitEvent e) {
+		store.release(e.getPlayer().getUniqueId());
+	}
+}
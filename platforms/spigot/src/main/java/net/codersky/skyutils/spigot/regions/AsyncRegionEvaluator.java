@@ -0,0 +1,243 @@
+package net.codersky.skyutils.spigot.regions;
+
+import net.codersky.skyutils.spigot.regions.event.RegionEnterEvent;
+import net.codersky.skyutils.spigot.regions.event.RegionLeaveEvent;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Evaluates region changes of every online player off the main thread, used by
+ * {@link RegionHandler#startAsyncEvaluation(JavaPlugin, boolean)}. Every tick, the block
+ * position of every player is sampled on the main thread, then every player is evaluated
+ * in parallel on a {@link ForkJoinPool} against an immutable snapshot of the region index.
+ * The resulting {@link RegionEnterEvent enter} and {@link RegionLeaveEvent leave} events
+ * are then called back on the main thread.
+ * <p>
+ * A tick is skipped if the previous batch is still being evaluated, which only
+ * delays events, as positions are compared with the last evaluated ones.
+ *
+ * @since SkyUtils v1.0.0
+ *
+ * @author xDec0de_
+ */
+final class AsyncRegionEvaluator implements Runnable {
+
+	private final RegionHandler handler;
+	private final JavaPlugin plugin;
+	private final ForkJoinPool pool;
+	/** Last evaluated regions of each player, each player is only evaluated by one thread at a time. */
+	private final ConcurrentHashMap<UUID, Tracked> tracked = new ConcurrentHashMap<>();
+	/** Players whose regions are evaluated again without calling events, such as after teleporting. */
+	private final Set<UUID> resets = ConcurrentHashMap.newKeySet();
+	private final AtomicBoolean evaluating = new AtomicBoolean(false);
+	/** Reused to sample locations, only accessed from the main thread. */
+	private final Location location = new Location(null, 0, 0, 0);
+	private long tick = 0;
+	@Nullable
+	private BukkitTask task;
+
+	AsyncRegionEvaluator(@Nonnull RegionHandler handler, @Nonnull JavaPlugin plugin) {
+		this.handler = handler;
+		this.plugin = plugin;
+		this.pool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+	}
+
+	void start() {
+		task = Bukkit.getScheduler().runTaskTimer(plugin, this, 1, 1);
+	}
+
+	void stop() {
+		if (task != null)
+			task.cancel();
+		pool.shutdown();
+	}
+
+	void reset(@Nonnull UUID uuid) {
+		resets.add(uuid);
+	}
+
+	/*
+	 * Sampling
+	 */
+
+	@Override
+	public void run() {
+		if (!evaluating.compareAndSet(false, true))
+			return;
+		final Map<UUID, RegionIndex> indexes = handler.getIndexSnapshot();
+		final Collection<? extends Player> online = Bukkit.getOnlinePlayers();
+		final Sample[] samples = new Sample[online.size()];
+		int count = 0;
+		for (Player player : online) {
+			player.getLocation(location);
+			final World world = location.getWorld();
+			if (world != null)
+				samples[count++] = new Sample(player, world.getUID(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+		}
+		final int sampled = count;
+		final long currentTick = ++tick;
+		try {
+			pool.execute(() -> {
+				try {
+					evaluate(Arrays.copyOf(samples, sampled), indexes, currentTick);
+				} finally {
+					evaluating.set(false);
+				}
+			});
+		} catch (RuntimeException e) { // Rejected once stopped.
+			evaluating.set(false);
+		}
+	}
+
+	/*
+	 * Evaluation
+	 */
+
+	private void evaluate(@Nonnull Sample[] samples, @Nonnull Map<UUID, RegionIndex> indexes, long currentTick) {
+		// Runs on the pool, so the parallel stream splits players among its threads.
+		Arrays.stream(samples).parallel().forEach(sample -> evaluate(sample, indexes, currentTick));
+		// Players that weren't sampled went offline.
+		tracked.values().removeIf(state -> state.lastTick != currentTick);
+		final List<Sample> changed = new ArrayList<>();
+		for (Sample sample : samples)
+			if (sample.entered != null || sample.left != null)
+				changed.add(sample);
+		if (!changed.isEmpty() && plugin.isEnabled())
+			Bukkit.getScheduler().runTask(plugin, () -> dispatch(changed));
+	}
+
+	private void evaluate(@Nonnull Sample sample, @Nonnull Map<UUID, RegionIndex> indexes, long currentTick) {
+		final UUID uuid = sample.player.getUniqueId();
+		Tracked state = tracked.get(uuid);
+		// Regions are evaluated again without events for new players, after resets, or after changing worlds.
+		boolean silent = resets.remove(uuid);
+		if (state == null) {
+			state = new Tracked();
+			tracked.put(uuid, state);
+			silent = true;
+		}
+		state.lastTick = currentTick;
+		if (!silent && state.indexes == indexes && state.isStableAt(sample))
+			return;
+		silent |= !sample.worldId.equals(state.worldId);
+		final RegionIndex index = indexes.get(sample.worldId);
+		if (index == null)
+			state.next.clear();
+		else
+			index.query(sample.x, sample.y, sample.z, state.next);
+		if (!silent) {
+			sample.entered = getChanges(state.current, state.next);
+			sample.left = getChanges(state.next, state.current);
+			// Removed regions weren't left by the player, but regions may have changed while moving.
+			if (sample.left != null && state.indexes != indexes) {
+				sample.left.removeIf(region -> index == null || !index.contains(region));
+				if (sample.left.isEmpty())
+					sample.left = null;
+			}
+		}
+		state.moveTo(sample, index, indexes);
+	}
+
+	@Nullable
+	private static List<Region> getChanges(@Nonnull RegionQuery a, @Nonnull RegionQuery b) {
+		List<Region> changes = null;
+		for (int i = 0; i < b.size(); i++) {
+			final Region onB = b.get(i);
+			if (a.contains(onB))
+				continue;
+			if (changes == null)
+				changes = new ArrayList<>(2);
+			changes.add(onB);
+		}
+		return changes;
+	}
+
+	/*
+	 * Dispatching
+	 */
+
+	private void dispatch(@Nonnull List<Sample> changed) {
+		for (Sample sample : changed) {
+			if (!sample.player.isOnline())
+				continue;
+			if (sample.entered != null)
+				sample.entered.forEach(entered -> new RegionEnterEvent(sample.player, entered).call());
+			if (sample.left != null)
+				sample.left.forEach(left -> new RegionLeaveEvent(sample.player, left).call());
+		}
+	}
+
+	/*
+	 * State classes
+	 */
+
+	private static final class Sample {
+
+		private final Player player;
+		private final UUID worldId;
+		private final int x, y, z;
+		@Nullable
+		private List<Region> entered;
+		@Nullable
+		private List<Region> left;
+
+		private Sample(@Nonnull Player player, @Nonnull UUID worldId, int x, int y, int z) {
+			this.player = player;
+			this.worldId = worldId;
+			this.x = x;
+			this.y = y;
+			this.z = z;
+		}
+	}
+
+	/** Same as the membership cache of {@link RegionHandler}, but for evaluated positions. */
+	private static final class Tracked {
+
+		private RegionQuery current = new RegionQuery();
+		private RegionQuery next = new RegionQuery();
+		@Nullable
+		private Map<UUID, RegionIndex> indexes;
+		@Nullable
+		private UUID worldId;
+		private final int[] bounds = new int[6];
+		private long lastTick;
+
+		private boolean isStableAt(@Nonnull Sample sample) {
+			return sample.worldId.equals(worldId) &&
+					sample.x >= bounds[0] && sample.y >= bounds[1] && sample.z >= bounds[2] &&
+					sample.x <= bounds[3] && sample.y <= bounds[4] && sample.z <= bounds[5];
+		}
+
+		private void moveTo(@Nonnull Sample sample, @Nullable RegionIndex index, @Nonnull Map<UUID, RegionIndex> indexes) {
+			final RegionQuery previous = current;
+			current = next;
+			next = previous;
+			this.indexes = indexes;
+			this.worldId = sample.worldId;
+			if (index != null) {
+				index.getStableBounds(sample.x, sample.y, sample.z, bounds);
+				return;
+			}
+			bounds[0] = bounds[1] = bounds[2] = Integer.MIN_VALUE;
+			bounds[3] = bounds[4] = bounds[5] = Integer.MAX_VALUE;
+		}
+	}
+}
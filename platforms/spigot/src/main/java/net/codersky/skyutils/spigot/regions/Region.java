@@ -71,6 +71,17 @@ public interface Region {
 				contains(location.getBlockX(), location.getBlockY(), location.getBlockZ());
 	}
 
+	/**
+	 * Gets the priority of this {@link Region}, used to choose a single region
+	 * when many overlap, such as by {@link RegionHandler#getPriorityRegionAt(Location)}.
+	 * Regions with a higher priority are preferred, and regions with the same priority
+	 * are ordered by the order they were added in. The priority must not change
+	 * while the region is added to a {@link RegionHandler}.
+	 *
+	 * @return The priority of this {@link Region}, one by default.
+	 *
+	 * @since SkyUtils v1.0.0
+	 */
 	public default int getPriority() {
 		return 1;
 	}
@@ -218,7 +218,9 @@ public class Region2D implements Region {
 	public boolean equals(@Nullable Object obj) {
 		if (this == obj)
 			return true;
-		if (!(obj instanceof Region3D))
+		// Subclasses, such as regions of other plugins, keep identity equality, as different
+		// regions may share the same bounds. Region3D overrides this method with its own bounds.
+		if (obj == null || getClass() != Region2D.class || obj.getClass() != Region2D.class)
 			return false;
 		final Region2D other = (Region2D) obj;
 		return world.equals(other.world)
@@ -233,7 +233,9 @@ public class Region3D extends Region2D {
 	public boolean equals(@Nullable Object obj) {
 		if (this == obj)
 			return true;
-		if (!(obj instanceof Region3D))
+		// Subclasses, such as regions of other plugins, keep identity equality, as different
+		// regions may share the same bounds, just like on Region2D.
+		if (obj == null || getClass() != Region3D.class || obj.getClass() != Region3D.class)
 			return false;
 		final Region3D other = (Region3D) obj;
 		return world.equals(other.world)
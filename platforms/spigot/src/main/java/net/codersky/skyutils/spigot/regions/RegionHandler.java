@@ -9,18 +9,27 @@ import net.codersky.skyutils.spigot.regions.event.RegionLeavingEvent;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.World;
+import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
 import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.ApiStatus;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
@@ -29,12 +38,105 @@ import java.util.function.Function;
 public class RegionHandler implements Listener {
 
 	private final HashMap<UUID, HashSet<Region>> regions = new HashMap<>();
+	private final HashMap<UUID, RegionIndex> indexes = new HashMap<>();
+	/** Regions each player is inside of, only accessed from the main thread. */
+	private final HashMap<UUID, Membership> memberships = new HashMap<>();
+	/** Copy of {@link #indexes} used by {@link #evaluator}, {@code null} once regions change. */
+	@Nullable
+	private Map<UUID, RegionIndex> indexSnapshot;
+	@Nullable
+	private AsyncRegionEvaluator evaluator;
+	private boolean cancellableEvents = true;
 
 	public RegionHandler init(@Nonnull JavaPlugin plugin) {
 		Bukkit.getPluginManager().registerEvents(this, plugin);
 		return this;
 	}
 
+	/*
+	 * Async evaluation
+	 */
+
+	/**
+	 * Starts evaluating region changes asynchronously, intended for servers with many players.
+	 * Every tick, the block position of every online player is sampled, then every player is
+	 * evaluated in parallel off the main thread, against a snapshot of the regions of this
+	 * handler. {@link RegionEnterEvent} and {@link RegionLeaveEvent} are then called on the
+	 * main thread, up to a few ticks after the player moved, instead of during the move.
+	 * <p>
+	 * As moves can't be cancelled once they happened, {@link RegionEnteringEvent} and
+	 * {@link RegionLeavingEvent} are still called synchronously on every move if
+	 * {@code cancellableEvents} is {@code true}, and never called otherwise, which
+	 * removes all region checks from the main thread.
+	 * <p>
+	 * Custom {@link Region} implementations must be safe to check from other threads
+	 * while async evaluation is running, which is already the case for {@link Region2D}
+	 * and {@link Region3D}.
+	 *
+	 * @param plugin The plugin used to schedule tasks.
+	 * @param cancellableEvents Whether to call {@link RegionEnteringEvent} and {@link RegionLeavingEvent} or not.
+	 *
+	 * @return This {@link RegionHandler}.
+	 *
+	 * @since SkyUtils v1.0.0
+	 *
+	 * @see #stopAsyncEvaluation()
+	 */
+	@Nonnull
+	public RegionHandler startAsyncEvaluation(@Nonnull JavaPlugin plugin, boolean cancellableEvents) {
+		stopAsyncEvaluation();
+		this.cancellableEvents = cancellableEvents;
+		this.evaluator = new AsyncRegionEvaluator(this, Objects.requireNonNull(plugin, "Plugin cannot be null"));
+		evaluator.start();
+		return this;
+	}
+
+	/**
+	 * Stops evaluating region changes asynchronously, going back to evaluating
+	 * them synchronously on every move. This should be called when the plugin
+	 * is disabled if {@link #startAsyncEvaluation(JavaPlugin, boolean) started}.
+	 *
+	 * @return This {@link RegionHandler}.
+	 *
+	 * @since SkyUtils v1.0.0
+	 */
+	@Nonnull
+	public RegionHandler stopAsyncEvaluation() {
+		if (evaluator != null) {
+			evaluator.stop();
+			evaluator = null;
+			cancellableEvents = true;
+			memberships.clear(); // Not updated while evaluating asynchronously.
+		}
+		return this;
+	}
+
+	/**
+	 * Checks if region changes are being evaluated asynchronously.
+	 *
+	 * @return {@code true} if region changes are being evaluated asynchronously, {@code false} otherwise.
+	 *
+	 * @since SkyUtils v1.0.0
+	 *
+	 * @see #startAsyncEvaluation(JavaPlugin, boolean)
+	 */
+	public boolean isEvaluatingAsync() {
+		return evaluator != null;
+	}
+
+	/** Gets an immutable copy of every index, only copied again once regions change. */
+	@Nonnull
+	Map<UUID, RegionIndex> getIndexSnapshot() {
+		Map<UUID, RegionIndex> snapshot = indexSnapshot;
+		if (snapshot == null) {
+			final HashMap<UUID, RegionIndex> copy = new HashMap<>();
+			indexes.forEach((worldId, index) -> copy.put(worldId, index.copy()));
+			snapshot = Collections.unmodifiableMap(copy);
+			indexSnapshot = snapshot;
+		}
+		return snapshot;
+	}
+
 	@Nonnull
 	public Set<Region> getRegionsAt(@Nonnull World world) {
 		final Set<Region> worldRegions = regions.get(world.getUID());
@@ -43,29 +145,202 @@ public class RegionHandler implements Listener {
 
 	@Nonnull
 	public Set<Region> getRegionsAt(@Nonnull Location location) {
-		if (!location.isWorldLoaded() || location.getWorld() == null)
-			return Collections.emptySet();
-		final Set<Region> worldRegions = getRegionsAt(location.getWorld());
-		final int x = location.getBlockX();
-		final int y = location.getBlockY();
-		final int z = location.getBlockZ();
-		return SkyCollections.remove(worldRegions, region -> !region.contains(x, y, z));
+		return getRegionsAt(location, new RegionQuery()).toSet();
+	}
+
+	/**
+	 * Gets the regions that contain a {@link Location}, storing them on a reusable
+	 * {@link RegionQuery}. Only the regions close to {@code location} are tested,
+	 * and no collection is allocated, so this is the preferred method for lookups
+	 * done frequently, such as on every movement of every player.
+	 *
+	 * @param location The {@link Location} to check.
+	 * @param result The {@link RegionQuery} to store the regions on, which is cleared first.
+	 *
+	 * @return {@code result}, for convenience.
+	 *
+	 * @since SkyUtils v1.0.0
+	 */
+	@Nonnull
+	public RegionQuery getRegionsAt(@Nonnull Location location, @Nonnull RegionQuery result) {
+		if (!location.isWorldLoaded() || location.getWorld() == null) {
+			result.clear();
+			return result;
+		}
+		return getRegionsAt(location.getWorld(), location.getBlockX(), location.getBlockY(), location.getBlockZ(), result);
+	}
+
+	/**
+	 * Gets the regions that contain a set of block coordinates, storing them on a reusable
+	 * {@link RegionQuery}. Read {@link #getRegionsAt(Location, RegionQuery)} for details.
+	 *
+	 * @param world The {@link World} of the coordinates.
+	 * @param x The X coordinate to check.
+	 * @param y The Y coordinate to check.
+	 * @param z The Z coordinate to check.
+	 * @param result The {@link RegionQuery} to store the regions on, which is cleared first.
+	 *
+	 * @return {@code result}, for convenience.
+	 *
+	 * @since SkyUtils v1.0.0
+	 */
+	@Nonnull
+	public RegionQuery getRegionsAt(@Nonnull World world, int x, int y, int z, @Nonnull RegionQuery result) {
+		final RegionIndex index = indexes.get(world.getUID());
+		if (index == null)
+			result.clear();
+		else
+			index.query(x, y, z, result);
+		return result;
 	}
 
+	/**
+	 * Gets the region with the highest {@link Region#getPriority() priority} that contains
+	 * a {@link Location}. Regions are sorted by priority when added, so this only tests
+	 * regions close to {@code loc} until one contains it, without sorting anything.
+	 *
+	 * @param loc The {@link Location} to check.
+	 *
+	 * @return The region with the highest priority at {@code loc}, {@code null} if no region contains it.
+	 *
+	 * @since SkyUtils v1.0.0
+	 */
+	@Nullable
 	public Region getPriorityRegionAt(@Nonnull Location loc) {
-		return null;
+		if (!loc.isWorldLoaded() || loc.getWorld() == null)
+			return null;
+		final RegionIndex index = indexes.get(loc.getWorld().getUID());
+		return index == null ? null : index.getPriorityRegion(loc.getBlockX(), loc.getBlockY(), loc.getBlockZ());
 	}
 
+	/**
+	 * Gets the region with the highest {@link Region#getPriority() priority} at the location of
+	 * every player of {@code players}. Players whose regions are already known from their last
+	 * move are resolved without testing any region, the rest are resolved just like
+	 * {@link #getPriorityRegionAt(Location)}.
+	 *
+	 * @param players The players to check, such as {@link Bukkit#getOnlinePlayers()}.
+	 *
+	 * @return A new {@link Map} with the region with the highest priority of each
+	 * player, which only contains players that are inside any region.
+	 *
+	 * @since SkyUtils v1.0.0
+	 */
+	@Nonnull
+	public Map<Player, Region> getPriorityRegions(@Nonnull Collection<? extends Player> players) {
+		final Map<Player, Region> result = new HashMap<>();
+		final Location location = new Location(null, 0, 0, 0);
+		UUID worldId = null;
+		RegionIndex index = null;
+		for (Player player : players) {
+			player.getLocation(location);
+			final World world = location.getWorld();
+			if (world == null)
+				continue;
+			final Membership membership = memberships.get(player.getUniqueId());
+			final Region region;
+			if (membership != null && !membership.busy && membership.isStableAt(location)) {
+				region = membership.current.isEmpty() ? null : membership.current.get(0);
+			} else {
+				if (!world.getUID().equals(worldId)) { // Players are usually grouped by world, so the index is reused.
+					worldId = world.getUID();
+					index = indexes.get(worldId);
+				}
+				region = index == null ? null : index.getPriorityRegion(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+			}
+			if (region != null)
+				result.put(player, region);
+		}
+		return result;
+	}
+
+	/*
+	 * Region management
+	 */
+
 	public boolean addRegion(@Nonnull Region region) {
+		final UUID worldId = region.getWorld().getUID();
+		final HashSet<Region> worldRegions = regions.computeIfAbsent(worldId, id -> new HashSet<>());
+		if (!worldRegions.add(region))
+			return false;
+		indexes.computeIfAbsent(worldId, id -> new RegionIndex()).add(region);
+		onRegionsChanged();
+		return true;
+	}
+
+	/**
+	 * Adds every region of {@code regions} to this handler, just like calling {@link #addRegion(Region)}
+	 * for each of them, but much faster for large amounts of regions, as the regions of each world
+	 * are indexed in a single pass. Regions already added to this handler are ignored.
+	 *
+	 * @param regions The regions to add.
+	 *
+	 * @return The amount of regions that were added.
+	 *
+	 * @since SkyUtils v1.0.0
+	 */
+	public int addRegions(@Nonnull Collection<? extends Region> regions) {
+		final Map<UUID, List<Region>> added = new HashMap<>();
+		for (Region region : regions) {
+			final UUID worldId = region.getWorld().getUID();
+			if (this.regions.computeIfAbsent(worldId, id -> new HashSet<>()).add(region))
+				added.computeIfAbsent(worldId, id -> new ArrayList<>()).add(region);
+		}
+		int count = 0;
+		for (Map.Entry<UUID, List<Region>> entry : added.entrySet()) {
+			indexes.computeIfAbsent(entry.getKey(), id -> new RegionIndex()).addAll(entry.getValue());
+			count += entry.getValue().size();
+		}
+		if (count != 0)
+			onRegionsChanged();
+		return count;
+	}
+
+	/**
+	 * Removes a region from this handler. Players inside of {@code region} don't
+	 * leave it, so no {@link RegionLeaveEvent} is called for them.
+	 *
+	 * @param region The region to remove.
+	 *
+	 * @return {@code true} if {@code region} was removed, {@code false} if
+	 * it wasn't added to this handler.
+	 *
+	 * @since SkyUtils v1.0.0
+	 */
+	public boolean removeRegion(@Nonnull Region region) {
 		final UUID worldId = region.getWorld().getUID();
 		final HashSet<Region> worldRegions = regions.get(worldId);
-		if (worldRegions == null) {
-			regions.put(worldId, SkyCollections.asHashSet(region));
-		} else
-			return worldRegions.add(region);
+		if (worldRegions == null || !worldRegions.remove(region))
+			return false;
+		indexes.get(worldId).remove(region);
+		onRegionsChanged();
 		return true;
 	}
 
+	/**
+	 * Removes every region of a {@link World} from this handler, such as when it unloads.
+	 * Just like {@link #removeRegion(Region)}, no {@link RegionLeaveEvent} is called.
+	 *
+	 * @param world The {@link World} to remove the regions from.
+	 *
+	 * @return The amount of regions that were removed.
+	 *
+	 * @since SkyUtils v1.0.0
+	 */
+	public int removeRegions(@Nonnull World world) {
+		final HashSet<Region> worldRegions = regions.remove(world.getUID());
+		indexes.remove(world.getUID());
+		if (worldRegions == null || worldRegions.isEmpty())
+			return 0;
+		onRegionsChanged();
+		return worldRegions.size();
+	}
+
+	private void onRegionsChanged() {
+		memberships.clear(); // Regions that contain players changed, rebuilt on their next move.
+		indexSnapshot = null;
+	}
+
 	/*
 	 * Enter / Leave handling
 	 */
@@ -73,21 +348,70 @@ public class RegionHandler implements Listener {
 	@ApiStatus.Internal
 	@EventHandler
 	public void onMove(PlayerMoveEvent e) {
-		if (!hasChangedBlock(e.getFrom(), e.getTo()))
+		final Location from = e.getFrom();
+		final Location to = e.getTo();
+		if ((evaluator != null && !cancellableEvents) || !hasChangedBlock(from, to))
+			return;
+		final Membership membership = memberships.computeIfAbsent(e.getPlayer().getUniqueId(), id -> new Membership());
+		if (membership.busy) { // A region event caused another move, the cached regions are in use.
+			handleMove(e, getRegionsAt(from, new RegionQuery()), getRegionsAt(to, new RegionQuery()));
 			return;
-		// Get all regions at from and to
-		final Set<Region> to = getRegionsAt(e.getTo());
-		final Set<Region> from = getRegionsAt(e.getFrom());
+		}
+		// Cached regions are rebuilt if the player didn't move from where they were cached, as after teleports.
+		if (!membership.isStableAt(from))
+			membership.rebuild(from);
+		// Nothing to enter nor leave without leaving the box where the current regions stay the same.
+		if (membership.isStableAt(to))
+			return;
+		membership.busy = true;
+		try {
+			if (handleMove(e, membership.current, getRegionsAt(to, membership.next)))
+				membership.moveTo(to);
+		} finally {
+			membership.busy = false;
+		}
+	}
+
+	@ApiStatus.Internal
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	public void onTeleport(PlayerTeleportEvent e) {
+		memberships.remove(e.getPlayer().getUniqueId());
+		if (evaluator != null)
+			evaluator.reset(e.getPlayer().getUniqueId());
+	}
+
+	@ApiStatus.Internal
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onWorldChange(PlayerChangedWorldEvent e) {
+		memberships.remove(e.getPlayer().getUniqueId());
+		if (evaluator != null)
+			evaluator.reset(e.getPlayer().getUniqueId());
+	}
+
+	@ApiStatus.Internal
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onQuit(PlayerQuitEvent e) {
+		memberships.remove(e.getPlayer().getUniqueId());
+	}
+
+	/** Calls region events for a move, returning {@code false} if the move was cancelled. */
+	private boolean handleMove(@Nonnull PlayerMoveEvent e, @Nonnull RegionQuery from, @Nonnull RegionQuery to) {
+		if (from.isEmpty() && to.isEmpty())
+			return true;
 		// Filter regions that are being entered or left
-		final Set<Region> entering = getRegionChanges(from, to, r -> new RegionEnteringEvent(e.getPlayer(), r));
-		final Set<Region> leaving = getRegionChanges(to, from, r -> new RegionLeavingEvent(e.getPlayer(), r));
+		final List<Region> entering = getRegionChanges(from, to, r -> new RegionEnteringEvent(e.getPlayer(), r));
+		final List<Region> leaving = getRegionChanges(to, from, r -> new RegionLeavingEvent(e.getPlayer(), r));
 		// Cancel event if any called event was cancelled
-		if (entering == null || leaving == null)
+		if (entering == null || leaving == null) {
 			e.setCancelled(true);
-		else { // Call success events
-			entering.forEach(entered -> new RegionEnterEvent(e.getPlayer(), entered).call());
-			leaving.forEach(left -> new RegionLeaveEvent(e.getPlayer(), left).call());
+			return false;
 		}
+		// Call success events, unless they are called by the async evaluator
+		if (evaluator != null)
+			return true;
+		entering.forEach(entered -> new RegionEnterEvent(e.getPlayer(), entered).call());
+		leaving.forEach(left -> new RegionLeaveEvent(e.getPlayer(), left).call());
+		return true;
 	}
 
 	private boolean hasChangedBlock(@Nonnull Location from, @Nullable Location to) {
@@ -100,16 +424,72 @@ public class RegionHandler implements Listener {
 				from.getBlockZ() != to.getBlockZ();
 	}
 
-	private Set<Region> getRegionChanges(Set<Region> a, Set<Region> b, Function<Region, CancellableMCPlayerEvent> fun) {
-		final Set<Region> entered = new HashSet<>();
-		for (Region onB : b) {
+	@Nullable
+	private List<Region> getRegionChanges(RegionQuery a, RegionQuery b, Function<Region, CancellableMCPlayerEvent> fun) {
+		List<Region> changes = Collections.emptyList();
+		for (int i = 0; i < b.size(); i++) {
+			final Region onB = b.get(i);
 			if (a.contains(onB))
 				continue;
-			if (!fun.apply(onB).call().isCancelled())
+			if (fun.apply(onB).call().isCancelled())
 				return null;
-			else
-				entered.add(onB);
+			if (changes.isEmpty())
+				changes = new ArrayList<>(2);
+			changes.add(onB);
+		}
+		return changes;
+	}
+
+	/*
+	 * Membership cache
+	 */
+
+	/**
+	 * The regions a player is inside of, along with a box around the player where those
+	 * regions stay the same, so moves inside the box don't test any region at all.
+	 */
+	private final class Membership {
+
+		private RegionQuery current = new RegionQuery();
+		private RegionQuery next = new RegionQuery();
+		@Nullable
+		private UUID worldId;
+		/** Min X, Y, Z and max X, Y, Z of the stable box, inclusive. */
+		private final int[] bounds = new int[6];
+		private boolean busy = false;
+
+		private boolean isStableAt(@Nonnull Location location) {
+			final World world = location.getWorld();
+			if (worldId == null || world == null || !worldId.equals(world.getUID()))
+				return false;
+			final int x = location.getBlockX(), y = location.getBlockY(), z = location.getBlockZ();
+			return x >= bounds[0] && y >= bounds[1] && z >= bounds[2] && x <= bounds[3] && y <= bounds[4] && z <= bounds[5];
+		}
+
+		private void rebuild(@Nonnull Location location) {
+			getRegionsAt(location, current);
+			updateBounds(location);
+		}
+
+		/** Makes the regions stored on {@link #next} the current ones, once the player moved to {@code location}. */
+		private void moveTo(@Nonnull Location location) {
+			final RegionQuery previous = current;
+			current = next;
+			next = previous;
+			updateBounds(location);
+		}
+
+		private void updateBounds(@Nonnull Location location) {
+			final World world = location.getWorld();
+			worldId = world == null ? null : world.getUID();
+			final RegionIndex index = worldId == null ? null : indexes.get(worldId);
+			if (index != null) {
+				index.getStableBounds(location.getBlockX(), location.getBlockY(), location.getBlockZ(), bounds);
+				return;
+			}
+			// Without regions on the world, nothing can change until regions are added, which clears every membership.
+			bounds[0] = bounds[1] = bounds[2] = Integer.MIN_VALUE;
+			bounds[3] = bounds[4] = bounds[5] = Integer.MAX_VALUE;
 		}
-		return entered;
 	}
 }
@@ -0,0 +1,405 @@
+package net.codersky.skyutils.spigot.regions;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Spatial index of the regions of a single world, used by {@link RegionHandler}.
+ * Regions are split into a grid of 16x16 columns, matching chunks, and each cell
+ * stores the regions whose bounds overlap it, so a lookup only tests the regions
+ * of a single cell instead of every region of the world.
+ * <p>
+ * Regions without known bounds, this is, anything that isn't a {@link Region2D},
+ * and regions covering more than {@link #MAX_INDEXED_CELLS} cells, are kept apart
+ * and tested on every lookup, so huge regions don't fill the grid.
+ * <p>
+ * Cells are stored on an open addressing table keyed by the packed coordinates of the
+ * cell, so lookups don't box keys, and cell arrays are replaced instead of modified.
+ * Regions of each cell are sorted by {@link Region#getPriority() priority} when added,
+ * highest first, so the region with the highest priority at a block is the first one
+ * that contains it, and lookups never need to sort.
+ *
+ * @since SkyUtils v1.0.0
+ *
+ * @author xDec0de_
+ */
+final class RegionIndex {
+
+	/** Maximum amount of cells a region can cover before being tested on every lookup instead. */
+	static final int MAX_INDEXED_CELLS = 4096;
+	private static final Region[] EMPTY = new Region[0];
+	/** Highest priority first, as sorts are stable, regions with the same priority keep their order. */
+	private static final Comparator<Region> BY_PRIORITY = (a, b) -> Integer.compare(b.getPriority(), a.getPriority());
+
+	private long[] keys = new long[64];
+	/** Regions of each cell, {@code null} on unused slots. */
+	private Region[][] cells = new Region[64][];
+	private int usedSlots = 0;
+	private Region[] unindexed = EMPTY;
+
+	/*
+	 * Lookups
+	 */
+
+	/** Stores the regions that contain a block on {@code result}, sorted by priority, highest first. */
+	void query(int x, int y, int z, @Nonnull RegionQuery result) {
+		result.clear();
+		final Region[] cell = getCell(x >> 4, z >> 4);
+		final Region[] regions = cell == null ? EMPTY : cell;
+		// Both arrays are sorted, so they are merged, preferring the cell on equal priorities.
+		int i = 0, j = 0;
+		while (i < regions.length || j < unindexed.length) {
+			final Region region;
+			if (j == unindexed.length || (i < regions.length && regions[i].getPriority() >= unindexed[j].getPriority()))
+				region = regions[i++];
+			else
+				region = unindexed[j++];
+			if (region.contains(x, y, z))
+				result.add(region);
+		}
+	}
+
+	/** Gets the region with the highest priority that contains a block, {@code null} if none does. */
+	@Nullable
+	Region getPriorityRegion(int x, int y, int z) {
+		Region found = null;
+		final Region[] cell = getCell(x >> 4, z >> 4);
+		if (cell != null) {
+			for (Region region : cell) {
+				if (region.contains(x, y, z)) {
+					found = region;
+					break;
+				}
+			}
+		}
+		for (Region region : unindexed) {
+			if (found != null && region.getPriority() <= found.getPriority())
+				break;
+			if (region.contains(x, y, z))
+				return region;
+		}
+		return found;
+	}
+
+	/** Checks if a region has been added to this index. */
+	boolean contains(@Nonnull Region region) {
+		if (!(region instanceof Region2D bounds) || getCellCount(bounds) > MAX_INDEXED_CELLS)
+			return find(unindexed, region) != -1;
+		// Indexed regions are stored on every cell they cover, including the one of their minimum corner.
+		final Region[] cell = getCell(bounds.getMinX() >> 4, bounds.getMinZ() >> 4);
+		return cell != null && find(cell, region) != -1;
+	}
+
+	/**
+	 * Computes the bounds of a box around a block where the regions that contain a
+	 * block are always the same. The box never leaves the cell of the block, and for
+	 * each region of the cell, it is either inside the region or totally outside of it,
+	 * so moving inside the box can't enter nor leave any region. If a region that isn't
+	 * exactly a {@link Region2D} or {@link Region3D} is found, the box is just the block itself.
+	 *
+	 * @param bounds The array to store the bounds on, as min X, Y, Z and max X, Y, Z, inclusive.
+	 */
+	void getStableBounds(int x, int y, int z, @Nonnull int[] bounds) {
+		final int cx = x >> 4, cz = z >> 4;
+		bounds[0] = cx << 4;
+		bounds[1] = Integer.MIN_VALUE;
+		bounds[2] = cz << 4;
+		bounds[3] = (cx << 4) + 15;
+		bounds[4] = Integer.MAX_VALUE;
+		bounds[5] = (cz << 4) + 15;
+		final Region[] cell = getCell(cx, cz);
+		if (cell != null)
+			for (Region region : cell)
+				restrict(region, x, y, z, bounds);
+		for (Region region : unindexed)
+			restrict(region, x, y, z, bounds);
+	}
+
+	private static void restrict(@Nonnull Region region, int x, int y, int z, @Nonnull int[] bounds) {
+		// Subclasses may override contains with other shapes, so only the bounds of known types are trusted.
+		if (!(region instanceof Region2D box) || (box.getClass() != Region2D.class && box.getClass() != Region3D.class)) {
+			bounds[0] = bounds[3] = x;
+			bounds[1] = bounds[4] = y;
+			bounds[2] = bounds[5] = z;
+			return;
+		}
+		final boolean hasY = box instanceof Region3D;
+		final int minY = hasY ? ((Region3D) box).getMinY() : Integer.MIN_VALUE;
+		final int maxY = hasY ? ((Region3D) box).getMaxY() : Integer.MAX_VALUE;
+		if (box.contains(x, y, z)) { // Inside, stay inside.
+			bounds[0] = Math.max(bounds[0], box.minX);
+			bounds[1] = Math.max(bounds[1], minY);
+			bounds[2] = Math.max(bounds[2], box.minZ);
+			bounds[3] = Math.min(bounds[3], box.maxX);
+			bounds[4] = Math.min(bounds[4], maxY);
+			bounds[5] = Math.min(bounds[5], box.maxZ);
+			return;
+		}
+		// Outside, stay on the side of a plane that separates the block from the region, the farthest one.
+		int axis = -1;
+		long gap = 0;
+		if (x < box.minX && box.minX - (long) x > gap) { axis = 3; gap = box.minX - (long) x; }
+		if (x > box.maxX && x - (long) box.maxX > gap) { axis = 0; gap = x - (long) box.maxX; }
+		if (z < box.minZ && box.minZ - (long) z > gap) { axis = 5; gap = box.minZ - (long) z; }
+		if (z > box.maxZ && z - (long) box.maxZ > gap) { axis = 2; gap = z - (long) box.maxZ; }
+		if (y < minY && minY - (long) y > gap) { axis = 4; gap = minY - (long) y; }
+		if (y > maxY && y - (long) maxY > gap) { axis = 1; }
+		switch (axis) {
+			case 0 -> bounds[0] = Math.max(bounds[0], box.maxX + 1);
+			case 1 -> bounds[1] = Math.max(bounds[1], maxY + 1);
+			case 2 -> bounds[2] = Math.max(bounds[2], box.maxZ + 1);
+			case 3 -> bounds[3] = Math.min(bounds[3], box.minX - 1);
+			case 4 -> bounds[4] = Math.min(bounds[4], minY - 1);
+			case 5 -> bounds[5] = Math.min(bounds[5], box.minZ - 1);
+		}
+	}
+
+	/*
+	 * Copying
+	 */
+
+	/**
+	 * Creates a copy of this index that isn't affected by later modifications, so it can
+	 * be read from other threads. Cell arrays are never modified, so they are shared.
+	 */
+	@Nonnull
+	RegionIndex copy() {
+		final RegionIndex copy = new RegionIndex();
+		copy.keys = keys.clone();
+		copy.cells = cells.clone();
+		copy.usedSlots = usedSlots;
+		copy.unindexed = unindexed;
+		return copy;
+	}
+
+	/*
+	 * Modification
+	 */
+
+	void add(@Nonnull Region region) {
+		if (!(region instanceof Region2D bounds) || getCellCount(bounds) > MAX_INDEXED_CELLS) {
+			unindexed = insert(unindexed, region);
+			return;
+		}
+		for (int cx = bounds.getMinX() >> 4; cx <= bounds.getMaxX() >> 4; cx++) {
+			for (int cz = bounds.getMinZ() >> 4; cz <= bounds.getMaxZ() >> 4; cz++) {
+				final int slot = findSlot(pack(cx, cz));
+				cells[slot] = insert(cells[slot], region);
+			}
+		}
+	}
+
+	/**
+	 * Adds every region of {@code regions} at once, producing the same index as adding them
+	 * one by one with {@link #add(Region)}, in iteration order. Instead of copying a cell array
+	 * for every region added to it, the regions of each cell are counted first, so every cell
+	 * array is allocated once, and only sorted if regions with different priorities were added.
+	 */
+	void addAll(@Nonnull Collection<? extends Region> regions) {
+		final List<Region> newUnindexed = new ArrayList<>();
+		long entries = 0;
+		for (Region region : regions) {
+			if (!(region instanceof Region2D bounds) || getCellCount(bounds) > MAX_INDEXED_CELLS)
+				newUnindexed.add(region);
+			else
+				entries += getCellCount(bounds);
+		}
+		// Slot of every cell of every region, in order, so cells are only looked up once.
+		final int[] slots = new int[Math.toIntExact(entries)];
+		int entry = 0, stale = 0;
+		for (Region region : regions) {
+			if (!(region instanceof Region2D bounds) || getCellCount(bounds) > MAX_INDEXED_CELLS)
+				continue;
+			for (int cx = bounds.getMinX() >> 4; cx <= bounds.getMaxX() >> 4; cx++) {
+				for (int cz = bounds.getMinZ() >> 4; cz <= bounds.getMaxZ() >> 4; cz++) {
+					final int length = keys.length;
+					slots[entry] = findSlot(pack(cx, cz));
+					if (keys.length != length) // Resizing moves slots, so previous ones are looked up again.
+						stale = entry;
+					entry++;
+				}
+			}
+		}
+		entry = 0;
+		for (Region region : regions) {
+			if (entry >= stale)
+				break;
+			if (!(region instanceof Region2D bounds) || getCellCount(bounds) > MAX_INDEXED_CELLS)
+				continue;
+			for (int cx = bounds.getMinX() >> 4; cx <= bounds.getMaxX() >> 4; cx++)
+				for (int cz = bounds.getMinZ() >> 4; cz <= bounds.getMaxZ() >> 4; cz++, entry++)
+					if (entry < stale)
+						slots[entry] = indexOf(pack(cx, cz));
+		}
+		final int[] added = new int[keys.length];
+		for (int slot : slots)
+			added[slot]++;
+		// Cell arrays may be shared with copies of this index, so they are copied, never modified.
+		final int[] filled = new int[keys.length];
+		for (int slot = 0; slot < added.length; slot++) {
+			if (added[slot] == 0)
+				continue;
+			filled[slot] = cells[slot].length;
+			cells[slot] = Arrays.copyOf(cells[slot], filled[slot] + added[slot]);
+		}
+		entry = 0;
+		for (Region region : regions) {
+			if (!(region instanceof Region2D bounds) || getCellCount(bounds) > MAX_INDEXED_CELLS)
+				continue;
+			for (long i = getCellCount(bounds); i > 0; i--) {
+				final int slot = slots[entry++];
+				cells[slot][filled[slot]++] = region;
+			}
+		}
+		for (int slot = 0; slot < added.length; slot++)
+			if (added[slot] != 0)
+				sort(cells[slot]);
+		if (!newUnindexed.isEmpty()) {
+			final Region[] merged = Arrays.copyOf(unindexed, unindexed.length + newUnindexed.size());
+			for (int i = 0; i < newUnindexed.size(); i++)
+				merged[unindexed.length + i] = newUnindexed.get(i);
+			sort(merged);
+			unindexed = merged;
+		}
+	}
+
+	/** Sorts by priority, regions previously in the array come first, so ties keep the order of {@link #add(Region)}. */
+	private static void sort(@Nonnull Region[] array) {
+		for (int i = 1; i < array.length; i++) {
+			if (array[i - 1].getPriority() < array[i].getPriority()) {
+				Arrays.sort(array, BY_PRIORITY);
+				return;
+			}
+		}
+	}
+
+	void remove(@Nonnull Region region) {
+		if (!(region instanceof Region2D bounds) || getCellCount(bounds) > MAX_INDEXED_CELLS) {
+			unindexed = without(unindexed, region);
+			return;
+		}
+		for (int cx = bounds.getMinX() >> 4; cx <= bounds.getMaxX() >> 4; cx++) {
+			for (int cz = bounds.getMinZ() >> 4; cz <= bounds.getMaxZ() >> 4; cz++) {
+				final int slot = indexOf(pack(cx, cz));
+				// Empty cells are kept, removing slots would break the probe sequence of other keys.
+				if (slot != -1)
+					cells[slot] = without(cells[slot], region);
+			}
+		}
+	}
+
+	private static long getCellCount(@Nonnull Region2D bounds) {
+		final long width = (bounds.getMaxX() >> 4) - (bounds.getMinX() >> 4) + 1L;
+		final long length = (bounds.getMaxZ() >> 4) - (bounds.getMinZ() >> 4) + 1L;
+		return width * length;
+	}
+
+	/** Inserts a region after every region with the same or a higher priority. */
+	@Nonnull
+	private static Region[] insert(@Nonnull Region[] array, @Nonnull Region region) {
+		final int priority = region.getPriority();
+		int index = array.length;
+		while (index > 0 && array[index - 1].getPriority() < priority)
+			index--;
+		final Region[] inserted = new Region[array.length + 1];
+		System.arraycopy(array, 0, inserted, 0, index);
+		inserted[index] = region;
+		System.arraycopy(array, index, inserted, index + 1, array.length - index);
+		return inserted;
+	}
+
+	/** Regions of a world are unique, so an equal region is the one that was added. */
+	private static int find(@Nonnull Region[] array, @Nonnull Region region) {
+		for (int i = 0; i < array.length; i++)
+			if (array[i] == region || array[i].equals(region))
+				return i;
+		return -1;
+	}
+
+	@Nonnull
+	private static Region[] without(@Nonnull Region[] array, @Nonnull Region region) {
+		final int i = find(array, region);
+		if (i == -1)
+			return array;
+		if (array.length == 1)
+			return EMPTY;
+		final Region[] removed = new Region[array.length - 1];
+		System.arraycopy(array, 0, removed, 0, i);
+		System.arraycopy(array, i + 1, removed, i, array.length - i - 1);
+		return removed;
+	}
+
+	/*
+	 * Cell table
+	 */
+
+	private static long pack(int cx, int cz) {
+		return ((long) cx << 32) | (cz & 0xFFFFFFFFL);
+	}
+
+	private static int hash(long key, int mask) {
+		final long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32)) & mask;
+	}
+
+	private Region[] getCell(int cx, int cz) {
+		final long key = pack(cx, cz);
+		final int mask = keys.length - 1;
+		for (int slot = hash(key, mask); cells[slot] != null; slot = (slot + 1) & mask)
+			if (keys[slot] == key)
+				return cells[slot];
+		return null;
+	}
+
+	private int indexOf(long key) {
+		final int mask = keys.length - 1;
+		for (int slot = hash(key, mask); cells[slot] != null; slot = (slot + 1) & mask)
+			if (keys[slot] == key)
+				return slot;
+		return -1;
+	}
+
+	/** Finds the slot of {@code key}, claiming a new one if not present. */
+	private int findSlot(long key) {
+		int mask = keys.length - 1;
+		int slot = hash(key, mask);
+		for (; cells[slot] != null; slot = (slot + 1) & mask)
+			if (keys[slot] == key)
+				return slot;
+		// Keeps the load factor under 0.5, so probe sequences stay short.
+		if ((usedSlots + 1) * 2 > keys.length) {
+			resize();
+			mask = keys.length - 1;
+			slot = hash(key, mask);
+			while (cells[slot] != null)
+				slot = (slot + 1) & mask;
+		}
+		keys[slot] = key;
+		cells[slot] = EMPTY;
+		usedSlots++;
+		return slot;
+	}
+
+	private void resize() {
+		final long[] oldKeys = keys;
+		final Region[][] oldCells = cells;
+		keys = new long[oldKeys.length * 2];
+		cells = new Region[oldCells.length * 2][];
+		final int mask = keys.length - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldCells[i] == null)
+				continue;
+			int slot = hash(oldKeys[i], mask);
+			while (cells[slot] != null)
+				slot = (slot + 1) & mask;
+			keys[slot] = oldKeys[i];
+			cells[slot] = oldCells[i];
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package net.codersky.skyutils.spigot.regions;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A reusable result of a {@link RegionHandler} lookup, such as
+ * {@link RegionHandler#getRegionsAt(org.bukkit.Location, RegionQuery)}.
+ * Each lookup clears the query and fills it with the regions found, so the
+ * same query can be used for every lookup without allocating new collections.
+ * <p>
+ * Queries aren't thread safe, and the regions they contain are only valid until
+ * the query is used again, so use {@link #toSet()} to keep them for longer.
+ *
+ * @since SkyUtils v1.0.0
+ *
+ * @author xDec0de_
+ */
+public final class RegionQuery {
+
+	private Region[] regions = new Region[8];
+	private int size = 0;
+
+	/**
+	 * Gets the amount of regions found by the last lookup.
+	 *
+	 * @return The amount of regions found.
+	 *
+	 * @since SkyUtils v1.0.0
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Checks if the last lookup didn't find any region.
+	 *
+	 * @return {@code true} if no region was found, {@code false} otherwise.
+	 *
+	 * @since SkyUtils v1.0.0
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Gets a region found by the last lookup.
+	 *
+	 * @param index The index of the region, from zero to {@link #size()} (Exclusive).
+	 *
+	 * @return The region at {@code index}.
+	 *
+	 * @throws IndexOutOfBoundsException if {@code index} is out of bounds.
+	 *
+	 * @since SkyUtils v1.0.0
+	 */
+	@Nonnull
+	public Region get(int index) {
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+		return regions[index];
+	}
+
+	/**
+	 * Checks if the last lookup found {@code region}.
+	 *
+	 * @param region The region to check.
+	 *
+	 * @return {@code true} if {@code region} was found, {@code false} otherwise.
+	 *
+	 * @since SkyUtils v1.0.0
+	 */
+	public boolean contains(@Nullable Region region) {
+		for (int i = 0; i < size; i++)
+			if (regions[i] == region || regions[i].equals(region))
+				return true;
+		return false;
+	}
+
+	/**
+	 * Copies the regions found by the last lookup to a new {@link Set}.
+	 *
+	 * @return A new {@link HashSet} with the regions found.
+	 *
+	 * @since SkyUtils v1.0.0
+	 */
+	@Nonnull
+	public Set<Region> toSet() {
+		final Set<Region> set = new HashSet<>(Math.max(4, size * 2));
+		for (int i = 0; i < size; i++)
+			set.add(regions[i]);
+		return set;
+	}
+
+	void clear() {
+		Arrays.fill(regions, 0, size, null);
+		size = 0;
+	}
+
+	void add(@Nonnull Region region) {
+		if (size == regions.length)
+			regions = Arrays.copyOf(regions, size * 2);
+		regions[size++] = region;
+	}
+
+	@Override
+	public String toString() {
+		return "RegionQuery" + Arrays.toString(Arrays.copyOf(regions, size));
+	}
+}
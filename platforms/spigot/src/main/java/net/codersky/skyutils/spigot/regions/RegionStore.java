@@ -0,0 +1,308 @@
+package net.codersky.skyutils.spigot.regions;
+
+import net.codersky.skyutils.storage.files.AsyncSaver;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.ApiStatus;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stores the regions of a {@link RegionHandler} on a compact binary file per {@link World},
+ * named after the {@link World#getUID() UUID} of the world. The regions of a world are
+ * loaded once the world loads, added to the handler in a single pass with
+ * {@link RegionHandler#addRegions(java.util.Collection)}, and removed once it unloads.
+ * <p>
+ * Only {@link Region2D} and {@link Region3D} instances are stored, subclasses and other
+ * {@link Region} implementations can't be recreated from their bounds, so they are ignored.
+ * <p>
+ * Files start with the "MCUR" magic bytes followed by a format version byte and the
+ * amount of regions. Each region is then stored as a type byte, 2 or 3, followed by its
+ * minimum and maximum X and Z coordinates, and its minimum and maximum Y coordinates
+ * for {@link Region3D}, as big endian ints.
+ *
+ * @since SkyUtils v1.0.0
+ *
+ * @author xDec0de_
+ */
+public class RegionStore implements Listener {
+
+	private static final byte[] MAGIC = {'M', 'C', 'U', 'R'};
+	private static final byte VERSION = 1;
+	private static final byte TYPE_2D = 2;
+	private static final byte TYPE_3D = 3;
+	private static final String EXTENSION = ".mcur";
+
+	private final RegionHandler handler;
+	private final File folder;
+	/** Worlds whose file was loaded, files of worlds that failed to load are never overwritten. */
+	private final Set<UUID> loaded = ConcurrentHashMap.newKeySet();
+	/** Latest encoded content of each world waiting for an async save. */
+	private final ConcurrentHashMap<UUID, byte[]> pendingSaves = new ConcurrentHashMap<>();
+	/** Held while taking pending content and writing it, so an older save never overwrites a newer one. */
+	private final Object writeLock = new Object();
+
+	/**
+	 * Creates a new {@link RegionStore}, which doesn't load anything until
+	 * {@link #init(JavaPlugin) initialized}.
+	 *
+	 * @param handler The {@link RegionHandler} to add the loaded regions to.
+	 * @param folder The folder to store region files on, such as "plugins/MyPlugin/regions".
+	 *
+	 * @throws NullPointerException if any argument is {@code null}.
+	 *
+	 * @since SkyUtils v1.0.0
+	 */
+	public RegionStore(@Nonnull RegionHandler handler, @Nonnull File folder) {
+		this.handler = Objects.requireNonNull(handler, "Handler cannot be null");
+		this.folder = Objects.requireNonNull(folder, "Folder cannot be null");
+	}
+
+	/**
+	 * Registers this {@link RegionStore} as a listener, so regions are loaded once
+	 * their world loads, and loads the regions of every world already loaded.
+	 *
+	 * @param plugin The plugin to register the listener with.
+	 *
+	 * @return This {@link RegionStore}.
+	 *
+	 * @since SkyUtils v1.0.0
+	 */
+	@Nonnull
+	public RegionStore init(@Nonnull JavaPlugin plugin) {
+		Bukkit.getPluginManager().registerEvents(this, plugin);
+		for (World world : Bukkit.getWorlds())
+			load(world);
+		return this;
+	}
+
+	/**
+	 * Gets the file where the regions of a {@link World} are stored.
+	 *
+	 * @param world The {@link World} to get the file of.
+	 *
+	 * @return The file of {@code world}, which may not exist.
+	 *
+	 * @since SkyUtils v1.0.0
+	 */
+	@Nonnull
+	public File getFile(@Nonnull World world) {
+		return new File(folder, world.getUID() + EXTENSION);
+	}
+
+	/*
+	 * Loading
+	 */
+
+	/**
+	 * Loads the regions of a {@link World} from its file, adding them to the
+	 * {@link RegionHandler} of this store. This is done automatically when the
+	 * world loads once this store is {@link #init(JavaPlugin) initialized}.
+	 *
+	 * @param world The {@link World} to load.
+	 *
+	 * @return The amount of regions added to the handler, {@code -1} if the file couldn't be read.
+	 *
+	 * @since SkyUtils v1.0.0
+	 */
+	public int load(@Nonnull World world) {
+		final File file = getFile(world);
+		if (!file.exists()) {
+			loaded.add(world.getUID());
+			return 0;
+		}
+		try {
+			final List<Region> regions = decode(world, ByteBuffer.wrap(Files.readAllBytes(file.toPath())));
+			loaded.add(world.getUID());
+			return handler.addRegions(regions);
+		} catch (IOException | RuntimeException e) {
+			System.err.println("Failed to load regions of world " + world.getName() + " from " + file.getPath());
+			e.printStackTrace();
+			return -1;
+		}
+	}
+
+	@Nonnull
+	private static List<Region> decode(@Nonnull World world, @Nonnull ByteBuffer in) throws IOException {
+		try {
+			for (byte b : MAGIC)
+				if (in.get() != b)
+					throw new IOException("Not a region file");
+			final byte version = in.get();
+			if (version != VERSION)
+				throw new IOException("Unsupported region file version " + version);
+			final int count = in.getInt();
+			if (count < 0)
+				throw new IOException("Invalid region count " + count);
+			final List<Region> regions = new ArrayList<>(Math.min(count, in.remaining() / 17));
+			for (int i = 0; i < count; i++) {
+				final byte type = in.get();
+				final int minX = in.getInt(), minZ = in.getInt(), maxX = in.getInt(), maxZ = in.getInt();
+				if (type == TYPE_2D) {
+					regions.add(new Region2D(world, minX, minZ, maxX, maxZ));
+				} else if (type == TYPE_3D) {
+					final int minY = in.getInt(), maxY = in.getInt();
+					regions.add(new Region3D(world, minX, minY, minZ, maxX, maxY, maxZ));
+				} else
+					throw new IOException("Unknown region type " + type);
+			}
+			return regions;
+		} catch (BufferUnderflowException e) {
+			throw new IOException("Region file is truncated", e);
+		}
+	}
+
+	/*
+	 * Saving
+	 */
+
+	/**
+	 * Saves the regions of a {@link World} to its file, replacing it atomically.
+	 * If no region can be stored, the file is deleted instead. Any {@link #saveAsync(World)
+	 * async save} of {@code world} still waiting to run is cancelled, as it would write
+	 * older regions, and any async save already writing is waited for.
+	 *
+	 * @param world The {@link World} to save.
+	 *
+	 * @return {@code true} if saved successfully, {@code false} if an error occurred or
+	 * the file of {@code world} failed to {@link #load(World) load}, as saving it would
+	 * overwrite regions that were never loaded.
+	 *
+	 * @since SkyUtils v1.0.0
+	 */
+	public boolean save(@Nonnull World world) {
+		final byte[] content = encode(world);
+		if (content == null)
+			return false;
+		synchronized (writeLock) {
+			pendingSaves.remove(world.getUID());
+			return write(world, content);
+		}
+	}
+
+	/**
+	 * Saves the regions of a {@link World} asynchronously with the {@link AsyncSaver#getDefault() default}
+	 * {@link AsyncSaver}. Regions are encoded on the calling thread, which must be the main thread, so
+	 * regions can be modified right after calling this method. If another save of {@code world} is
+	 * still waiting to run, it will write this content instead.
+	 *
+	 * @param world The {@link World} to save.
+	 *
+	 * @return A {@link CompletableFuture} completed with the result of the save,
+	 * read {@link #save(World)} for details.
+	 *
+	 * @since SkyUtils v1.0.0
+	 */
+	@Nonnull
+	public CompletableFuture<Boolean> saveAsync(@Nonnull World world) {
+		final byte[] content = encode(world);
+		if (content == null)
+			return CompletableFuture.completedFuture(false);
+		final UUID worldId = world.getUID();
+		pendingSaves.put(worldId, content);
+		return AsyncSaver.getDefault().submit(getFile(world), () -> {
+			synchronized (writeLock) {
+				// Null if written by a newer save meanwhile.
+				final byte[] latest = pendingSaves.remove(worldId);
+				return latest == null || write(world, latest);
+			}
+		});
+	}
+
+	/**
+	 * Saves the regions of every loaded {@link World}, which should be done when
+	 * the plugin is disabled, as regions aren't saved automatically when modified.
+	 *
+	 * @return {@code true} if every world was saved successfully, {@code false} otherwise.
+	 *
+	 * @since SkyUtils v1.0.0
+	 */
+	public boolean saveAll() {
+		boolean success = true;
+		for (World world : Bukkit.getWorlds())
+			success &= save(world);
+		return success;
+	}
+
+	/** Encodes the regions of a world, {@code null} if its file failed to load. */
+	@Nullable
+	private byte[] encode(@Nonnull World world) {
+		if (!loaded.contains(world.getUID())) {
+			System.err.println("Regions of world " + world.getName() + " weren't loaded, refusing to overwrite " + getFile(world).getPath());
+			return null;
+		}
+		final List<Region2D> stored = new ArrayList<>();
+		for (Region region : handler.getRegionsAt(world))
+			if (region.getClass() == Region2D.class || region.getClass() == Region3D.class)
+				stored.add((Region2D) region);
+		if (stored.isEmpty())
+			return new byte[0];
+		int size = MAGIC.length + 1 + 4;
+		for (Region2D region : stored)
+			size += region instanceof Region3D ? 25 : 17;
+		final ByteBuffer out = ByteBuffer.allocate(size);
+		out.put(MAGIC).put(VERSION).putInt(stored.size());
+		for (Region2D region : stored) {
+			out.put(region instanceof Region3D ? TYPE_3D : TYPE_2D);
+			out.putInt(region.getMinX()).putInt(region.getMinZ()).putInt(region.getMaxX()).putInt(region.getMaxZ());
+			if (region instanceof Region3D region3D)
+				out.putInt(region3D.getMinY()).putInt(region3D.getMaxY());
+		}
+		return out.array();
+	}
+
+	private boolean write(@Nonnull World world, @Nonnull byte[] content) {
+		final File file = getFile(world);
+		try {
+			if (content.length == 0)
+				Files.deleteIfExists(file.toPath());
+			else
+				AsyncSaver.writeAtomically(file, out -> out.write(content));
+			return true;
+		} catch (IOException e) {
+			System.err.println("Failed to save regions of world " + world.getName() + " to " + file.getPath());
+			e.printStackTrace();
+			return false;
+		}
+	}
+
+	/*
+	 * World listeners
+	 */
+
+	@ApiStatus.Internal
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onWorldLoad(WorldLoadEvent e) {
+		load(e.getWorld());
+	}
+
+	@ApiStatus.Internal
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	public void onWorldUnload(WorldUnloadEvent e) {
+		final World world = e.getWorld();
+		if (loaded.contains(world.getUID()))
+			save(world);
+		loaded.remove(world.getUID());
+		handler.removeRegions(world);
+	}
+}
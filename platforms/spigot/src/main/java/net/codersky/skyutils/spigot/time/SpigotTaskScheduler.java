@@ -22,7 +22,7 @@ public class SpigotTaskScheduler implements TaskScheduler {
 	}
 
 	private long toTicks(@NotNull TimeUnit unit, int amount) {
-		return unit.toMillis(amount) * 50;
+		return unit.toMillis(amount) / 50; // 1 tick = 50 milliseconds
 	}
 
 	@Override
@@ -24,3 +24,4 @@ include(":platforms:spigot")
 include(":platforms:velocity")
 include("platforms:universal")
 include("platforms:paper")
+include(":benchmarks")
@@ -0,0 +1,197 @@
+package net.codersky.skyutils;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of {@link SkyUtils#reloadParallel() reloading} every registered
+ * {@link Reloadable}, with the {@link Result} of each {@link Reloadable}.
+ *
+ * @since SkyUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+public final class ReloadReport {
+
+	private final List<Result> results;
+	private final Duration totalTime;
+
+	ReloadReport(@NotNull List<Result> results, @NotNull Duration totalTime) {
+		this.results = Collections.unmodifiableList(results);
+		this.totalTime = totalTime;
+	}
+
+	/**
+	 * Gets the {@link Result} of every {@link Reloadable}, on the order they were registered.
+	 *
+	 * @return An unmodifiable {@link List} with the {@link Result} of every {@link Reloadable}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public List<Result> getResults() {
+		return results;
+	}
+
+	/**
+	 * Gets the {@link Result} of every {@link Reloadable} that failed to reload.
+	 *
+	 * @return A {@link List} with the {@link Result} of every failed {@link Reloadable}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public List<Result> getFailures() {
+		final List<Result> failures = new ArrayList<>();
+		for (Result result : results)
+			if (!result.isSuccess())
+				failures.add(result);
+		return failures;
+	}
+
+	/**
+	 * Gets the number of {@link Reloadable Reloadables} that failed to reload,
+	 * which is what {@link SkyUtils#reload()} returns.
+	 *
+	 * @return The number of {@link Reloadable Reloadables} that failed to reload.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public int getFailureCount() {
+		int failures = 0;
+		for (Result result : results)
+			if (!result.isSuccess())
+				failures++;
+		return failures;
+	}
+
+	/**
+	 * Checks if every {@link Reloadable} reloaded correctly.
+	 *
+	 * @return {@code true} if every {@link Reloadable} reloaded correctly, {@code false} otherwise.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public boolean isSuccess() {
+		return getFailureCount() == 0;
+	}
+
+	/**
+	 * Gets the time the whole reload took, from its start until every {@link Reloadable}
+	 * was applied. Waiting for the thread that applies reloads is included.
+	 *
+	 * @return The time the whole reload took.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public Duration getTotalTime() {
+		return totalTime;
+	}
+
+	@Override
+	public String toString() {
+		return "ReloadReport{results=" + results + ", totalTime=" + totalTime + "}";
+	}
+
+	/*
+	 * Result class
+	 */
+
+	/**
+	 * The result of reloading a single {@link Reloadable}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public static final class Result {
+
+		private final Reloadable reloadable;
+		private final boolean success;
+		@Nullable
+		private final Throwable error;
+		private final Duration prepareTime;
+		private final Duration applyTime;
+
+		Result(@NotNull Reloadable reloadable, boolean success, @Nullable Throwable error, @NotNull Duration prepareTime, @NotNull Duration applyTime) {
+			this.reloadable = reloadable;
+			this.success = success;
+			this.error = error;
+			this.prepareTime = prepareTime;
+			this.applyTime = applyTime;
+		}
+
+		/**
+		 * Gets the {@link Reloadable} this {@link Result} belongs to.
+		 *
+		 * @return The {@link Reloadable} this {@link Result} belongs to.
+		 *
+		 * @since SkyUtils 1.0.0
+		 */
+		@NotNull
+		public Reloadable getReloadable() {
+			return reloadable;
+		}
+
+		/**
+		 * Checks if the {@link Reloadable} reloaded correctly.
+		 *
+		 * @return {@code true} if the {@link Reloadable} reloaded correctly, {@code false} otherwise.
+		 *
+		 * @since SkyUtils 1.0.0
+		 */
+		public boolean isSuccess() {
+			return success;
+		}
+
+		/**
+		 * Gets the exception thrown while reloading, if any. Reloads may also fail
+		 * without throwing, by returning {@code false}, so this may be {@code null}
+		 * even if the reload {@link #isSuccess() failed}.
+		 *
+		 * @return The exception thrown while reloading, {@code null} if none was thrown.
+		 *
+		 * @since SkyUtils 1.0.0
+		 */
+		@Nullable
+		public Throwable getError() {
+			return error;
+		}
+
+		/**
+		 * Gets the time it took to {@link StagedReloadable#prepareReload() prepare} the reload,
+		 * which is always zero for {@link Reloadable Reloadables} that aren't {@link StagedReloadable staged}.
+		 *
+		 * @return The time it took to prepare the reload.
+		 *
+		 * @since SkyUtils 1.0.0
+		 */
+		@NotNull
+		public Duration getPrepareTime() {
+			return prepareTime;
+		}
+
+		/**
+		 * Gets the time it took to apply the reload. For {@link Reloadable Reloadables}
+		 * that aren't {@link StagedReloadable staged}, this is the time {@link Reloadable#reload()} took.
+		 *
+		 * @return The time it took to apply the reload.
+		 *
+		 * @since SkyUtils 1.0.0
+		 */
+		@NotNull
+		public Duration getApplyTime() {
+			return applyTime;
+		}
+
+		@Override
+		public String toString() {
+			return "Result{reloadable=" + reloadable + ", success=" + success + ", error=" + error +
+					", prepareTime=" + prepareTime + ", applyTime=" + applyTime + "}";
+		}
+	}
+}
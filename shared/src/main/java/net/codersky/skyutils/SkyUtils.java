@@ -3,13 +3,21 @@ package net.codersky.skyutils;
 import net.codersky.skyutils.cmd.GlobalCommand;
 import net.codersky.skyutils.crossplatform.SkyConsole;
 import net.codersky.skyutils.crossplatform.player.SkyPlayer;
+import net.codersky.skyutils.time.TaskScheduler;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
 
 /**
  * Platform independent class that provides access to
@@ -204,6 +212,7 @@ public abstract class SkyUtils<P> {
 	 * @see Reloadable
 	 * @see #registerReloadable(Reloadable)
 	 * @see #registerReloadable(Reloadable, boolean)
+	 * @see #reloadParallel()
 	 */
 	public int reload() {
 		int failures = 0;
@@ -212,4 +221,144 @@ public abstract class SkyUtils<P> {
 				failures++;
 		return failures;
 	}
+
+	/**
+	 * Reloads every {@link Reloadable} that has been registered on this instance of {@link SkyUtils},
+	 * {@link StagedReloadable#prepareReload() preparing} every {@link StagedReloadable} at the same time
+	 * on virtual threads. Once every reload is prepared, reloads are applied on the current thread,
+	 * on the order they were registered. {@link Reloadable Reloadables} that aren't
+	 * {@link StagedReloadable staged} are reloaded at that point, as they may not be thread safe.
+	 * The same applies to {@link StagedReloadable StagedReloadables} whose class overrides
+	 * {@link Reloadable#reload() reload()} without overriding {@link StagedReloadable#prepareReload()
+	 * prepareReload()}, so the override isn't skipped.
+	 * <p>
+	 * This method blocks until every reload is prepared, which takes as long as the slowest
+	 * {@link StagedReloadable}. To avoid blocking the current thread, use {@link #reloadParallel(TaskScheduler)}.
+	 *
+	 * @return A {@link ReloadReport} with the result and timings of every {@link Reloadable}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 *
+	 * @see #reload()
+	 * @see #reloadParallel(TaskScheduler)
+	 */
+	@NotNull
+	public ReloadReport reloadParallel() {
+		final long start = System.nanoTime();
+		return applyReloads(prepareReloads().join(), start);
+	}
+
+	/**
+	 * Reloads every {@link Reloadable} that has been registered on this instance of {@link SkyUtils}
+	 * without blocking the current thread. Works the same way {@link #reloadParallel()} does, but once
+	 * every reload is prepared, reloads are applied on a {@link TaskScheduler#runSync(Runnable) sync}
+	 * task of {@code scheduler}, so they are swapped in on the main thread.
+	 *
+	 * @param scheduler The {@link TaskScheduler} used to apply reloads on the main thread.
+	 *
+	 * @return A {@link CompletableFuture} completed with a {@link ReloadReport} once every reload is applied.
+	 *
+	 * @since SkyUtils 1.0.0
+	 *
+	 * @see #reloadParallel()
+	 */
+	@NotNull
+	public CompletableFuture<ReloadReport> reloadParallel(@NotNull TaskScheduler scheduler) {
+		Objects.requireNonNull(scheduler, "Scheduler cannot be null");
+		final long start = System.nanoTime();
+		final CompletableFuture<ReloadReport> report = new CompletableFuture<>();
+		prepareReloads().thenAccept(prepared -> {
+			try {
+				scheduler.runSync(() -> {
+					try {
+						report.complete(applyReloads(prepared, start));
+					} catch (Throwable t) {
+						report.completeExceptionally(t);
+					}
+				});
+			} catch (Throwable t) {
+				report.completeExceptionally(t);
+			}
+		});
+		return report;
+	}
+
+	@NotNull
+	private CompletableFuture<List<PreparedReload>> prepareReloads() {
+		final List<PreparedReload> prepared = new ArrayList<>(reloadables.size());
+		final List<CompletableFuture<Void>> tasks = new ArrayList<>();
+		final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+		for (Reloadable reloadable : reloadables) {
+			final PreparedReload reload = new PreparedReload(reloadable);
+			prepared.add(reload);
+			if (reload.staged)
+				tasks.add(CompletableFuture.runAsync(() -> reload.prepare((StagedReloadable) reloadable), executor));
+		}
+		executor.shutdown(); // Submitted tasks still run.
+		return CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).thenApply(ignored -> prepared);
+	}
+
+	@NotNull
+	private ReloadReport applyReloads(@NotNull List<PreparedReload> prepared, long start) {
+		final List<ReloadReport.Result> results = new ArrayList<>(prepared.size());
+		for (PreparedReload reload : prepared)
+			results.add(reload.apply());
+		return new ReloadReport(results, Duration.ofNanos(System.nanoTime() - start));
+	}
+
+	private static final class PreparedReload {
+
+		private final Reloadable reloadable;
+		private final boolean staged;
+		@Nullable
+		private BooleanSupplier apply;
+		@Nullable
+		private Throwable error;
+		private long prepareTime = 0;
+
+		private PreparedReload(@NotNull Reloadable reloadable) {
+			this.reloadable = reloadable;
+			this.staged = isStaged(reloadable);
+		}
+
+		/** A subclass may override reload() without overriding prepareReload(), which would skip its override. */
+		private static boolean isStaged(@NotNull Reloadable reloadable) {
+			if (!(reloadable instanceof StagedReloadable))
+				return false;
+			try {
+				final Class<?> reload = reloadable.getClass().getMethod("reload").getDeclaringClass();
+				final Class<?> prepare = reloadable.getClass().getMethod("prepareReload").getDeclaringClass();
+				return reload.isAssignableFrom(prepare);
+			} catch (NoSuchMethodException e) {
+				return true;
+			}
+		}
+
+		private void prepare(@NotNull StagedReloadable staged) {
+			final long start = System.nanoTime();
+			try {
+				apply = staged.prepareReload();
+			} catch (Throwable t) {
+				error = t;
+			}
+			prepareTime = System.nanoTime() - start;
+		}
+
+		@NotNull
+		private ReloadReport.Result apply() {
+			// Staged reloads that failed to prepare don't have anything to apply.
+			if (staged && apply == null)
+				return new ReloadReport.Result(reloadable, false, error, Duration.ofNanos(prepareTime), Duration.ZERO);
+			final long start = System.nanoTime();
+			boolean success = false;
+			Throwable applyError = null;
+			try {
+				success = apply == null ? reloadable.reload() : apply.getAsBoolean();
+			} catch (RuntimeException e) {
+				applyError = e;
+			}
+			final Duration applyTime = Duration.ofNanos(System.nanoTime() - start);
+			return new ReloadReport.Result(reloadable, success, applyError, Duration.ofNanos(prepareTime), applyTime);
+		}
+	}
 }
@@ -0,0 +1,50 @@
+package net.codersky.skyutils;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * A {@link Reloadable} that splits reloading in two stages, so the slow part of a reload,
+ * such as reading and parsing a file, can run on another thread. {@link SkyUtils#reloadParallel()}
+ * prepares every {@link StagedReloadable} at the same time, then applies them one after another
+ * on a single thread, so a reload takes as long as the slowest file instead of the sum of all of them.
+ * <p>
+ * Classes that override {@link #reload()} must also override {@link #prepareReload()}, otherwise
+ * {@link SkyUtils#reloadParallel()} can't know what the override does, so it calls {@link #reload()}
+ * on the thread that applies reloads instead of preparing it in parallel.
+ *
+ * @since SkyUtils 1.0.0
+ *
+ * @author xDec0de_
+ *
+ * @see SkyUtils#reloadParallel()
+ */
+public interface StagedReloadable extends Reloadable {
+
+	/**
+	 * Prepares a reload, reading and parsing whatever needs to be loaded. This may be called
+	 * from any thread, so it must not modify anything visible to other threads, leaving that
+	 * to the returned action, which is called on the thread that applies the reload.
+	 *
+	 * @return The action that applies the reload, returning whether it was applied correctly
+	 * or not, {@code null} if the reload failed.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@Nullable
+	BooleanSupplier prepareReload();
+
+	/**
+	 * {@link #prepareReload() Prepares} and applies a reload on the current thread.
+	 *
+	 * @return {@code true} if the reload succeeded, {@code false} otherwise.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@Override
+	default boolean reload() {
+		final BooleanSupplier apply = prepareReload();
+		return apply != null && apply.getAsBoolean();
+	}
+}
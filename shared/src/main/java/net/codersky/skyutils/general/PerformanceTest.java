@@ -28,7 +28,13 @@ import org.jetbrains.annotations.NotNull;
  * 
  * @see #addTest(String, Runnable)
  * @see #run(PrintStream, int)
+ *
+ * @deprecated This class reports whole milliseconds of CPU time with no
+ * warmup, forks nor statistics, which is meaningless for fast code paths.
+ * Use the JMH suites of the {@code benchmarks} module instead
+ * ({@code ./gradlew :benchmarks:jmh}).
  */
+@Deprecated(forRemoval = true)
 public class PerformanceTest {
 
 	private final long amount;
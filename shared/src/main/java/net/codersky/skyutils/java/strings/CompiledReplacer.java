@@ -0,0 +1,339 @@
+package net.codersky.skyutils.java.strings;
+
+import net.codersky.skyutils.java.SkyCollections;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * An immutable, precompiled version of a {@link Replacer}, obtained with {@link Replacer#compile()}.
+ * <p>
+ * While {@link Replacer#replaceAt(String)} searches the whole {@link String} once per replacement,
+ * a {@link CompiledReplacer} builds an <a href="https://en.wikipedia.org/wiki/Aho%E2%80%93Corasick_algorithm">
+ * Aho-Corasick</a> automaton over all keys once, then finds every key on a single left-to-right pass,
+ * writing the result to a builder that is already sized to the exact length of the result.
+ * <p>
+ * Results are the same as the ones of the {@link Replacer} this was compiled from, including
+ * numeric support, the priority of replacements that were added first and replacements whose value
+ * contains the key of a replacement that was added later on. Whenever a replacement could form
+ * part of a key added later on (Including empty replacements, that join the text around them), this
+ * class detects it and falls back to sequential replacement in order to keep results identical.
+ *
+ * @since SkyUtils 1.0.0
+ *
+ * @see Replacer#compile()
+ *
+ * @author xDec0de_
+ */
+public final class CompiledReplacer {
+
+	private final String[] keys;
+	private final String[] values;
+	/** Replacements as given to the constructor, only used if {@link #sequential} is {@code true}. */
+	private final String[] rawValues;
+	private final boolean sequential;
+
+	// Automaton, state 0 is the root.
+	/** Characters used by any key, sorted. Any other character always leads to the root. */
+	private final char[] alphabet;
+	/** Index on {@link #alphabet} plus one of ASCII characters, 0 if not used by any key. */
+	private final int[] asciiIndex = new int[128];
+	/** Transitions, the next state is {@code transitions[state * (alphabet.length + 1) + index]}. */
+	private final int[] transitions;
+	/** Replacement index of the key ending at each state, -1 if none. */
+	private final int[] output;
+	/** Closest state on the fail chain with an output, -1 if none. */
+	private final int[] outputLink;
+	/** Character all keys start with, used to skip text quickly, -1 if keys start differently. */
+	private final int firstChar;
+
+	CompiledReplacer(@NotNull String[] keys, @NotNull String[] values) {
+		this.keys = keys;
+		this.rawValues = values;
+		this.values = new String[values.length];
+		this.sequential = !resolveValues();
+		final TreeSet<Character> chars = new TreeSet<>();
+		final TreeSet<Character> firstChars = new TreeSet<>();
+		for (String key : keys) {
+			for (int i = 0; i < key.length(); i++)
+				chars.add(key.charAt(i));
+			if (!key.isEmpty())
+				firstChars.add(key.charAt(0));
+		}
+		this.alphabet = new char[chars.size()];
+		int index = 0;
+		for (char ch : chars) {
+			alphabet[index++] = ch;
+			if (ch < 128)
+				asciiIndex[ch] = index;
+		}
+		this.firstChar = firstChars.size() == 1 ? firstChars.first() : -1;
+		final int width = alphabet.length + 1;
+		// Trie
+		final ArrayList<int[]> trie = new ArrayList<>();
+		final ArrayList<Integer> outputs = new ArrayList<>();
+		trie.add(new int[width]);
+		outputs.add(-1);
+		for (int i = 0; i < keys.length; i++) {
+			int state = 0;
+			for (int j = 0; j < keys[i].length(); j++) {
+				final int ch = indexOf(keys[i].charAt(j));
+				if (trie.get(state)[ch] == 0) {
+					trie.get(state)[ch] = trie.size();
+					trie.add(new int[width]);
+					outputs.add(-1);
+				}
+				state = trie.get(state)[ch];
+			}
+			if (outputs.get(state) == -1) // Only the first replacement of a key takes effect.
+				outputs.set(state, i);
+		}
+		// Fail links, turning the trie into a complete automaton
+		final int size = trie.size();
+		this.transitions = new int[size * width];
+		this.output = new int[size];
+		this.outputLink = new int[size];
+		final int[] fail = new int[size];
+		for (int state = 0; state < size; state++)
+			output[state] = outputs.get(state);
+		outputLink[0] = -1;
+		final ArrayDeque<Integer> queue = new ArrayDeque<>();
+		queue.add(0);
+		while (!queue.isEmpty()) {
+			final int state = queue.poll();
+			final int[] children = trie.get(state);
+			for (int ch = 1; ch < width; ch++) {
+				final int child = children[ch];
+				if (child == 0) {
+					transitions[state * width + ch] = state == 0 ? 0 : transitions[fail[state] * width + ch];
+					continue;
+				}
+				transitions[state * width + ch] = child;
+				fail[child] = state == 0 ? 0 : transitions[fail[state] * width + ch];
+				outputLink[child] = output[fail[child]] != -1 ? fail[child] : outputLink[fail[child]];
+				queue.add(child);
+			}
+		}
+	}
+
+	private int indexOf(char ch) {
+		if (ch < 128)
+			return asciiIndex[ch];
+		final int index = Arrays.binarySearch(alphabet, ch);
+		return index < 0 ? 0 : index + 1;
+	}
+
+	/**
+	 * Applies every replacement with a key added later on to the values that precede it, just as
+	 * {@link Replacer#replaceAt(String)} does once a value is part of the {@link String}.
+	 *
+	 * @return {@code false} if a replacement could end up matching a key only partially,
+	 * meaning that replacing in a single pass may not give the same result.
+	 */
+	private boolean resolveValues() {
+		boolean safe = true;
+		for (int i = 0; i < rawValues.length; i++) {
+			if (keys[i].isEmpty())
+				safe = false;
+			final StringBuilder value = new StringBuilder(rawValues[i]);
+			for (int j = i + 1; j < keys.length; j++) {
+				if (safe && (value.isEmpty() ? keys[j].length() > 1 : overlapsEdges(keys[j], value)))
+					safe = false;
+				Replacer.replace(value, keys[j], rawValues[j]);
+			}
+			values[i] = value.toString();
+		}
+		return safe;
+	}
+
+	private static boolean overlapsEdges(String key, StringBuilder value) {
+		final int keyLen = key.length(), valueLen = value.length();
+		for (int split = 1; split < keyLen; split++) {
+			final int len = Math.min(keyLen - split, valueLen);
+			// Key starts before the value and ends inside or after it.
+			if (key.regionMatches(split, value.substring(0, len), 0, len))
+				return true;
+			// Key starts inside the value and ends after it.
+			final int prefixLen = Math.min(split, valueLen);
+			if (key.regionMatches(split - prefixLen, value.substring(valueLen - prefixLen), 0, prefixLen))
+				return true;
+		}
+		return false;
+	}
+
+	/*
+	 * String replacements
+	 */
+
+	/**
+	 * Applies this {@link CompiledReplacer} to the specified {@link String}.
+	 *
+	 * @param str The {@link String} to apply the replacements to.
+	 *
+	 * @return A new {@link String} with all replacements applied to it.
+	 *
+	 * @throws NullPointerException if {@code str} is {@code null}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 *
+	 * @see #replaceAt(String...)
+	 * @see #replaceAtStrings(List)
+	 */
+	@NotNull
+	public String replaceAt(@NotNull String str) {
+		if (keys.length == 0 || str.isEmpty())
+			return str;
+		if (sequential)
+			return replaceSequentially(str);
+		final int len = str.length();
+		// Matches are stored as {start, replacement index} pairs, ordered by end position.
+		int[] matches = null;
+		int count = 0;
+		boolean overlapping = false;
+		int lastEnd = 0;
+		final int width = alphabet.length + 1;
+		int state = 0;
+		for (int i = 0; i < len; i++) {
+			if (state == 0 && firstChar != -1 && (i = str.indexOf(firstChar, i)) == -1)
+				break;
+			state = transitions[state * width + indexOf(str.charAt(i))];
+			for (int node = output[state] != -1 ? state : outputLink[state]; node != -1; node = outputLink[node]) {
+				final int replacement = output[node];
+				final int start = i + 1 - keys[replacement].length();
+				if (matches == null)
+					matches = new int[8];
+				else if (count * 2 == matches.length)
+					matches = Arrays.copyOf(matches, matches.length * 2);
+				matches[count * 2] = start;
+				matches[count * 2 + 1] = replacement;
+				count++;
+				if (start < lastEnd)
+					overlapping = true;
+				lastEnd = i + 1;
+			}
+		}
+		if (count == 0)
+			return str.indexOf('<') == -1 ? str : Replacer.applyNumSupport(new StringBuilder(str)).toString();
+		if (overlapping)
+			count = resolveOverlaps(matches, count, len);
+		int resultLen = len;
+		for (int i = 0; i < count; i++) {
+			final int replacement = matches[i * 2 + 1];
+			resultLen += values[replacement].length() - keys[replacement].length();
+		}
+		final StringBuilder res = new StringBuilder(resultLen);
+		int from = 0;
+		for (int i = 0; i < count; i++) {
+			final int start = matches[i * 2];
+			final int replacement = matches[i * 2 + 1];
+			res.append(str, from, start).append(values[replacement]);
+			from = start + keys[replacement].length();
+		}
+		res.append(str, from, len);
+		return Replacer.applyNumSupport(res).toString();
+	}
+
+	/**
+	 * Keeps the matches that {@link Replacer#replaceAt(String)} would have replaced. That is, matches of
+	 * replacements added first take priority and each replacement takes its matches from left to right.
+	 * Kept matches are moved to the start of {@code matches}, ordered by position.
+	 *
+	 * @return The amount of matches kept.
+	 */
+	private int resolveOverlaps(int[] matches, int count, int len) {
+		final Integer[] order = new Integer[count];
+		for (int i = 0; i < count; i++)
+			order[i] = i;
+		Arrays.sort(order, (a, b) -> matches[a * 2 + 1] != matches[b * 2 + 1]
+				? Integer.compare(matches[a * 2 + 1], matches[b * 2 + 1])
+				: Integer.compare(matches[a * 2], matches[b * 2]));
+		final boolean[] used = new boolean[len];
+		final int[] kept = new int[len];
+		Arrays.fill(kept, -1);
+		for (int index : order) {
+			final int start = matches[index * 2];
+			final int end = start + keys[matches[index * 2 + 1]].length();
+			boolean free = true;
+			for (int i = start; i < end && free; i++)
+				free = !used[i];
+			if (!free)
+				continue;
+			Arrays.fill(used, start, end, true);
+			kept[start] = matches[index * 2 + 1];
+		}
+		int keptCount = 0;
+		for (int i = 0; i < len; i++) {
+			if (kept[i] == -1)
+				continue;
+			matches[keptCount * 2] = i;
+			matches[keptCount * 2 + 1] = kept[i];
+			keptCount++;
+		}
+		return keptCount;
+	}
+
+	private String replaceSequentially(String str) {
+		final StringBuilder res = new StringBuilder(str);
+		for (int i = 0; i < keys.length; i++)
+			Replacer.replace(res, keys[i], rawValues[i]);
+		return Replacer.applyNumSupport(res).toString();
+	}
+
+	/**
+	 * Applies this {@link CompiledReplacer} to the specified {@link List} of {@link String strings}.
+	 *
+	 * @param list The {@link String} {@link List} to apply the replacements to.
+	 *
+	 * @return A new <b>modifiable</b> {@link String} {@link List} with the replacements applied to it.
+	 *
+	 * @throws NullPointerException if {@code list} or any element of it is {@code null}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 *
+	 * @see #replaceAt(String)
+	 * @see #replaceAt(String...)
+	 */
+	@NotNull
+	public List<String> replaceAtStrings(@NotNull List<String> list) {
+		return SkyCollections.map(list, this::replaceAt);
+	}
+
+	/**
+	 * Applies this {@link CompiledReplacer} to the specified {@link String strings}.
+	 *
+	 * @param strings The {@link String strings} to apply the replacements to.
+	 *
+	 * @return A new <b>modifiable</b> {@link String} {@link List} with the replacements applied to it.
+	 *
+	 * @throws NullPointerException if {@code strings} or any {@link String} is {@code null}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 *
+	 * @see #replaceAt(String)
+	 * @see #replaceAtStrings(List)
+	 */
+	@NotNull
+	public List<String> replaceAt(@NotNull String... strings) {
+		return replaceAtStrings(List.of(strings));
+	}
+
+	/*
+	 * Object override
+	 */
+
+	@NotNull
+	@Override
+	public String toString() {
+		final StringBuilder builder = new StringBuilder("CompiledReplacer[");
+		for (int i = 0; i < keys.length; i++) {
+			if (i != 0)
+				builder.append(", ");
+			builder.append(keys[i]).append(", ").append(rawValues[i]);
+		}
+		return builder.append(']').toString();
+	}
+}
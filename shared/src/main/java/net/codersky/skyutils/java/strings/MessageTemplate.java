@@ -0,0 +1,213 @@
+package net.codersky.skyutils.java.strings;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An immutable, pre-parsed message. The message is parsed only once, when the
+ * {@link MessageTemplate} is created, {@link SkyStrings#applyColor(String) applying}
+ * color patterns and the default {@link Replacer} (If any) to it. The result is then
+ * split into literal segments and placeholder slots (Such as <i>%player%</i>), so
+ * applying a {@link Replacer} later on just requires filling those slots.
+ * <p>
+ * Results are the same as applying the {@link Replacer} to {@link #getMessage()}. If that
+ * can't be guaranteed by filling slots, because the {@link Replacer} has keys that aren't
+ * shaped like a placeholder, or values that contain the '%' character, this class just
+ * uses {@link Replacer#replaceAt(String)} on {@link #getMessage()}.
+ *
+ * @since SkyUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+public final class MessageTemplate {
+
+	private final String raw;
+	@Nullable
+	private final Replacer defaultReplacer;
+	/** Amount of replacements {@link #defaultReplacer} had, as {@link Replacer Replacers} can be added to. */
+	private final int defaultReplacements;
+	private final String message;
+	/** Literal segments of the message, there is always one more literal than slots. */
+	private final String[] literals;
+	/** Placeholder slots of the message, including the '%' characters. */
+	private final String[] slots;
+	/** Whether any placeholder found on the message can be replaced by just filling slots. */
+	private final boolean slotSafe;
+
+	/**
+	 * Creates a new {@link MessageTemplate} from the specified {@code raw} message.
+	 *
+	 * @param raw The raw message, as stored on a file.
+	 * @param defaultReplacer The default {@link Replacer} to apply to the
+	 * message before applying color patterns, can be {@code null}.
+	 *
+	 * @throws NullPointerException if {@code raw} is {@code null}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public MessageTemplate(@NotNull String raw, @Nullable Replacer defaultReplacer) {
+		this.raw = raw;
+		this.defaultReplacer = defaultReplacer;
+		this.defaultReplacements = defaultReplacer == null ? 0 : defaultReplacer.getInternalReplacements().size();
+		this.message = SkyStrings.applyColor(defaultReplacer == null ? raw : defaultReplacer.replaceAt(raw));
+		final List<String> literals = new ArrayList<>();
+		final List<String> slots = new ArrayList<>();
+		boolean safe = true;
+		int literalStart = 0;
+		int open = message.indexOf('%');
+		while (open != -1) {
+			final int close = message.indexOf('%', open + 1);
+			if (close == -1)
+				break;
+			if (!isPlaceholder(message, open + 1, close)) {
+				open = close;
+				continue;
+			}
+			literals.add(message.substring(literalStart, open));
+			slots.add(message.substring(open, close + 1));
+			literalStart = close + 1;
+			open = message.indexOf('%', literalStart);
+			// "%a%b%" could be replaced by "%b%" too, slots won't work here.
+			if (open != -1 && isPlaceholder(message, literalStart, open))
+				safe = false;
+		}
+		literals.add(message.substring(literalStart));
+		this.literals = literals.toArray(new String[0]);
+		this.slots = slots.toArray(new String[0]);
+		this.slotSafe = safe;
+	}
+
+	private static boolean isPlaceholder(@NotNull String str, int from, int to) {
+		if (from >= to)
+			return false;
+		for (int i = from; i < to; i++) {
+			final char ch = str.charAt(i);
+			if (ch == '%' || Character.isWhitespace(ch))
+				return false;
+		}
+		return true;
+	}
+
+	/*
+	 * Getters
+	 */
+
+	/**
+	 * Gets the raw message this {@link MessageTemplate} was created from.
+	 *
+	 * @return The raw message of this {@link MessageTemplate}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public String getRaw() {
+		return raw;
+	}
+
+	/**
+	 * Gets the message of this {@link MessageTemplate}, with color patterns
+	 * and the default {@link Replacer}, if any, already applied to it.
+	 *
+	 * @return The processed message of this {@link MessageTemplate}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public String getMessage() {
+		return message;
+	}
+
+	/**
+	 * Checks if this {@link MessageTemplate} was created from the specified {@code raw} message.
+	 *
+	 * @param raw The raw message to check.
+	 *
+	 * @return {@code true} if this {@link MessageTemplate} was created from {@code raw},
+	 * {@code false} otherwise.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public boolean isFrom(@Nullable String raw) {
+		return this.raw == raw || this.raw.equals(raw);
+	}
+
+	/**
+	 * Checks if this {@link MessageTemplate} was created from the specified {@code raw} message
+	 * and default {@link Replacer}, and said {@link Replacer} hasn't been
+	 * {@link Replacer#add(Object...) added} any replacement since then.
+	 *
+	 * @param raw The raw message to check.
+	 * @param defaultReplacer The default {@link Replacer} to check, can be {@code null}.
+	 *
+	 * @return {@code true} if this {@link MessageTemplate} is up to date with
+	 * {@code raw} and {@code defaultReplacer}, {@code false} otherwise.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public boolean isFrom(@Nullable String raw, @Nullable Replacer defaultReplacer) {
+		if (this.defaultReplacer != defaultReplacer || !isFrom(raw))
+			return false;
+		return defaultReplacer == null || defaultReplacer.getInternalReplacements().size() == defaultReplacements;
+	}
+
+	/*
+	 * Replacements
+	 */
+
+	/**
+	 * Applies the specified {@link Replacer} to this {@link MessageTemplate}.
+	 * The result is the same as calling {@link Replacer#replaceAt(String)} with
+	 * {@link #getMessage()}, but placeholders are only searched once.
+	 *
+	 * @param replacer The {@link Replacer} to apply.
+	 *
+	 * @return The {@link #getMessage() message} of this {@link MessageTemplate}
+	 * with the specified {@link Replacer} applied to it.
+	 *
+	 * @throws NullPointerException if {@code replacer} is {@code null}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public String apply(@NotNull Replacer replacer) {
+		final List<Object> replacements = replacer.getInternalReplacements();
+		final int size = replacements.size();
+		if (size == 0 || message.isEmpty())
+			return message;
+		if (!slotSafe)
+			return replacer.replaceAt(message);
+		final String[] values = new String[slots.length];
+		int resultLen = message.length();
+		for (int i = 0; i < size; i += 2) {
+			final String key = replacements.get(i).toString();
+			final String value = replacements.get(i + 1).toString();
+			if (key.length() < 3 || key.charAt(0) != '%' || key.charAt(key.length() - 1) != '%'
+					|| !isPlaceholder(key, 1, key.length() - 1) || value.indexOf('%') != -1)
+				return replacer.replaceAt(message);
+			for (int slot = 0; slot < slots.length; slot++) {
+				if (values[slot] == null && slots[slot].equals(key)) {
+					values[slot] = value;
+					resultLen += value.length() - key.length();
+				}
+			}
+		}
+		final StringBuilder builder = new StringBuilder(resultLen);
+		for (int slot = 0; slot < slots.length; slot++)
+			builder.append(literals[slot]).append(values[slot] == null ? slots[slot] : values[slot]);
+		builder.append(literals[slots.length]);
+		return Replacer.applyNumSupport(builder).toString();
+	}
+
+	/*
+	 * Object override
+	 */
+
+	@NotNull
+	@Override
+	public String toString() {
+		return "MessageTemplate[" + message + ']';
+	}
+}
@@ -170,21 +170,22 @@ public class Replacer {
 		if (repLstLen == 0 || str.isEmpty())
 			return str;
 		final StringBuilder res = new StringBuilder(str);
-		for (int i = 0; i <= repLstLen - 1; i += 2) {
-			final String toSearch = replaceList.get(i).toString();
-			final int searchLen = toSearch.length();
-			// TODO Handle components, maybe just by adding the content? #toString is weird here.
-			final String replacement = replaceList.get(i + 1).toString();
-			final int replacementLen = replacement.length();
-			int index = res.indexOf(toSearch);
-			while (index != -1) {
-				res.replace(index, index + searchLen, replacement);
-				index = res.indexOf(toSearch, index + replacementLen);
-			}
-		}
+		// TODO Handle components, maybe just by adding the content? #toString is weird here.
+		for (int i = 0; i <= repLstLen - 1; i += 2)
+			replace(res, replaceList.get(i).toString(), replaceList.get(i + 1).toString());
 		return applyNumSupport(res).toString();
 	}
 
+	static void replace(@NotNull StringBuilder res, @NotNull String toSearch, @NotNull String replacement) {
+		final int searchLen = toSearch.length();
+		final int replacementLen = replacement.length();
+		int index = res.indexOf(toSearch);
+		while (index != -1) {
+			res.replace(index, index + searchLen, replacement);
+			index = res.indexOf(toSearch, index + replacementLen);
+		}
+	}
+
 	/**
 	 * Applies this {@link Replacer} to the specified {@link List} of {@link String strings}.
 	 * 
@@ -319,22 +320,27 @@ public class Replacer {
 	// TODO Redo this method to work with Components, maybe a new SkyStrings pattern?
 	// TODO Seems weird to have a pattern on the Replacer class at this point...
 
-	@Deprecated(forRemoval = true)
-	private StringBuilder applyNumSupport(StringBuilder res) {
+	static StringBuilder applyNumSupport(StringBuilder res) {
 		int start = 0;
 		while (start < res.length()) {
 			final int open = res.indexOf("<", start);
 			final int close = res.indexOf(">", open);
 			if (open == -1 || close == -1 || open > close)
 				break;
-			final String[] parts = res.substring(open + 1, close).split(":");
-			if (parts.length != 3) {
+			// Same as splitting the tag content by ':' and requiring exactly three parts, without the split.
+			final int firstSep = indexOf(res, ':', open + 1, close);
+			final int secondSep = firstSep == -1 ? -1 : indexOf(res, ':', firstSep + 1, close);
+			final int thirdSep = secondSep == -1 ? -1 : indexOf(res, ':', secondSep + 1, close);
+			final int pluralEnd = thirdSep == -1 ? close : thirdSep;
+			if (secondSep == -1 || pluralEnd == secondSep + 1 || indexOfOther(res, ':', pluralEnd, close) != -1) {
 				start = close + 1;
 				continue;
 			}
-			if (SkyNumbers.isNumeric(parts[0])) {
-				final int value = Integer.parseInt(parts[0]);
-				final String replacement = value == 1 || value == -1 ? parts[1] : parts[2];
+			final String number = res.substring(open + 1, firstSep);
+			if (SkyNumbers.isNumeric(number)) {
+				final String replacement = isOne(number)
+						? res.substring(firstSep + 1, secondSep)
+						: res.substring(secondSep + 1, pluralEnd);
 				res.replace(open, close + 1, replacement);
 				start = open + replacement.length();
 			} else
@@ -343,6 +349,62 @@ public class Replacer {
 		return res;
 	}
 
+	private static int indexOf(StringBuilder res, char ch, int from, int to) {
+		for (int i = from; i < to; i++)
+			if (res.charAt(i) == ch)
+				return i;
+		return -1;
+	}
+
+	private static int indexOfOther(StringBuilder res, char ch, int from, int to) {
+		for (int i = from; i < to; i++)
+			if (res.charAt(i) != ch)
+				return i;
+		return -1;
+	}
+
+	private static boolean isOne(String number) {
+		try {
+			final int value = Integer.parseInt(number);
+			return value == 1 || value == -1;
+		} catch (NumberFormatException ex) {
+			return false; // Decimals or numbers out of the int range.
+		}
+	}
+
+	/*
+	 * Compilation
+	 */
+
+	/**
+	 * Compiles the current replacements of this {@link Replacer} into a
+	 * {@link CompiledReplacer}, which replaces every key in a single pass
+	 * instead of searching the whole {@link String} once per replacement.
+	 * <p>
+	 * Replacements are converted to {@link String strings} at this point,
+	 * so changes made to this {@link Replacer} or to the objects used as
+	 * replacements won't affect the returned {@link CompiledReplacer}.
+	 * Compile your {@link Replacer} once and reuse it as much as possible.
+	 *
+	 * @return A new {@link CompiledReplacer} with the current replacements
+	 * of this {@link Replacer}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 *
+	 * @see CompiledReplacer#replaceAt(String)
+	 */
+	@NotNull
+	public CompiledReplacer compile() {
+		final int size = replaceList.size() / 2;
+		final String[] keys = new String[size];
+		final String[] values = new String[size];
+		for (int i = 0; i < size; i++) {
+			keys[i] = replaceList.get(i * 2).toString();
+			values[i] = replaceList.get(i * 2 + 1).toString();
+		}
+		return new CompiledReplacer(keys, values);
+	}
+
 	/**
 	 * Gets the replacements being used by this {@link Replacer}.
 	 * Modifying this list will have no effect, it can be used
@@ -359,6 +421,11 @@ public class Replacer {
 		return new ArrayList<>(replaceList);
 	}
 
+	@NotNull
+	List<Object> getInternalReplacements() {
+		return replaceList;
+	}
+
 	/*
 	 * Object override
 	 */
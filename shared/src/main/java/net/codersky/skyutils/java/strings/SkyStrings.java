@@ -3,6 +3,8 @@ package net.codersky.skyutils.java.strings;
 import net.codersky.skyutils.cmd.SkyCommand;
 import net.codersky.skyutils.crossplatform.MessageReceiver;
 import net.codersky.skyutils.java.strings.pattern.ColorPattern;
+import net.codersky.skyutils.java.strings.pattern.MessageTokenizer;
+import net.codersky.skyutils.java.strings.pattern.TagTargetPattern;
 import net.codersky.skyutils.java.strings.pattern.TargetPattern;
 import net.codersky.skyutils.java.strings.pattern.color.GradientColorPattern;
 import net.codersky.skyutils.java.strings.pattern.color.HexColorPattern;
@@ -36,12 +38,18 @@ public class SkyStrings {
 	protected static List<ColorPattern> colorPatterns;
 	protected static List<TargetPattern> targetPatterns;
 
+	/** Color patterns that {@link MessageTokenizer} can apply on a single pass. */
+	private static final List<ColorPattern> DEFAULT_COLOR_PATTERNS = List.of(
+			new GradientColorPattern(),
+			new HexColorPattern(),
+			(str, simple) -> applyColorChar('&', str)
+	);
+	/** Lazily created, so Adventure is only required once event patterns are used. */
+	private static LegacyComponentSerializer legacySerializer;
+	private static volatile MessageTokenizer tokenizer;
+
 	static {
-		colorPatterns = List.of(
-				new GradientColorPattern(),
-				new HexColorPattern(),
-				(str, simple) -> applyColorChar('&', str)
-		);
+		colorPatterns = DEFAULT_COLOR_PATTERNS;
 		targetPatterns = List.of(
 				new ActionBarTargetPattern(),
 				new ConsoleTargetPattern(),
@@ -65,7 +73,92 @@ public class SkyStrings {
 	 * @since SkyUtils 1.0.0
 	 */
 	public static boolean sendMessage(@NotNull MessageReceiver target, @NotNull String str) {
-		return target.sendMessage(applyEventPatterns(applyTargetPatterns(target, applyColor(str), true)));
+		return sendMessage(target, str, true);
+	}
+
+	/**
+	 * Applies all known patterns to the provided {@link String} in order to send it
+	 * to the specified {@code target}. That is, all color patterns (Only if {@code applyColor}
+	 * is {@code true}), target patterns and event patterns, in that order.
+	 *
+	 * @param target the {@link MessageReceiver} that will receive the message.
+	 * @param str the {@link String} to process.
+	 * @param applyColor whether to apply color patterns or not. Set this to {@code false}
+	 * only if color patterns have already been applied to {@code str}.
+	 *
+	 * @return Always {@code true} to make it easier to create {@link SkyCommand MCCommands}.
+	 *
+	 * @throws NullPointerException if any parameter is {@code null}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public static boolean sendMessage(@NotNull MessageReceiver target, @NotNull String str, boolean applyColor) {
+		return target.sendMessage(applyPatterns(target, str, applyColor));
+	}
+
+	/**
+	 * Applies all known patterns to the provided {@link String} in order to send it
+	 * to the specified {@code target}. That is, all color patterns (Only if {@code applyColor}
+	 * is {@code true}), target patterns and event patterns, in that order.
+	 * <p>
+	 * Default patterns, as well as any {@link TagTargetPattern
+	 * tag pattern}, are applied on a single pass by a {@link MessageTokenizer}, custom patterns
+	 * are applied one after another.
+	 *
+	 * @param target the {@link MessageReceiver} that will receive matching target patterns.
+	 * @param str the {@link String} to process.
+	 * @param applyColor whether to apply color patterns or not. Set this to {@code false}
+	 * only if color patterns have already been applied to {@code str}.
+	 *
+	 * @return A {@link Component} with all patterns applied to it.
+	 *
+	 * @throws NullPointerException if any parameter is {@code null}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 *
+	 * @see #applyLegacyPatterns(MessageReceiver, String, boolean)
+	 */
+	@NotNull
+	public static Component applyPatterns(@NotNull MessageReceiver target, @NotNull String str, boolean applyColor) {
+		return applyEventPatterns(tokenize(target, str, applyColor));
+	}
+
+	/**
+	 * Applies all known patterns to the provided {@link String} in order to send it
+	 * to the specified {@code target} as a legacy {@link String}. That is, all color
+	 * patterns (Only if {@code applyColor} is {@code true}) and target patterns, in that order.
+	 * Event patterns can't be represented on a legacy {@link String}, so they are
+	 * {@link #stripEventPatterns(String) removed}.
+	 *
+	 * @param target the {@link MessageReceiver} that will receive matching target patterns.
+	 * @param str the {@link String} to process.
+	 * @param applyColor whether to apply color patterns or not. Set this to {@code false}
+	 * only if color patterns have already been applied to {@code str}.
+	 *
+	 * @return A {@link String} with all patterns applied to it.
+	 *
+	 * @throws NullPointerException if any parameter is {@code null}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 *
+	 * @see #applyPatterns(MessageReceiver, String, boolean)
+	 */
+	@NotNull
+	public static String applyLegacyPatterns(@NotNull MessageReceiver target, @NotNull String str, boolean applyColor) {
+		return stripEventPatterns(tokenize(target, str, applyColor));
+	}
+
+	private static String tokenize(MessageReceiver target, String str, boolean applyColor) {
+		Objects.requireNonNull(str, "The string to process cannot be null");
+		MessageTokenizer current = tokenizer;
+		if (current == null || !current.isFor(targetPatterns))
+			tokenizer = current = new MessageTokenizer(targetPatterns);
+		String result = applyColor && colorPatterns == DEFAULT_COLOR_PATTERNS ? current.tokenize(target, str, true) : null;
+		if (result != null)
+			return result;
+		final String colored = applyColor ? applyColor(str) : str;
+		result = current.tokenize(target, colored, false);
+		return result != null ? result : applyTargetPatterns(target, colored, true);
 	}
 
 	/*
@@ -89,6 +182,11 @@ public class SkyStrings {
 	@NotNull
 	public static String applyColor(@NotNull String str, boolean simple) {
 		String colored = Objects.requireNonNull(str, "The string to process cannot be null");
+		if (colorPatterns == DEFAULT_COLOR_PATTERNS) {
+			final String fused = MessageTokenizer.applyColor(str, simple);
+			if (fused != null)
+				return fused;
+		}
 		for (ColorPattern pattern : colorPatterns)
 			colored = pattern.applyColor(colored, simple);
 		return colored;
@@ -254,11 +352,13 @@ public class SkyStrings {
 	 */
 	@NotNull
 	public static Component applyEventPatterns(@NotNull String string) {
-		final LegacyComponentSerializer serializer = LegacyComponentSerializer.builder().
-				useUnusualXRepeatedCharacterHexFormat().build();
+		LegacyComponentSerializer serializer = legacySerializer;
+		if (serializer == null)
+			legacySerializer = serializer = LegacyComponentSerializer.builder().useUnusualXRepeatedCharacterHexFormat().build();
+		final LegacyComponentSerializer legacy = serializer;
 		final TextComponent.Builder builder = Component.text();
 		searchEventPatterns(string,
-				txt -> builder.append(serializer.deserialize(txt)),
+				txt -> builder.append(legacy.deserialize(txt)),
 				(event, txt) -> applyEvents(builder, event, txt));
 		return builder.build();
 	}
@@ -266,17 +366,17 @@ public class SkyStrings {
 	private static void applyEvents(TextComponent.Builder builder, String eventData, String text) {
 		final List<String> eventList = splitEvents(eventData);
 		final int safeLen = eventList.size() - 1;
-		final Component toAppend = Component.text(text);
+		Component toAppend = Component.text(text);
 		for (int i = 0; i < safeLen; i += 2) {
 			final String content = eventList.get(i + 1);
 			switch (eventList.get(i).toLowerCase()) {
-				case "text", "show_text" -> toAppend.hoverEvent(HoverEvent.showText(Component.text(content)));
-				case "url", "open_url" -> toAppend.clickEvent(ClickEvent.openUrl(content));
-				case "file", "open_file" -> toAppend.clickEvent(ClickEvent.openFile(content));
-				case "run", "run_cmd", "run_command" -> toAppend.clickEvent(ClickEvent.runCommand(content));
-				case "suggest", "suggest_cmd", "suggest_command" -> toAppend.clickEvent(ClickEvent.suggestCommand(content));
-				case "copy", "copy_to_clipboard" -> toAppend.clickEvent(ClickEvent.copyToClipboard(content));
-			};
+				case "text", "show_text" -> toAppend = toAppend.hoverEvent(HoverEvent.showText(Component.text(content)));
+				case "url", "open_url" -> toAppend = toAppend.clickEvent(ClickEvent.openUrl(content));
+				case "file", "open_file" -> toAppend = toAppend.clickEvent(ClickEvent.openFile(content));
+				case "run", "run_cmd", "run_command" -> toAppend = toAppend.clickEvent(ClickEvent.runCommand(content));
+				case "suggest", "suggest_cmd", "suggest_command" -> toAppend = toAppend.clickEvent(ClickEvent.suggestCommand(content));
+				case "copy", "copy_to_clipboard" -> toAppend = toAppend.clickEvent(ClickEvent.copyToClipboard(content));
+			}
 		}
 		builder.append(toAppend);
 	}
@@ -321,6 +421,7 @@ public class SkyStrings {
 			append.accept(str.substring(lastAppend, start));
 			replace.accept(str.substring(start + 1, eventEnd), str.substring(eventEnd + 1, textEnd));
 			lastAppend = textEnd + 2;
+			start = textEnd + 1; // Events can't start inside the text of another event.
 		}
 		if (lastAppend != str.length())
 			append.accept(str.substring(lastAppend));
@@ -0,0 +1,300 @@
+package net.codersky.skyutils.java.strings.pattern;
+
+import net.codersky.skyutils.crossplatform.MessageReceiver;
+import net.codersky.skyutils.java.strings.SkyStrings;
+import net.codersky.skyutils.java.strings.pattern.color.GradientColorPattern;
+import net.codersky.skyutils.java.strings.pattern.color.HexColorPattern;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Processes the default {@link ColorPattern color patterns} (Gradients, hexadecimal colors
+ * and '&amp;' color codes) and any {@link TagTargetPattern} on a single pass over a message,
+ * instead of applying every pattern to the whole message, one after another.
+ * <p>
+ * Results are the same as the ones of applying each pattern in order, as {@link SkyStrings}
+ * does. Whenever that can't be guaranteed on a single pass, for example, because tags are
+ * nested, or because removing a tag joins the text around it into a new tag, methods of this
+ * class return {@code null}, so patterns can be applied one after another instead. The same
+ * applies to lists of {@link TargetPattern target patterns} that contain patterns that
+ * aren't {@link TagTargetPattern tag patterns}, or whose tags could be mistaken for colors.
+ * <p>
+ * Tag patterns are only notified once the whole message has been processed, following the
+ * order of the {@link TargetPattern} list, so nothing is sent if {@code null} is returned.
+ *
+ * @since SkyUtils 1.0.0
+ *
+ * @see SkyStrings#applyPatterns(MessageReceiver, String, boolean)
+ *
+ * @author xDec0de_
+ */
+public final class MessageTokenizer {
+
+	/** Shortest message that {@link HexColorPattern#applyColor(String, boolean)} always processes. */
+	private static final int MIN_COLOR_LENGTH = 8;
+	private static final TagTargetPattern[] NO_TAGS = new TagTargetPattern[0];
+	private static final boolean[] NO_TAG_CHARS = new boolean[128];
+
+	private final List<TargetPattern> patterns;
+	/** Tags of {@link #patterns}, in order, {@code null} if they can't be tokenized. */
+	private final TagTargetPattern[] tags;
+	/** ASCII characters that any tag starts with. */
+	private final boolean[] tagChars = new boolean[128];
+	private final int maxTokenLength;
+
+	/**
+	 * Creates a new {@link MessageTokenizer} for the specified {@link TargetPattern target patterns}.
+	 *
+	 * @param patterns The {@link TargetPattern target patterns} to recognize, in the order
+	 * they would be applied one after another. If any of them isn't a {@link TagTargetPattern},
+	 * {@link #tokenize(MessageReceiver, String, boolean)} will always return {@code null}.
+	 *
+	 * @throws NullPointerException if {@code patterns} is {@code null}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public MessageTokenizer(@NotNull List<TargetPattern> patterns) {
+		this.patterns = patterns;
+		final TagTargetPattern[] tags = new TagTargetPattern[patterns.size()];
+		int maxLength = 0;
+		boolean valid = true;
+		for (int i = 0; i < tags.length && valid; i++) {
+			if (!(patterns.get(i) instanceof TagTargetPattern tag)) {
+				valid = false;
+				continue;
+			}
+			tags[i] = tag;
+			maxLength = Math.max(maxLength, Math.max(tag.getOpening().length(), tag.getClosing().length()));
+		}
+		this.tags = valid && isTokenizable(tags) ? tags : null;
+		if (this.tags != null) {
+			for (TagTargetPattern tag : tags) {
+				tagChars[tag.getOpening().charAt(0)] = true;
+				tagChars[tag.getClosing().charAt(0)] = true;
+			}
+		}
+		this.maxTokenLength = maxLength;
+	}
+
+	/**
+	 * Checks that tags can't be mistaken for colors, nor found inside each other. The first
+	 * character of a tag can't be a color character, so colors never consume the start of a
+	 * tag, and tags don't contain color characters ('&amp;', '#' or {@link SkyStrings#COLOR_CHAR}).
+	 */
+	private static boolean isTokenizable(TagTargetPattern[] tags) {
+		for (TagTargetPattern tag : tags) {
+			final String opening = tag.getOpening(), closing = tag.getClosing();
+			if (!isTokenizable(opening) || !isTokenizable(closing) || opening.indexOf(closing.charAt(0), 1) != -1)
+				return false;
+			for (TagTargetPattern other : tags) {
+				if (other == tag)
+					continue;
+				if (other.getOpening().startsWith(opening) || other.getClosing().charAt(0) == opening.charAt(0))
+					return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isTokenizable(String token) {
+		if (token.charAt(0) >= 128 || SkyStrings.isColorChar(token.charAt(0)))
+			return false;
+		for (int i = 0; i < token.length(); i++) {
+			final char ch = token.charAt(i);
+			if (ch == '&' || ch == '#' || ch == SkyStrings.COLOR_CHAR)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Checks if this {@link MessageTokenizer} was created for the specified
+	 * {@link List} of {@link TargetPattern target patterns}.
+	 *
+	 * @param patterns The {@link List} to check.
+	 *
+	 * @return {@code true} if this {@link MessageTokenizer} was created with
+	 * that exact {@link List} instance, {@code false} otherwise.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public boolean isFor(@Nullable List<TargetPattern> patterns) {
+		return this.patterns == patterns;
+	}
+
+	/*
+	 * Tokenization
+	 */
+
+	/**
+	 * Applies the default {@link ColorPattern color patterns} of {@link SkyStrings}
+	 * to the specified {@link String} on a single pass.
+	 *
+	 * @param str The {@link String} to apply colors to.
+	 * @param simple whether to use simple mode or not, read
+	 * {@link ColorPattern#applyColor(String, boolean)} for more information.
+	 *
+	 * @return A {@link String} with colors applied to it, {@code null} if the
+	 * result can't be guaranteed to be the same as applying each pattern in order.
+	 *
+	 * @throws NullPointerException if {@code str} is {@code null}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@Nullable
+	public static String applyColor(@NotNull String str, boolean simple) {
+		if (str.length() < MIN_COLOR_LENGTH)
+			return null;
+		// Only '&' codes can be found, which is faster to do on a char array.
+		if (str.indexOf('<') == -1 && str.indexOf('#') == -1)
+			return SkyStrings.applyColorChar('&', str);
+		return scan(str, true, simple, NO_TAGS, NO_TAG_CHARS, 0, null);
+	}
+
+	/**
+	 * Applies the default {@link ColorPattern color patterns} of {@link SkyStrings}, if
+	 * {@code applyColor} is {@code true}, and the {@link TagTargetPattern tag patterns} of this
+	 * {@link MessageTokenizer} to the specified {@link String} on a single pass. Event patterns
+	 * aren't applied, so the result can be given to {@link SkyStrings#applyEventPatterns(String)}
+	 * or {@link SkyStrings#stripEventPatterns(String)}.
+	 *
+	 * @param target The {@link MessageReceiver target} that will receive matching tags, if eligible.
+	 * @param str The {@link String} to process.
+	 * @param applyColor Whether to apply color patterns or not, in simple mode.
+	 *
+	 * @return {@code str} with colors applied and every tag removed from it, {@code null}
+	 * if the result can't be guaranteed to be the same as applying each pattern in order, in
+	 * which case no tag is processed.
+	 *
+	 * @throws NullPointerException if any parameter is {@code null}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@Nullable
+	public String tokenize(@NotNull MessageReceiver target, @NotNull String str, boolean applyColor) {
+		if (tags == null || (applyColor && str.length() < MIN_COLOR_LENGTH))
+			return null;
+		final List<Object> matches = new ArrayList<>(0);
+		final String result = scan(str, applyColor, true, tags, tagChars, maxTokenLength, matches);
+		if (result == null)
+			return null;
+		for (int tag = 0; tag < tags.length; tag++)
+			for (int i = 0; i < matches.size(); i += 2)
+				if ((int) matches.get(i) == tag)
+					tags[tag].onMatch(target, (String) matches.get(i + 1), true);
+		return result;
+	}
+
+	/**
+	 * Scans {@code str} once, applying colors and removing tags.
+	 *
+	 * @param matches A {@link List} to add every tag found to, as {tag index, content} pairs.
+	 *
+	 * @return The result, {@code null} if patterns must be applied one after another.
+	 */
+	@Nullable
+	private static String scan(String str, boolean color, boolean simple, TagTargetPattern[] tags, boolean[] tagChars, int maxTokenLength, List<Object> matches) {
+		final int len = str.length();
+		final StringBuilder out = new StringBuilder(len + 16);
+		boolean changed = false;
+		int open = -1; // Index of the tag being read, if any.
+		int tagStart = 0; // Index of its opening tag on out.
+		int contentStart = 0; // Index of its content on out.
+		int from = 0; // Start of the text that hasn't been appended yet.
+		int i = 0;
+		while (i < len) {
+			final char ch = str.charAt(i);
+			if (ch >= 128 || !(tagChars[ch] || (color && (ch == '<' || ch == '#' || ch == '&')))) {
+				i++;
+				continue;
+			}
+			out.append(str, from, i);
+			from = i;
+			if (color) {
+				int end = -1;
+				if (ch == '<') {
+					final int mark = out.length();
+					end = GradientColorPattern.apply(str, i, simple, out);
+					// The last character of a gradient could join the text after it, and empty gradients join the text around them.
+					if (end != -1 && (out.length() == mark || isJoinable(out.charAt(out.length() - 1), tagChars)))
+						return null;
+				} else if (ch == '#')
+					end = HexColorPattern.apply(str, i, simple, out);
+				else if (ch == '&' && i + 1 < len && SkyStrings.isColorChar(str.charAt(i + 1))) {
+					out.append(SkyStrings.COLOR_CHAR).append(str.charAt(i + 1));
+					end = i + 2;
+				}
+				if (end != -1) {
+					changed = true;
+					i = from = end;
+					continue;
+				}
+			}
+			if (open == -1) {
+				final int tag = openingAt(str, i, tags);
+				if (tag != -1) {
+					open = tag;
+					tagStart = out.length();
+					out.append(tags[tag].getOpening());
+					contentStart = out.length();
+					i = from = i + tags[tag].getOpening().length();
+					continue;
+				}
+			} else if (str.startsWith(tags[open].getClosing(), i)) {
+				matches.add(open);
+				matches.add(out.substring(contentStart));
+				out.setLength(tagStart);
+				changed = true;
+				i = from = i + tags[open].getClosing().length();
+				// Tags are searched again right after the position of a removed tag, not at it.
+				if (str.startsWith(tags[open].getOpening(), i) || joinsTag(out, tags, tagChars, maxTokenLength))
+					return null;
+				open = -1;
+				continue;
+			} else if (openingAt(str, i, tags) != -1)
+				return null; // Nested tags
+			i++;
+		}
+		if (!changed)
+			return str;
+		return out.append(str, from, len).toString();
+	}
+
+	private static boolean isJoinable(char ch, boolean[] tagChars) {
+		return ch == '#' || ch == '&' || (ch < 128 && tagChars[ch]);
+	}
+
+	private static int openingAt(String str, int index, TagTargetPattern[] tags) {
+		for (int i = 0; i < tags.length; i++)
+			if (str.startsWith(tags[i].getOpening(), index))
+				return i;
+		return -1;
+	}
+
+	/** Checks if the end of {@code out} is the start of any tag, which could be completed by the text after it. */
+	private static boolean joinsTag(StringBuilder out, TagTargetPattern[] tags, boolean[] tagChars, int maxTokenLength) {
+		final int len = out.length();
+		for (int start = Math.max(0, len - maxTokenLength + 1); start < len; start++) {
+			final char ch = out.charAt(start);
+			if (ch >= 128 || !tagChars[ch])
+				continue;
+			final int prefixLen = len - start;
+			for (TagTargetPattern tag : tags)
+				if (isPrefix(out, start, prefixLen, tag.getOpening()) || isPrefix(out, start, prefixLen, tag.getClosing()))
+					return true;
+		}
+		return false;
+	}
+
+	private static boolean isPrefix(StringBuilder out, int start, int len, String token) {
+		if (len >= token.length())
+			return false;
+		for (int i = 0; i < len; i++)
+			if (out.charAt(start + i) != token.charAt(i))
+				return false;
+		return true;
+	}
+}
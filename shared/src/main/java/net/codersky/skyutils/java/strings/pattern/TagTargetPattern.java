@@ -0,0 +1,89 @@
+package net.codersky.skyutils.java.strings.pattern;
+
+import net.codersky.skyutils.crossplatform.MessageReceiver;
+import net.codersky.skyutils.java.strings.SkyStrings;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+
+/**
+ * A {@link TargetPattern} delimited by an opening and a closing tag, such as
+ * {@code <p:content/p>}. Every occurrence of the pattern is removed from the
+ * message and its content is given to {@link #onMatch(MessageReceiver, String, boolean)}.
+ * <p>
+ * Unlike other {@link TargetPattern target patterns}, tag patterns can be recognized
+ * by the {@link MessageTokenizer}, which processes them alongside color patterns on a
+ * single pass over the message.
+ *
+ * @since SkyUtils 1.0.0
+ *
+ * @see MessageTokenizer
+ *
+ * @author xDec0de_
+ */
+public abstract class TagTargetPattern implements TargetPattern {
+
+	private final String opening;
+	private final String closing;
+
+	/**
+	 * Creates a new {@link TagTargetPattern} with the specified tags.
+	 *
+	 * @param opening The opening tag of the pattern, for example "&lt;p:".
+	 * @param closing The closing tag of the pattern, for example "/p&gt;".
+	 *
+	 * @throws NullPointerException if any parameter is {@code null}.
+	 * @throws IllegalArgumentException if any tag is empty.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	protected TagTargetPattern(@NotNull String opening, @NotNull String closing) {
+		this.opening = Objects.requireNonNull(opening, "Opening tag cannot be null");
+		this.closing = Objects.requireNonNull(closing, "Closing tag cannot be null");
+		if (opening.isEmpty() || closing.isEmpty())
+			throw new IllegalArgumentException("Tags cannot be empty");
+	}
+
+	/**
+	 * Gets the opening tag of this {@link TagTargetPattern}.
+	 *
+	 * @return The opening tag of this {@link TagTargetPattern}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public final String getOpening() {
+		return opening;
+	}
+
+	/**
+	 * Gets the closing tag of this {@link TagTargetPattern}.
+	 *
+	 * @return The closing tag of this {@link TagTargetPattern}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public final String getClosing() {
+		return closing;
+	}
+
+	/**
+	 * Called once per occurrence of this pattern on a message.
+	 *
+	 * @param target The {@link MessageReceiver target} of the message.
+	 * @param content The content found between the opening and the closing tags.
+	 * @param applyEventPatterns Whether to {@link SkyStrings#applyEventPatterns(String) apply} event patterns
+	 * to {@code content}. Details about this can be found {@link TargetPattern here},
+	 * under the "<b>ABOUT EVENT PATTERNS</b>" section.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public abstract void onMatch(@NotNull MessageReceiver target, @NotNull String content, boolean applyEventPatterns);
+
+	@NotNull
+	@Override
+	public final String process(@NotNull MessageReceiver target, @NotNull String string, boolean applyEventPatterns) {
+		return SkyStrings.match(string, opening, closing, content -> onMatch(target, content, applyEventPatterns), true);
+	}
+}
@@ -4,10 +4,6 @@ import net.codersky.skyutils.java.strings.SkyStrings;
 import net.codersky.skyutils.java.strings.pattern.ColorPattern;
 import org.jetbrains.annotations.NotNull;
 
-import java.awt.Color;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 /**
  * Represents a gradient color pattern which can be applied to a String.
  * <p>
@@ -17,119 +13,166 @@ import java.util.regex.Pattern;
  * Patterns used are: <#([0-9A-Fa-f]{6})(.*?)#([0-9A-Fa-f]{6})> and <#([0-9A-Fa-f]{3})(.*?)#([0-9A-Fa-f]{3})>
  * <p>
  * Example: <#FFFFFFTest string#000000> or <#FFFTest string#000>
- * 
+ * <p>
+ * Patterns are matched on a single pass, without regular expressions, the three
+ * character pattern is only used on simple mode. Formatting codes (k-o) inside a gradient are
+ * kept until a reset (r) code is found, while color codes are removed, as the gradient overrides them.
+ *
  * @since SkyUtils 1.0.0
  */
 public class GradientColorPattern implements ColorPattern {
 
-	// TODO This pattern needs to be optimized, specially we should stop using regex.
-
-	private final Pattern pattern = Pattern.compile("<#([0-9A-Fa-f]{6})(.*?)#([0-9A-Fa-f]{6})>");
-	private final Pattern simplePattern = Pattern.compile("<#([0-9A-Fa-f]{3})(.*?)#([0-9A-Fa-f]{3})>");
+	private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
 
 	@NotNull
 	@Override
 	public String applyColor(@NotNull final String string, boolean simple) {
-		String res = string;
-		for (int i = simple ? 2 : 1; i > 0; i--) { // i will be 1 for simplePattern, 2 for pattern.
-			final Matcher matcher = i == 1 ? simplePattern.matcher(res) : pattern.matcher(res);
-			while (matcher.find()) {
-				final int step = SkyStrings.stripColor(matcher.group(2), '&').length();
-				final Color start = i == 1 ? getSimpleColor(matcher.group(1)) : new Color(Integer.parseInt(matcher.group(1), 16));
-				final Color end = i == 1 ? getSimpleColor(matcher.group(3)) : new Color(Integer.parseInt(matcher.group(3), 16));
-				res = matcher.replaceFirst(apply(matcher.group(2), createGradient(start, end, step)));
-				matcher.reset(res);
+		int open = string.indexOf("<#");
+		if (open == -1)
+			return string;
+		final StringBuilder result = new StringBuilder(string.length() * 4);
+		boolean found = false;
+		int from = 0;
+		while (open != -1) {
+			result.append(string, from, open);
+			from = open;
+			final int end = apply(string, open, simple, result);
+			if (end != -1) {
+				found = true;
+				from = end;
 			}
+			open = string.indexOf("<#", end == -1 ? open + 1 : end);
 		}
-		return res;
+		return found ? result.append(string, from, string.length()).toString() : string;
 	}
 
-	private Color getSimpleColor(String group) {
-		StringBuilder builder = new StringBuilder(22); // 22 is the capacity of a 6 character string buffer.
-		for (int i = 0; i < 3; i++) {
-			builder.append(group.charAt(i));
-			builder.append(group.charAt(i));
+	/**
+	 * Applies a gradient starting at the specified index of {@code str}, if any.
+	 * This is used by {@link #applyColor(String, boolean)}, and can also be used by
+	 * any tokenizer that already knows that a gradient may start at {@code start}.
+	 *
+	 * @param str The {@link String} to read.
+	 * @param start The index at which the gradient is expected to start, that is,
+	 * the index of its "&lt;#" opening.
+	 * @param simple Whether to also accept three character colors or not.
+	 * @param result The {@link StringBuilder} to append the colored content to.
+	 * Nothing is appended to it if no gradient is found at {@code start}.
+	 *
+	 * @return The index right after the end of the gradient, -1 if no gradient
+	 * is found at {@code start}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public static int apply(@NotNull String str, int start, boolean simple, @NotNull StringBuilder result) {
+		final int end = apply(str, start, 6, result);
+		return end != -1 || !simple ? end : apply(str, start, 3, result);
+	}
+
+	private static int apply(String str, int start, int hexLen, StringBuilder result) {
+		final int len = str.length();
+		final int contentStart = start + 2 + hexLen;
+		if (contentStart > len || str.charAt(start) != '<' || str.charAt(start + 1) != '#')
+			return -1;
+		final int startColor = parseColor(str, start + 2, hexLen);
+		if (startColor == -1)
+			return -1;
+		for (int i = contentStart; i < len; i++) {
+			final char ch = str.charAt(i);
+			if (isLineTerminator(ch))
+				return -1;
+			if (ch != '#' || i + hexLen + 1 >= len || str.charAt(i + hexLen + 1) != '>')
+				continue;
+			final int endColor = parseColor(str, i + 1, hexLen);
+			if (endColor != -1) {
+				appendGradient(str, contentStart, i, startColor, endColor, result);
+				return i + hexLen + 2;
+			}
 		}
-		return new Color(Integer.parseInt(builder.toString(), 16));
+		return -1;
 	}
 
-	// TODO I'm pretty sure the two methods below this comment can be simplified.
+	private static boolean isLineTerminator(char ch) {
+		return ch == '\n' || ch == '\r' || ch == '\u0085' || ch == '\u2028' || ch == '\u2029';
+	}
 
-	/**
-	 * Returns a gradient array of chat colors.
-	 *
-	 * @param start the starting color.
-	 * @param end the ending color.
-	 * @param step how many colors we return.
-	 * 
-	 * @author TheViperShow
-	 */
-	@NotNull
-	private String[] createGradient(@NotNull Color start, @NotNull Color end, int step) {
-		String[] colors = new String[step];
-		if (step == 1) {
-			colors[0] = toLegacyColorString(start);
-			return colors;
+	private static int parseColor(String str, int from, int hexLen) {
+		int rgb = 0;
+		for (int i = from; i < from + hexLen; i++) {
+			final int digit = Character.digit(str.charAt(i), 16);
+			if (digit == -1 || str.charAt(i) > 'f')
+				return -1;
+			rgb = hexLen == 3 ? (rgb << 8) | (digit << 4) | digit : (rgb << 4) | digit;
 		}
-		int stepR = Math.abs(start.getRed() - end.getRed()) / (step - 1);
-		int stepG = Math.abs(start.getGreen() - end.getGreen()) / (step - 1);
-		int stepB = Math.abs(start.getBlue() - end.getBlue()) / (step - 1);
-		int[] direction = new int[] {
-				start.getRed() < end.getRed() ? +1 : -1,
-				start.getGreen() < end.getGreen() ? +1 : -1,
-				start.getBlue() < end.getBlue() ? +1 : -1
-		};
+		return rgb;
+	}
+
+	/*
+	 * Gradient generation
+	 */
 
-		for (int i = 0; i < step; i++) {
-			Color color = new Color(start.getRed() + ((stepR * i) * direction[0]), start.getGreen() + ((stepG * i) * direction[1]), start.getBlue() + ((stepB * i) * direction[2]));
-			colors[i] = toLegacyColorString(color);
-			//colors[i] = plugin.getServerVersion().supports(MCVersion.V1_16) ? ChatColor.of(color) : getClosestColor(color);
+	private static void appendGradient(String str, int from, int to, int startColor, int endColor, StringBuilder result) {
+		final int steps = countVisible(str, from, to);
+		if (steps == 0)
+			return;
+		final int startR = startColor >> 16, startG = (startColor >> 8) & 0xFF, startB = startColor & 0xFF;
+		final int deltaR = (endColor >> 16) - startR, deltaG = ((endColor >> 8) & 0xFF) - startG, deltaB = (endColor & 0xFF) - startB;
+		final int div = Math.max(steps - 1, 1);
+		int formatting = 0; // Bit mask of active k-o formatting codes.
+		int step = 0;
+		for (int i = from; i < to; i++) {
+			final char ch = str.charAt(i);
+			final int code = i + 1 < to ? getCode(ch, str.charAt(i + 1)) : 0;
+			if (code != 0) {
+				if (code == 'r')
+					formatting = 0;
+				else if (code >= 'k' && code <= 'o')
+					formatting |= 1 << (code - 'k');
+				i++; // Colors are skipped, the gradient overrides them.
+				continue;
+			}
+			// Rounded integer interpolation: start + round(delta * step / div)
+			appendColor(result, startR + interpolate(deltaR, step, div), startG + interpolate(deltaG, step, div), startB + interpolate(deltaB, step, div));
+			for (int format = 0; format < 5; format++)
+				if ((formatting & (1 << format)) != 0)
+					result.append(SkyStrings.COLOR_CHAR).append((char) ('k' + format));
+			result.append(ch);
+			step++;
 		}
-		return colors;
 	}
 
-	private String toLegacyColorString(@NotNull Color color) {
-		final String hex = String.format("#%06X", (0xFFFFFF & color.getRGB()));
-		final StringBuilder res = new StringBuilder(SkyStrings.COLOR_CHAR + "x");
-		for (char ch : hex.substring(1).toCharArray())
-			res.append(SkyStrings.COLOR_CHAR).append(ch);
-		return res.toString();
+	private static int interpolate(int delta, int step, int div) {
+		return Math.floorDiv(delta * step * 2 + div, div * 2);
+	}
+
+	private static int countVisible(String str, int from, int to) {
+		int visible = 0;
+		for (int i = from; i < to; i++) {
+			if (i + 1 < to && getCode(str.charAt(i), str.charAt(i + 1)) != 0)
+				i++;
+			else
+				visible++;
+		}
+		return visible;
 	}
 
 	/**
-	 * Applies the specified list of <b>colors</b> to <b>source</b>,
-	 * this method is designed for patterns like {@link GradientColorPattern}.
-	 * 
-	 * @param source the string to apply colors.
-	 * @param colors the colors to apply.
-	 * 
-	 * @return <b>Source</b> with <b>colors</b> applied to it.
+	 * Gets the lower case code of a vanilla color or formatting code, if any.
+	 *
+	 * @return The lower case code character, 0 if {@code ch} and {@code next} are not a code.
 	 */
-	@NotNull
-	String apply(@NotNull String source, @NotNull String[] colors) {
-		final StringBuilder res = new StringBuilder();
-		StringBuilder formatting = new StringBuilder();
-		final char[] characters = source.toCharArray();
-		int colorIndex = 0;
-		for (int strIndex = 0; strIndex < characters.length; strIndex++) {
-			char current = characters[strIndex];
-			if (current == '&' || current == SkyStrings.COLOR_CHAR) {
-				char next = characters[++strIndex];
-				if (next >= 'k' && next <= 'o') {// if next == k, l, m, n or o
-					formatting.append(SkyStrings.COLOR_CHAR);
-					formatting.append(next);
-					continue;
-				} else if (next == 'r') {
-					formatting = new StringBuilder();
-					continue;
-				}
-				else
-					strIndex--;
-			}
-			res.append(colors[colorIndex++]);
-			res.append(formatting);
-			res.append(current);
-		}
-		return res.toString();
+	private static int getCode(char ch, char next) {
+		if ((ch != '&' && ch != SkyStrings.COLOR_CHAR) || !SkyStrings.isColorChar(next))
+			return 0;
+		return Character.toLowerCase(next);
+	}
+
+	private static void appendColor(StringBuilder result, int r, int g, int b) {
+		result.append(SkyStrings.COLOR_CHAR).append('x')
+				.append(SkyStrings.COLOR_CHAR).append(HEX_DIGITS[r >> 4])
+				.append(SkyStrings.COLOR_CHAR).append(HEX_DIGITS[r & 0xF])
+				.append(SkyStrings.COLOR_CHAR).append(HEX_DIGITS[g >> 4])
+				.append(SkyStrings.COLOR_CHAR).append(HEX_DIGITS[g & 0xF])
+				.append(SkyStrings.COLOR_CHAR).append(HEX_DIGITS[b >> 4])
+				.append(SkyStrings.COLOR_CHAR).append(HEX_DIGITS[b & 0xF]);
 	}
 }
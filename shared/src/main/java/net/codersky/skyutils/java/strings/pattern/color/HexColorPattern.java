@@ -21,28 +21,60 @@ import org.jetbrains.annotations.NotNull;
  */
 public class HexColorPattern implements ColorPattern {
 
+	/** Instance used by {@link #apply(String, int, boolean, StringBuilder)}, which is static. */
+	private static final HexColorPattern HEX = new HexColorPattern();
+
 	@NotNull
 	public String applyColor(@NotNull final String string, boolean simple) {
 		final int len = string.length();
 		if (len < (simple ? 5 : 8) || string.indexOf('#') < 0)
 			return string;
 		final StringBuilder result = new StringBuilder(len);
-		for (int i = 0; i < len; i++) {
-			final char current = string.charAt(i);
-			if (current == '#') {
-				final int hexSize = getHexSize(string, i + 1, len, simple);
-				if (hexSize != 0) {
-					final int[] positions = hexSize == 3 ? new int[] {1, 1, 2, 2, 3, 3} : new int[] {1, 2, 3, 4, 5, 6};
-					result.append(SkyStrings.COLOR_CHAR + "x");
-					for (final int pos : positions)
-						result.append(SkyStrings.COLOR_CHAR + Character.toString(string.charAt(i + pos)));
-					i += hexSize;
-				} else
-					result.append(current);
-			} else
-				result.append(current);
+		boolean found = false;
+		int from = 0;
+		for (int i = string.indexOf('#'); i != -1; i = string.indexOf('#', i + 1)) {
+			result.append(string, from, i);
+			from = i;
+			final int end = apply(string, i, simple, result);
+			if (end != -1) {
+				found = true;
+				from = end;
+				i = end - 1;
+			}
 		}
-		return result.toString();
+		return found ? result.append(string, from, len).toString() : string;
+	}
+
+	/**
+	 * Applies a hexadecimal color at the specified index of {@code str}, if any.
+	 * This is used by {@link #applyColor(String, boolean)}, and can also be used by
+	 * any tokenizer that already knows that a color may start at {@code start}.
+	 * <p>
+	 * Note that {@link #applyColor(String, boolean)} ignores strings shorter than
+	 * the shortest color pattern, this method doesn't.
+	 *
+	 * @param str The {@link String} to read.
+	 * @param start The index at which the color is expected to start, that is,
+	 * the index of its '#' character.
+	 * @param simple Whether to also accept three character colors or not.
+	 * @param result The {@link StringBuilder} to append the color to. Nothing
+	 * is appended to it if no color is found at {@code start}.
+	 *
+	 * @return The index right after the end of the color, -1 if no color
+	 * is found at {@code start}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public static int apply(@NotNull String str, int start, boolean simple, @NotNull StringBuilder result) {
+		if (str.charAt(start) != '#')
+			return -1;
+		final int hexSize = HEX.getHexSize(str, start + 1, str.length(), simple);
+		if (hexSize == 0)
+			return -1;
+		result.append(SkyStrings.COLOR_CHAR).append('x');
+		for (int i = 0; i < 6; i++)
+			result.append(SkyStrings.COLOR_CHAR).append(str.charAt(start + 1 + (hexSize == 3 ? i / 2 : i)));
+		return start + 1 + hexSize;
 	}
 
 	private int getHexSize(String str, int start, int len, boolean simple) {
@@ -2,18 +2,18 @@ package net.codersky.skyutils.java.strings.pattern.target;
 
 import net.codersky.skyutils.crossplatform.MessageReceiver;
 import net.codersky.skyutils.crossplatform.player.SkyPlayer;
-import net.codersky.skyutils.java.strings.SkyStrings;
-import net.codersky.skyutils.java.strings.pattern.TargetPattern;
+import net.codersky.skyutils.java.strings.pattern.TagTargetPattern;
 import org.jetbrains.annotations.NotNull;
 
-public class ActionBarTargetPattern implements TargetPattern {
+public class ActionBarTargetPattern extends TagTargetPattern {
+
+	public ActionBarTargetPattern() {
+		super("<ab:", "/ab>");
+	}
 
-	@NotNull
 	@Override
-	public String process(@NotNull MessageReceiver target, @NotNull String string, boolean applyEventPatterns) {
-		return SkyStrings.match(string, "<ab:", "/ab>", message -> {
-			if (target instanceof SkyPlayer player)
-				player.sendActionBar(message);
-		});
+	public void onMatch(@NotNull MessageReceiver target, @NotNull String message, boolean applyEventPatterns) {
+		if (target instanceof SkyPlayer player)
+			player.sendActionBar(message);
 	}
 }
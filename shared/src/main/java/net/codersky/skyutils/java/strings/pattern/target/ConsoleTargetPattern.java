@@ -2,18 +2,18 @@ package net.codersky.skyutils.java.strings.pattern.target;
 
 import net.codersky.skyutils.crossplatform.MessageReceiver;
 import net.codersky.skyutils.crossplatform.SkyConsole;
-import net.codersky.skyutils.java.strings.SkyStrings;
-import net.codersky.skyutils.java.strings.pattern.TargetPattern;
+import net.codersky.skyutils.java.strings.pattern.TagTargetPattern;
 import org.jetbrains.annotations.NotNull;
 
-public class ConsoleTargetPattern implements TargetPattern {
+public class ConsoleTargetPattern extends TagTargetPattern {
+
+	public ConsoleTargetPattern() {
+		super("<c:", "/c>");
+	}
 
-	@NotNull
 	@Override
-	public String process(@NotNull MessageReceiver target, @NotNull String string, boolean applyEventPatterns) {
-		return SkyStrings.match(string, "<c:", "/c>", message -> {
-			if (target instanceof SkyConsole console)
-				console.sendMessage(message);
-		});
+	public void onMatch(@NotNull MessageReceiver target, @NotNull String message, boolean applyEventPatterns) {
+		if (target instanceof SkyConsole console)
+			console.sendMessage(message);
 	}
 }
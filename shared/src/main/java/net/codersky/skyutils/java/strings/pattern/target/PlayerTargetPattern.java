@@ -3,7 +3,7 @@ package net.codersky.skyutils.java.strings.pattern.target;
 import net.codersky.skyutils.crossplatform.MessageReceiver;
 import net.codersky.skyutils.crossplatform.player.SkyPlayer;
 import net.codersky.skyutils.java.strings.SkyStrings;
-import net.codersky.skyutils.java.strings.pattern.TargetPattern;
+import net.codersky.skyutils.java.strings.pattern.TagTargetPattern;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -22,18 +22,19 @@ import org.jetbrains.annotations.NotNull;
  *
  * @author xDec0de_
  */
-public class PlayerTargetPattern implements TargetPattern {
+public class PlayerTargetPattern extends TagTargetPattern {
+
+	public PlayerTargetPattern() {
+		super("<p:", "/p>");
+	}
 
-	@NotNull
 	@Override
-	public String process(@NotNull MessageReceiver target, @NotNull String string, boolean applyEventPatterns) {
-		return SkyStrings.match(string, "<p:", "/p>", message -> {
-			if (target instanceof SkyPlayer player) {
-				if (applyEventPatterns)
-					player.sendMessage(SkyStrings.applyEventPatterns(message));
-				else
-					player.sendMessage(message);
-			}
-		});
+	public void onMatch(@NotNull MessageReceiver target, @NotNull String message, boolean applyEventPatterns) {
+		if (target instanceof SkyPlayer player) {
+			if (applyEventPatterns)
+				player.sendMessage(SkyStrings.applyEventPatterns(message));
+			else
+				player.sendMessage(message);
+		}
 	}
 }
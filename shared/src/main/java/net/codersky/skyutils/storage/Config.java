@@ -1,6 +1,7 @@
 package net.codersky.skyutils.storage;
 
 import net.codersky.skyutils.Reloadable;
+import net.codersky.skyutils.storage.files.AsyncSaver;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -9,6 +10,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public interface Config extends DataHandler, Reloadable {
 
@@ -46,6 +48,24 @@ public interface Config extends DataHandler, Reloadable {
 	 */
 	boolean save();
 
+	/**
+	 * {@link #save() Saves} this {@link Config} on another thread through the
+	 * {@link AsyncSaver#getDefault() default} {@link AsyncSaver}. Calling this method
+	 * again before the save starts doesn't schedule another save, the same
+	 * {@link CompletableFuture} is returned instead.
+	 * <p>
+	 * Unless this {@link Config} uses a {@link DataMap#isConcurrent() concurrent}
+	 * {@link DataMap}, it must not be modified until the save completes.
+	 *
+	 * @return A {@link CompletableFuture} completed with the result of {@link #save()}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	default CompletableFuture<Boolean> saveAsync() {
+		return AsyncSaver.getDefault().save(this);
+	}
+
 	/**
 	 * Loads the data stored on this config to the cache
 	 * of this {@link Config} instance. Some configs may
@@ -203,6 +223,20 @@ public interface Config extends DataHandler, Reloadable {
 		return getMap().setList(key, value);
 	}
 
+	// - Primitive arrays - //
+
+	default int[] setIntArray(@NotNull String key, int[] value) {
+		return getMap().setIntArray(key, value);
+	}
+
+	default long[] setLongArray(@NotNull String key, long[] value) {
+		return getMap().setLongArray(key, value);
+	}
+
+	default double[] setDoubleArray(@NotNull String key, double[] value) {
+		return getMap().setDoubleArray(key, value);
+	}
+
 	/*
 	 * Getters
 	 */
@@ -226,23 +260,45 @@ public interface Config extends DataHandler, Reloadable {
 		return getMap().get(key, String.class);
 	}
 
+	@Nullable
+	default String getString(@NotNull KeyPath key) {
+		return getMap().get(key, String.class);
+	}
+
 	@NotNull
 	default String getString(@NotNull String key, @NotNull String def) {
 		final String str = getString(key);
 		return str == null ? def : str;
 	}
 
+	@NotNull
+	default String getString(@NotNull KeyPath key, @NotNull String def) {
+		final String str = getString(key);
+		return str == null ? def : str;
+	}
+
 	@Nullable
 	default List<String> getStrings(@NotNull String key) {
 		return getMap().getList(key, String.class);
 	}
 
+	@Nullable
+	default List<String> getStrings(@NotNull KeyPath key) {
+		return getMap().getList(key, String.class);
+	}
+
 	@NotNull
 	default List<String> getStrings(@NotNull String key, @NotNull List<String> def) {
 		final List<String> lst = getStrings(key);
 		return lst == null ? def : lst;
 	}
 
+	@NotNull
+	default List<String> getStrings(@NotNull KeyPath key, @NotNull List<String> def) {
+		final List<String> lst = getStrings(key);
+		return lst == null ? def : lst;
+	}
+
 	// - Characters - //
 
 	@Nullable
@@ -250,22 +306,43 @@ public interface Config extends DataHandler, Reloadable {
 		return getMap().get(key, Character.class);
 	}
 
+	@Nullable
+	default Character getChar(@NotNull KeyPath key) {
+		return getMap().get(key, Character.class);
+	}
+
 	default char getChar(@NotNull String key, char def) {
 		final Character ch = getChar(key);
 		return ch == null ? def : ch;
 	}
 
+	default char getChar(@NotNull KeyPath key, char def) {
+		final Character ch = getChar(key);
+		return ch == null ? def : ch;
+	}
+
 	@Nullable
 	default List<Character> getChars(@NotNull String key) {
 		return getMap().getList(key, Character.class);
 	}
 
+	@Nullable
+	default List<Character> getChars(@NotNull KeyPath key) {
+		return getMap().getList(key, Character.class);
+	}
+
 	@NotNull
 	default List<Character> getChars(@NotNull String key, @NotNull List<Character> def) {
 		final List<Character> lst = getChars(key);
 		return lst == null ? def : lst;
 	}
 
+	@NotNull
+	default List<Character> getChars(@NotNull KeyPath key, @NotNull List<Character> def) {
+		final List<Character> lst = getChars(key);
+		return lst == null ? def : lst;
+	}
+
 	// - Booleans - //
 
 	@Nullable
@@ -273,9 +350,17 @@ public interface Config extends DataHandler, Reloadable {
 		return getMap().get(key, Boolean.class);
 	}
 
+	@Nullable
+	default Boolean getBoolean(@NotNull KeyPath key) {
+		return getMap().get(key, Boolean.class);
+	}
+
 	default boolean getBoolean(@NotNull String key, boolean def) {
-		final Boolean bool = getBoolean(key);
-		return bool == null ? def : bool;
+		return getMap().getBoolean(key, def);
+	}
+
+	default boolean getBoolean(@NotNull KeyPath key, boolean def) {
+		return getMap().getBoolean(key, def);
 	}
 
 	@Nullable
@@ -283,12 +368,23 @@ public interface Config extends DataHandler, Reloadable {
 		return getMap().getList(key, Boolean.class);
 	}
 
+	@Nullable
+	default List<Boolean> getBooleans(@NotNull KeyPath key) {
+		return getMap().getList(key, Boolean.class);
+	}
+
 	@NotNull
 	default List<Boolean> getBooleans(@NotNull String key, @NotNull List<Boolean> def) {
 		final List<Boolean> lst = getBooleans(key);
 		return lst == null ? def : lst;
 	}
 
+	@NotNull
+	default List<Boolean> getBooleans(@NotNull KeyPath key, @NotNull List<Boolean> def) {
+		final List<Boolean> lst = getBooleans(key);
+		return lst == null ? def : lst;
+	}
+
 	// - Integers - //
 
 	@Nullable
@@ -296,9 +392,17 @@ public interface Config extends DataHandler, Reloadable {
 		return getMap().get(key, Integer.class);
 	}
 
+	@Nullable
+	default Integer getInt(@NotNull KeyPath key) {
+		return getMap().get(key, Integer.class);
+	}
+
 	default int getInt(@NotNull String key, int def) {
-		final Integer i = getInt(key);
-		return i == null ? def : i;
+		return getMap().getInt(key, def);
+	}
+
+	default int getInt(@NotNull KeyPath key, int def) {
+		return getMap().getInt(key, def);
 	}
 
 	@Nullable
@@ -306,12 +410,23 @@ public interface Config extends DataHandler, Reloadable {
 		return getMap().getList(key, Integer.class);
 	}
 
+	@Nullable
+	default List<Integer> getInts(@NotNull KeyPath key) {
+		return getMap().getList(key, Integer.class);
+	}
+
 	@NotNull
 	default List<Integer> getInts(@NotNull String key, @NotNull List<Integer> def) {
 		final List<Integer> lst = getInts(key);
 		return lst == null ? def : lst;
 	}
 
+	@NotNull
+	default List<Integer> getInts(@NotNull KeyPath key, @NotNull List<Integer> def) {
+		final List<Integer> lst = getInts(key);
+		return lst == null ? def : lst;
+	}
+
 	// - Longs - //
 
 	@Nullable
@@ -319,9 +434,17 @@ public interface Config extends DataHandler, Reloadable {
 		return getMap().get(key, Long.class);
 	}
 
+	@Nullable
+	default Long getLong(@NotNull KeyPath key) {
+		return getMap().get(key, Long.class);
+	}
+
 	default long getLong(@NotNull String key, long def) {
-		final Long l = getLong(key);
-		return l == null ? def : l;
+		return getMap().getLong(key, def);
+	}
+
+	default long getLong(@NotNull KeyPath key, long def) {
+		return getMap().getLong(key, def);
 	}
 
 	@Nullable
@@ -329,12 +452,23 @@ public interface Config extends DataHandler, Reloadable {
 		return getMap().getList(key, Long.class);
 	}
 
+	@Nullable
+	default List<Long> getLongs(@NotNull KeyPath key) {
+		return getMap().getList(key, Long.class);
+	}
+
 	@NotNull
 	default List<Long> getLongs(@NotNull String key, @NotNull List<Long> def) {
 		final List<Long> lst = getLongs(key);
 		return lst == null ? def : lst;
 	}
 
+	@NotNull
+	default List<Long> getLongs(@NotNull KeyPath key, @NotNull List<Long> def) {
+		final List<Long> lst = getLongs(key);
+		return lst == null ? def : lst;
+	}
+
 	// - Floats - //
 
 	@Nullable
@@ -342,9 +476,17 @@ public interface Config extends DataHandler, Reloadable {
 		return getMap().get(key, Float.class);
 	}
 
+	@Nullable
+	default Float getFloat(@NotNull KeyPath key) {
+		return getMap().get(key, Float.class);
+	}
+
 	default float getFloat(@NotNull String key, float def) {
-		final Float f = getFloat(key);
-		return f == null ? def : f;
+		return getMap().getFloat(key, def);
+	}
+
+	default float getFloat(@NotNull KeyPath key, float def) {
+		return getMap().getFloat(key, def);
 	}
 
 	@Nullable
@@ -352,12 +494,23 @@ public interface Config extends DataHandler, Reloadable {
 		return getMap().getList(key, Float.class);
 	}
 
+	@Nullable
+	default List<Float> getFloats(@NotNull KeyPath key) {
+		return getMap().getList(key, Float.class);
+	}
+
 	@NotNull
 	default List<Float> getFloats(@NotNull String key, @NotNull List<Float> def) {
 		final List<Float> lst = getFloats(key);
 		return lst == null ? def : lst;
 	}
 
+	@NotNull
+	default List<Float> getFloats(@NotNull KeyPath key, @NotNull List<Float> def) {
+		final List<Float> lst = getFloats(key);
+		return lst == null ? def : lst;
+	}
+
 	// - Doubles - //
 
 	@Nullable
@@ -365,9 +518,17 @@ public interface Config extends DataHandler, Reloadable {
 		return getMap().get(key, Double.class);
 	}
 
+	@Nullable
+	default Double getDouble(@NotNull KeyPath key) {
+		return getMap().get(key, Double.class);
+	}
+
 	default double getDouble(@NotNull String key, double def) {
-		final Double d = getDouble(key);
-		return d == null ? def : d;
+		return getMap().getDouble(key, def);
+	}
+
+	default double getDouble(@NotNull KeyPath key, double def) {
+		return getMap().getDouble(key, def);
 	}
 
 	@Nullable
@@ -375,12 +536,23 @@ public interface Config extends DataHandler, Reloadable {
 		return getMap().getList(key, Double.class);
 	}
 
+	@Nullable
+	default List<Double> getDoubles(@NotNull KeyPath key) {
+		return getMap().getList(key, Double.class);
+	}
+
 	@NotNull
 	default List<Double> getDoubles(@NotNull String key, @NotNull List<Double> def) {
 		final List<Double> lst = getDoubles(key);
 		return lst == null ? def : lst;
 	}
 
+	@NotNull
+	default List<Double> getDoubles(@NotNull KeyPath key, @NotNull List<Double> def) {
+		final List<Double> lst = getDoubles(key);
+		return lst == null ? def : lst;
+	}
+
 	// - UUID - //
 
 	@Nullable
@@ -388,20 +560,104 @@ public interface Config extends DataHandler, Reloadable {
 		return getMap().get(key, UUID.class);
 	}
 
+	@Nullable
+	default UUID getUUID(@NotNull KeyPath key) {
+		return getMap().get(key, UUID.class);
+	}
+
 	@NotNull
 	default UUID getUUID(@NotNull String key, @NotNull UUID def) {
 		final UUID uuid = getUUID(key);
 		return uuid == null ? def : uuid;
 	}
 
+	@NotNull
+	default UUID getUUID(@NotNull KeyPath key, @NotNull UUID def) {
+		final UUID uuid = getUUID(key);
+		return uuid == null ? def : uuid;
+	}
+
 	@Nullable
 	default List<UUID> getUUIDs(@NotNull String key) {
 		return getMap().getList(key, UUID.class);
 	}
 
+	@Nullable
+	default List<UUID> getUUIDs(@NotNull KeyPath key) {
+		return getMap().getList(key, UUID.class);
+	}
+
 	@NotNull
 	default List<UUID> getUUIDs(@NotNull String key, @NotNull List<UUID> def) {
 		final List<UUID> lst = getUUIDs(key);
 		return lst == null ? def : lst;
 	}
+
+	@NotNull
+	default List<UUID> getUUIDs(@NotNull KeyPath key, @NotNull List<UUID> def) {
+		final List<UUID> lst = getUUIDs(key);
+		return lst == null ? def : lst;
+	}
+
+	// - Primitive arrays - //
+
+	@Nullable
+	default int[] getIntArray(@NotNull String key) {
+		return getMap().getIntArray(key);
+	}
+
+	@Nullable
+	default int[] getIntArray(@NotNull KeyPath key) {
+		return getMap().getIntArray(key);
+	}
+
+	default int[] getIntArray(@NotNull String key, int[] def) {
+		final int[] arr = getIntArray(key);
+		return arr == null ? def : arr;
+	}
+
+	default int[] getIntArray(@NotNull KeyPath key, int[] def) {
+		final int[] arr = getIntArray(key);
+		return arr == null ? def : arr;
+	}
+
+	@Nullable
+	default long[] getLongArray(@NotNull String key) {
+		return getMap().getLongArray(key);
+	}
+
+	@Nullable
+	default long[] getLongArray(@NotNull KeyPath key) {
+		return getMap().getLongArray(key);
+	}
+
+	default long[] getLongArray(@NotNull String key, long[] def) {
+		final long[] arr = getLongArray(key);
+		return arr == null ? def : arr;
+	}
+
+	default long[] getLongArray(@NotNull KeyPath key, long[] def) {
+		final long[] arr = getLongArray(key);
+		return arr == null ? def : arr;
+	}
+
+	@Nullable
+	default double[] getDoubleArray(@NotNull String key) {
+		return getMap().getDoubleArray(key);
+	}
+
+	@Nullable
+	default double[] getDoubleArray(@NotNull KeyPath key) {
+		return getMap().getDoubleArray(key);
+	}
+
+	default double[] getDoubleArray(@NotNull String key, double[] def) {
+		final double[] arr = getDoubleArray(key);
+		return arr == null ? def : arr;
+	}
+
+	default double[] getDoubleArray(@NotNull KeyPath key, double[] def) {
+		final double[] arr = getDoubleArray(key);
+		return arr == null ? def : arr;
+	}
 }
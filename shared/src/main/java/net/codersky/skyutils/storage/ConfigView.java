@@ -0,0 +1,126 @@
+package net.codersky.skyutils.storage;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * A typed view of a {@link Config}, meant for values read on hot paths. Instead of
+ * looking values up on every read, a binder function reads every value once, usually
+ * into an immutable object with final primitive fields, such as a record:
+ * <pre>{@code
+ * record Settings(int maxHomes, double speed, String prefix) {}
+ *
+ * ConfigView<Settings> settings = ConfigView.of(config, cfg -> new Settings(
+ *         cfg.getInt("homes.max", 5),
+ *         cfg.getDouble("movement.speed", 1.0),
+ *         cfg.getString("prefix", "")));
+ *
+ * int maxHomes = settings.get().maxHomes(); // No map lookups nor allocations
+ * }</pre>
+ * The bound object is only rebuilt when the {@link DataMap#getContentVersion() content}
+ * of the {@link Config} changes, for example, when it is reloaded or modified, the next time
+ * {@link #get()} is called. Otherwise, {@link #get()} just returns the same object, which is
+ * swapped atomically once rebuilt, so other threads never see a partially bound object.
+ *
+ * @param <T> The type of the bound object.
+ *
+ * @since SkyUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+public final class ConfigView<T> {
+
+	private final Config config;
+	private final Function<? super Config, ? extends T> binder;
+	private volatile Bound<T> bound;
+
+	private ConfigView(@NotNull Config config, @NotNull Function<? super Config, ? extends T> binder) {
+		this.config = Objects.requireNonNull(config, "Config cannot be null");
+		this.binder = Objects.requireNonNull(binder, "Binder cannot be null");
+		this.bound = bind();
+	}
+
+	/**
+	 * Creates a new {@link ConfigView}, binding {@code config} right away.
+	 *
+	 * @param config The {@link Config} to view.
+	 * @param binder The function that reads the values of {@code config} into
+	 * the bound object. It may be called from any thread that calls {@link #get()},
+	 * so it shouldn't have side effects.
+	 *
+	 * @return A new {@link ConfigView}.
+	 *
+	 * @param <T> The type of the bound object.
+	 *
+	 * @throws NullPointerException if any parameter is {@code null}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public static <T> ConfigView<T> of(@NotNull Config config, @NotNull Function<? super Config, ? extends T> binder) {
+		return new ConfigView<>(config, binder);
+	}
+
+	/**
+	 * Gets the bound object, rebuilding it first if the content
+	 * of the {@link Config} changed since it was last bound.
+	 *
+	 * @return The bound object.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public T get() {
+		final Bound<T> current = bound;
+		if (current.version == config.getMap().getContentVersion())
+			return current.value;
+		final Bound<T> updated = bind();
+		bound = updated;
+		return updated.value;
+	}
+
+	/**
+	 * Rebuilds the bound object, even if the content of the {@link Config} didn't change.
+	 * This is only required if lists of the {@link Config} were modified directly.
+	 *
+	 * @return The new bound object.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public T refresh() {
+		final Bound<T> updated = bind();
+		bound = updated;
+		return updated.value;
+	}
+
+	/**
+	 * Gets the {@link Config} this {@link ConfigView} is bound to.
+	 *
+	 * @return The {@link Config} this {@link ConfigView} is bound to.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public Config getConfig() {
+		return config;
+	}
+
+	@NotNull
+	private Bound<T> bind() {
+		// The version is read first, a change made while binding will just cause another bind.
+		final long version = config.getMap().getContentVersion();
+		return new Bound<>(binder.apply(config), version);
+	}
+
+	private static final class Bound<T> {
+
+		private final T value;
+		private final long version;
+
+		private Bound(T value, long version) {
+			this.value = value;
+			this.version = version;
+		}
+	}
+}
@@ -1,36 +1,129 @@
 package net.codersky.skyutils.storage;
 
+import net.codersky.skyutils.java.SkyCollections;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Collections;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongConsumer;
+import java.util.function.Predicate;
+
+/**
+ * The map used by any {@link DataHandler} to store its data, supporting
+ * nested keys (Such as "a.b.c") if created with nesting enabled.
+ * <p>
+ * <b>Concurrent mode</b>
+ * <p>
+ * By default, a {@link DataMap} isn't thread safe. Concurrent {@link DataMap DataMaps}
+ * can be read from any thread without locking, as every modification copies the maps
+ * it affects and then publishes the new root map atomically. This means that readers
+ * always see a consistent state of the whole map, and that a {@link #snapshot() snapshot}
+ * can be saved from another thread while the map keeps being modified. The cost of this is
+ * that every modification copies the root map and every nested map on its path, so
+ * concurrent mode is intended for maps that are read far more often than they are written.
+ *
+ * @since SkyUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
 public class DataMap {
 
-	private boolean isModified = false;
 	private final boolean useNesting;
-	private final LinkedHashMap<String, Object> map = new LinkedHashMap<>();
+	private final boolean concurrent;
+	/** The root map. On concurrent maps, published maps, nested ones included, are never modified. */
+	private final AtomicReference<LinkedHashMap<String, Object>> map = new AtomicReference<>(new LinkedHashMap<>());
+	/** Modification count of concurrent maps, non-concurrent ones use {@link #localModifications}. */
+	private final AtomicLong modifications = new AtomicLong();
+	/** Modification count of non-concurrent maps, so their setters don't pay for atomic operations. */
+	private long localModifications;
+	private final AtomicLong saved = new AtomicLong();
+	/** Keys modified since the last save, with the version of their latest modification. {@code null} on non-concurrent maps. */
+	private final ConcurrentHashMap<String, Long> dirtyKeys;
+	/**
+	 * Keys modified since the last save on non-concurrent maps, {@code null} on concurrent ones.
+	 * These don't have versions, so they are only cleared once every modification has been saved.
+	 */
+	private final HashSet<String> localDirtyKeys;
+	/** Version of the latest modification that isn't tracked by key, such as {@link #edit(Predicate)}. */
+	private final AtomicLong untracked = new AtomicLong();
+	/** Amount of times the content has been {@link #reset(Map) replaced}, which isn't a modification. */
+	private final AtomicLong resets = new AtomicLong();
+	/**
+	 * Held on concurrent maps while publishing a modification together with its
+	 * version and tracking, and while taking a {@link #snapshot()}, so a snapshot
+	 * never includes a modification without its dirty keys. Reads never take it.
+	 */
+	private final Object writeLock = new Object();
 
 	public DataMap(boolean useNesting) {
+		this(useNesting, false);
+	}
+
+	/**
+	 * Creates a new {@link DataMap}.
+	 *
+	 * @param useNesting Whether to treat '.' characters on keys as
+	 * separators of nested maps or not.
+	 * @param concurrent Whether this {@link DataMap} can be safely accessed
+	 * from multiple threads or not. Details about this can be found
+	 * {@link DataMap here}, under the "<b>Concurrent mode</b>" section.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public DataMap(boolean useNesting, boolean concurrent) {
 		this.useNesting = useNesting;
+		this.concurrent = concurrent;
+		this.dirtyKeys = concurrent ? new ConcurrentHashMap<>() : null;
+		this.localDirtyKeys = concurrent ? null : new HashSet<>();
 	}
 
+	/**
+	 * Gets the internal root map of this {@link DataMap}. On
+	 * {@link #isConcurrent() concurrent} maps, this is the current
+	 * snapshot of the map, which <b>must not</b> be modified.
+	 *
+	 * @return The internal root map of this {@link DataMap}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
 	@NotNull
 	@ApiStatus.Internal
 	public HashMap<String, Object> getInternalMap() {
-		return map;
+		return map.get();
 	}
 
 	public boolean usesNesting() {
 		return useNesting;
 	}
 
+	/**
+	 * Checks whether this {@link DataMap} can be safely accessed from
+	 * multiple threads or not. Details about this can be found
+	 * {@link DataMap here}, under the "<b>Concurrent mode</b>" section.
+	 *
+	 * @return {@code true} if this {@link DataMap} is concurrent, {@code false} otherwise.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	/*
+	 * Modification status
+	 */
+
 	/**
 	 * Checks whether this {@link DataMap} has been modified
 	 * and thus its content may require to be saved or not.
@@ -48,7 +141,11 @@ public class DataMap {
 	 * @see #setModified(boolean)
 	 */
 	public boolean isModified() {
-		return isModified;
+		return modificationCount() != saved.get();
+	}
+
+	private long modificationCount() {
+		return concurrent ? modifications.get() : localModifications;
 	}
 
 	/**
@@ -60,6 +157,10 @@ public class DataMap {
 	 * are successfully called and actually modifies the map, though
 	 * it is not checked if the previously stored object is the exact
 	 * same as the new one for performance reasons.
+	 * <p>
+	 * Classes that save a {@link #snapshot() snapshot} of the map should use
+	 * {@link #markSaved(long)} instead, so modifications made while saving
+	 * aren't lost.
 	 *
 	 * @param modified the new modification status.
 	 *
@@ -71,7 +172,230 @@ public class DataMap {
 	 */
 	@NotNull
 	public DataMap setModified(boolean modified) {
-		this.isModified = modified;
+		if (modified) {
+			if (!concurrent)
+				untracked.set(++localModifications);
+			else synchronized (writeLock) {
+				untracked.accumulateAndGet(modifications.incrementAndGet(), Math::max);
+			}
+		} else
+			markSaved(modificationCount());
+		return this;
+	}
+
+	/**
+	 * Marks every modification up to the specified {@link Snapshot#getVersion() version}
+	 * as saved. The {@link DataMap} will still be {@link #isModified() modified} if it has
+	 * been modified after the {@link Snapshot} of said version was taken.
+	 *
+	 * @param version The {@link Snapshot#getVersion() version} of the saved {@link Snapshot}.
+	 *
+	 * @return This {@link DataMap}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 *
+	 * @see #snapshot()
+	 */
+	@NotNull
+	public DataMap markSaved(long version) {
+		saved.accumulateAndGet(version, Math::max);
+		if (concurrent)
+			dirtyKeys.values().removeIf(keyVersion -> keyVersion <= version);
+		else if (version >= localModifications)
+			localDirtyKeys.clear();
+		return this;
+	}
+
+	/**
+	 * Gets the keys that have been modified or removed since the last time this {@link DataMap}
+	 * was {@link #markSaved(long) saved}. Keys are returned as they were given to setters,
+	 * so nested keys are included as "a.b.c". Some modifications, such as {@link #edit(Predicate)},
+	 * aren't tracked by key, which can be checked with {@link #hasUntrackedChanges()}.
+	 * On non-concurrent maps, keys saved by a partial save may still be returned until
+	 * every modification has been saved.
+	 *
+	 * @return An immutable copy of the keys modified since the last save.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public Set<String> getDirtyKeys() {
+		if (!concurrent)
+			return Set.copyOf(localDirtyKeys);
+		final long savedVersion = saved.get();
+		final Set<String> dirty = new HashSet<>();
+		dirtyKeys.forEach((key, keyVersion) -> {
+			if (keyVersion > savedVersion)
+				dirty.add(key);
+		});
+		return Collections.unmodifiableSet(dirty);
+	}
+
+	/**
+	 * Checks if this {@link DataMap} has been modified since the last time it was
+	 * {@link #markSaved(long) saved} in a way that isn't tracked by {@link #getDirtyKeys() key},
+	 * meaning that only saving the dirty keys isn't enough to save the whole map.
+	 *
+	 * @return {@code true} if there are unsaved changes that aren't tracked by key.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public boolean hasUntrackedChanges() {
+		return untracked.get() > saved.get();
+	}
+
+	/**
+	 * Gets the content version of this {@link DataMap}, which changes every time its content
+	 * changes, either by a modification or by being {@link #reset(Map) reset}, as done on reloads.
+	 * This allows caching values obtained from the map until its content changes, as
+	 * {@link ConfigView} does. Lists modified directly don't change the content version.
+	 *
+	 * @return The content version of this {@link DataMap}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public long getContentVersion() {
+		// Both only increase, so their sum changes whenever either does.
+		return modificationCount() + resets.get();
+	}
+
+	/**
+	 * Takes a {@link Snapshot} of the current content of this {@link DataMap}, so it
+	 * can be saved, then {@link #markSaved(long) marked} as saved. On {@link #isConcurrent()
+	 * concurrent} maps, the {@link Snapshot} is immutable and can be used from any thread,
+	 * otherwise, it's just a read-only view of the map that changes alongside it.
+	 *
+	 * @return A {@link Snapshot} of the current content of this {@link DataMap}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public Snapshot snapshot() {
+		if (!concurrent)
+			return new Snapshot(Collections.unmodifiableMap(map.get()), localModifications, Set.copyOf(localDirtyKeys), hasUntrackedChanges());
+		synchronized (writeLock) {
+			final long version = modifications.get();
+			final Set<String> dirty = new HashSet<>(dirtyKeys.keySet());
+			return new Snapshot(Collections.unmodifiableMap(map.get()), version, Collections.unmodifiableSet(dirty), hasUntrackedChanges());
+		}
+	}
+
+	/*
+	 * Writing
+	 */
+
+	/**
+	 * Applies a modification to the root map. On concurrent maps, the modification
+	 * is applied to a copy of the root map, which is then published, retrying if
+	 * another thread published a different root map meanwhile.
+	 * <p>
+	 * The new root map is published under the {@link #writeLock}, along with its
+	 * version and the {@code tracker} call that records what it modified, so a
+	 * {@link #snapshot()} never sees the modification without its tracking.
+	 * Non-concurrent maps are modified directly, without locking.
+	 *
+	 * @param tracker Records the modification with its version, such as
+	 * {@link #markDirty(String, long) marking} the modified keys as dirty.
+	 *
+	 * @return Whether {@code writer} modified the map or not.
+	 */
+	private boolean write(@NotNull Predicate<Map<String, Object>> writer, @NotNull LongConsumer tracker) {
+		if (!concurrent) {
+			if (!writer.test(map.get()))
+				return false;
+			tracker.accept(++localModifications);
+			return true;
+		}
+		while (true) {
+			final LinkedHashMap<String, Object> current = map.get();
+			final LinkedHashMap<String, Object> updated = new LinkedHashMap<>(current);
+			if (!writer.test(updated))
+				return false;
+			synchronized (writeLock) {
+				if (map.get() == current) {
+					map.set(updated);
+					tracker.accept(modifications.incrementAndGet());
+					return true;
+				}
+			}
+		}
+	}
+
+	private void markDirty(@NotNull String key, long version) {
+		if (concurrent)
+			dirtyKeys.merge(key, version, Math::max);
+		else
+			localDirtyKeys.add(key);
+	}
+
+	/**
+	 * Edits the root map of this {@link DataMap} directly, marking the map as
+	 * {@link #isModified() modified} if {@code editor} returns {@code true}.
+	 * <p>
+	 * On {@link #isConcurrent() concurrent} maps, {@code editor} receives a copy
+	 * of the root map, which is published once {@code editor} returns {@code true}.
+	 * As {@code editor} may be called again if another thread modifies the map
+	 * meanwhile, it shouldn't have side effects, nor modify nested maps or lists,
+	 * which are shared with previous snapshots.
+	 *
+	 * @param editor The {@link Predicate} that edits the root map, returning
+	 * {@code true} if the map was modified, {@code false} otherwise.
+	 *
+	 * @return Whether the map was modified or not.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@ApiStatus.Internal
+	public boolean edit(@NotNull Predicate<Map<String, Object>> editor) {
+		return write(editor, version -> untracked.accumulateAndGet(version, Math::max));
+	}
+
+	/**
+	 * Replaces the whole content of this {@link DataMap}, as done when loading
+	 * it. This doesn't change the {@link #isModified() modification} status.
+	 * {@link List Lists} on the root map are stored the same way {@link #setList(String, List)} does.
+	 *
+	 * @param content The new content of this {@link DataMap}.
+	 *
+	 * @return This {@link DataMap}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public DataMap reset(@NotNull Map<String, ?> content) {
+		final LinkedHashMap<String, Object> loaded = new LinkedHashMap<>(content.size());
+		for (Map.Entry<String, ?> entry : content.entrySet())
+			loaded.put(entry.getKey(), entry.getValue() instanceof List<?> lst ? toStoredList(lst) : entry.getValue());
+		synchronized (writeLock) {
+			map.set(loaded);
+			resets.incrementAndGet();
+		}
+		return this;
+	}
+
+	/**
+	 * Adds every entry of {@code content} to the root map of this {@link DataMap},
+	 * without splitting nested keys, marking the map as {@link #isModified() modified}.
+	 * {@link List Lists} are stored the same way {@link #setList(String, List)} does.
+	 *
+	 * @param content The content to add.
+	 *
+	 * @return This {@link DataMap}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public DataMap putAll(@NotNull Map<String, ?> content) {
+		if (content.isEmpty())
+			return this;
+		write(root -> {
+			for (Map.Entry<String, ?> entry : content.entrySet())
+				root.put(entry.getKey(), entry.getValue() instanceof List<?> lst ? toStoredList(lst) : entry.getValue());
+			return true;
+		}, version -> {
+			for (String key : content.keySet())
+				markDirty(key, version);
+		});
 		return this;
 	}
 
@@ -79,26 +403,37 @@ public class DataMap {
 	 * Nesting utilities
 	 */
 
-	private String getActualKey(@NotNull String key) {
-		final int lastSeparator = useNesting ? key.lastIndexOf('.') : -1;
-		return lastSeparator == -1 ? key : key.substring(lastSeparator + 1);
+	/**
+	 * Gets the map that contains the specified key, {@code null} if it doesn't exist and {@code create} is {@code false}.
+	 */
+	@Nullable
+	private Map<String, Object> getActualMap(@NotNull Map<String, Object> root, @NotNull KeyPath key, boolean create) {
+		return !useNesting || key.parents == null ? root : getNestedMap(root, key.parents, create);
 	}
 
-	private Map<String, Object> getActualMap(@NotNull String key, boolean create) {
-		final int lastSeparator = useNesting ? key.lastIndexOf('.') : -1;
-		return lastSeparator == -1 ? this.map : getNestedMap(key.substring(0, lastSeparator), create);
+	@NotNull
+	private String getActualKey(@NotNull KeyPath key) {
+		return useNesting ? key.name : key.getPath();
 	}
 
+	/**
+	 * Gets a nested map. When {@code create} is {@code true}, the map is about to be modified,
+	 * so on concurrent maps every nested map on its path is copied, as published maps are shared.
+	 */
 	@Nullable
 	@SuppressWarnings("unchecked")
-	private Map<String, Object> getNestedMap(@NotNull String key, boolean create) {
-		final String[] keys = key.split("\\.");
-		Map<String, Object> last = this.map;
+	private Map<String, Object> getNestedMap(@NotNull Map<String, Object> root, @NotNull String[] keys, boolean create) {
+		Map<String, Object> last = root;
 		for (String subKey : keys) {
 			final Object value = last.get(subKey);
-			if (value instanceof Map<?, ?> subMap)
-				last = (Map<String, Object>) subMap;
-			else if (create) {
+			if (value instanceof Map<?, ?> subMap) {
+				if (create && concurrent) {
+					final Map<String, Object> copy = new LinkedHashMap<>((Map<String, Object>) subMap);
+					last.put(subKey, copy);
+					last = copy;
+				} else
+					last = (Map<String, Object>) subMap;
+			} else if (create) {
 				final Map<String, Object> created = new LinkedHashMap<>();
 				last.put(subKey, created);
 				last = created;
@@ -108,47 +443,77 @@ public class DataMap {
 		return last;
 	}
 
+	@NotNull
+	private Map<String, Object> readable(@NotNull Map<String, Object> source) {
+		return concurrent ? Collections.unmodifiableMap(source) : source;
+	}
+
 	/*
 	 * Map access
 	 */
 
 	@NotNull
 	public DataMap clear() {
-		this.map.clear();
+		// An untracked modification, as removed keys aren't known, so storages save the whole content.
+		edit(root -> {
+			if (root.isEmpty())
+				return false;
+			root.clear();
+			return true;
+		});
 		return this;
 	}
 
 	@NotNull
 	public Set<Map.Entry<String, Object>> getEntries() {
-		return this.map.entrySet();
+		return readable(map.get()).entrySet();
 	}
 
 	@NotNull
 	public Set<Map.Entry<String, Object>> getEntries(@NotNull String key) {
-		final Map<String, Object> source = getNestedMap(key, false);
-		return source == null ? Set.of() : source.entrySet();
+		return getEntries(KeyPath.of(key));
+	}
+
+	@NotNull
+	public Set<Map.Entry<String, Object>> getEntries(@NotNull KeyPath key) {
+		final Map<String, Object> source = getNestedMap(map.get(), key.sections, false);
+		return source == null ? Set.of() : readable(source).entrySet();
 	}
 
 	@NotNull
 	public DataMap removeEntries(@NotNull String... keys) {
-		for (String key : keys) {
-			if (useNesting) {
-				final Map<String, Object> source = getActualMap(key, false);
-				if (source != null)
-					source.remove(getActualKey(key));
-			} else
-				this.map.remove(key);
-		}
+		final List<String> removedKeys = new ArrayList<>(keys.length);
+		write(root -> {
+			// May be called more than once on concurrent maps.
+			removedKeys.clear();
+			for (String key : keys) {
+				final KeyPath path = useNesting ? KeyPath.of(key) : null;
+				final Map<String, Object> source = path == null ? root : getActualMap(root, path, false);
+				final String actualKey = path == null ? key : path.name;
+				if (source == null || !source.containsKey(actualKey))
+					continue;
+				// Nested maps on the path must be copied before removing anything from them.
+				final Map<String, Object> target = source == root ? root : getActualMap(root, path, true);
+				target.remove(actualKey);
+				removedKeys.add(key);
+			}
+			return !removedKeys.isEmpty();
+		}, version -> {
+			for (String key : removedKeys)
+				markDirty(key, version);
+		});
 		return this;
 	}
 
 	public boolean containsKeys(@NotNull String... keys) {
+		final Map<String, Object> root = map.get();
 		for (String key : keys) {
 			if (useNesting) {
-				final Map<String, Object> source = getActualMap(key, false);
-				if (source == null)
+				final KeyPath path = KeyPath.of(key);
+				final Map<String, Object> source = getActualMap(root, path, false);
+				if (source == null || !source.containsKey(path.name))
 					return false;
-			} else if (!this.map.containsKey(key))
+			} else if (!root.containsKey(key))
 				return false;
 		}
 		return true;
@@ -156,13 +521,18 @@ public class DataMap {
 
 	@NotNull
 	public Set<String> getKeys() {
-		return this.map.keySet();
+		return readable(map.get()).keySet();
 	}
 
 	@NotNull
 	public Set<String> getKeys(@NotNull String parent) {
-		final Map<String, Object> source = getNestedMap(parent, false);
-		return source == null ? Set.of() : source.keySet();
+		return getKeys(KeyPath.of(parent));
+	}
+
+	@NotNull
+	public Set<String> getKeys(@NotNull KeyPath parent) {
+		final Map<String, Object> source = getNestedMap(map.get(), parent.sections, false);
+		return source == null ? Set.of() : readable(source).keySet();
 	}
 
 	/*
@@ -171,10 +541,20 @@ public class DataMap {
 
 	// - Utility - //
 
+	@Nullable
+	private Object getRaw(@NotNull String key) {
+		return useNesting ? getRaw(KeyPath.of(key)) : map.get().get(key);
+	}
+
+	@Nullable
+	private Object getRaw(@NotNull KeyPath key) {
+		final Map<String, Object> source = getActualMap(map.get(), key, false);
+		return source == null ? null : source.get(getActualKey(key));
+	}
+
 	@Nullable
 	@SuppressWarnings("unchecked")
-	private <T> T getFromMap(@NotNull Map<?, ?> source, @NotNull String key, @NotNull Class<T> type) {
-		final Object obj = source.get(key);
+	private <T> T cast(@Nullable Object obj, @NotNull Class<T> type) {
 		return obj != null && type.isAssignableFrom(obj.getClass()) ? (T) obj : null;
 	}
 
@@ -182,9 +562,12 @@ public class DataMap {
 
 	@Nullable
 	public <T> T get(@NotNull String key, @NotNull Class<T> type) {
-		final String actualKey = getActualKey(key);
-		final Map<String, Object> source = getActualMap(key, false);
-		return source == null ? null : getFromMap(source, actualKey, type);
+		return cast(getRaw(key), type);
+	}
+
+	@Nullable
+	public <T> T get(@NotNull KeyPath key, @NotNull Class<T> type) {
+		return cast(getRaw(key), type);
 	}
 
 	@NotNull
@@ -194,17 +577,85 @@ public class DataMap {
 		return value == null ? def : (T) value;
 	}
 
+	@NotNull
+	@SuppressWarnings("unchecked")
+	public <T> T get(@NotNull KeyPath key, T def) {
+		final Object value = get(key, def.getClass());
+		return value == null ? def : (T) value;
+	}
+
+	// - Primitives - //
+
+	public int getInt(@NotNull String key, int def) {
+		return getRaw(key) instanceof Integer i ? i : def;
+	}
+
+	public int getInt(@NotNull KeyPath key, int def) {
+		return getRaw(key) instanceof Integer i ? i : def;
+	}
+
+	public long getLong(@NotNull String key, long def) {
+		return getRaw(key) instanceof Long l ? l : def;
+	}
+
+	public long getLong(@NotNull KeyPath key, long def) {
+		return getRaw(key) instanceof Long l ? l : def;
+	}
+
+	public float getFloat(@NotNull String key, float def) {
+		return getRaw(key) instanceof Float f ? f : def;
+	}
+
+	public float getFloat(@NotNull KeyPath key, float def) {
+		return getRaw(key) instanceof Float f ? f : def;
+	}
+
+	public double getDouble(@NotNull String key, double def) {
+		return getRaw(key) instanceof Double d ? d : def;
+	}
+
+	public double getDouble(@NotNull KeyPath key, double def) {
+		return getRaw(key) instanceof Double d ? d : def;
+	}
+
+	public boolean getBoolean(@NotNull String key, boolean def) {
+		return getRaw(key) instanceof Boolean b ? b : def;
+	}
+
+	public boolean getBoolean(@NotNull KeyPath key, boolean def) {
+		return getRaw(key) instanceof Boolean b ? b : def;
+	}
+
 	// - Lists - //
 
 	@Nullable
-	@SuppressWarnings("unchecked")
 	public <T> List<T> getList(@NotNull String key, @NotNull Class<T> type) {
-		final Object obj = get(key, List.class);
+		return asList(getRaw(key), type);
+	}
+
+	@Nullable
+	public <T> List<T> getList(@NotNull KeyPath key, @NotNull Class<T> type) {
+		return asList(getRaw(key), type);
+	}
+
+	@Nullable
+	@SuppressWarnings("unchecked")
+	private <T> List<T> asList(@Nullable Object obj, @NotNull Class<T> type) {
+		if (obj instanceof TypedList<?> lst)
+			return lst.isOf(type) ? (List<T>) lst : null;
+		// Lists that weren't added with setList, such as the ones loaded from YAML files.
 		if (obj instanceof List<?> lst) {
 			if (lst.isEmpty())
 				return List.of();
 			return lst.getFirst().getClass().equals(type) ? (List<T>) lst : null;
 		}
+		// Primitive arrays are only stored by the array setters, storages load them back as arrays. These lists are copies.
+		if (obj instanceof int[] arr)
+			return type == Integer.class ? (List<T>) SkyCollections.asIntList(arr) : null;
+		if (obj instanceof long[] arr)
+			return type == Long.class ? (List<T>) SkyCollections.asLongList(arr) : null;
+		if (obj instanceof double[] arr)
+			return type == Double.class ? (List<T>) SkyCollections.asDoubleList(arr) : null;
 		return null;
 	}
 
@@ -216,36 +667,357 @@ public class DataMap {
 		return lst == null ? def : lst;
 	}
 
+	// - Primitive arrays - //
+
+	/**
+	 * Gets an {@code int} array from this {@link DataMap}. Arrays stored with
+	 * {@link #setIntArray(String, int[])} are returned as is, without copying nor
+	 * boxing them, so the returned array <b>must not</b> be modified. Lists of
+	 * {@link Integer Integers}, such as the ones loaded from a file, are converted.
+	 *
+	 * @param key The key to get the array from.
+	 *
+	 * @return The stored array, or {@code null} if {@code key} doesn't exist
+	 * or doesn't contain an {@code int} array nor a {@link List} of {@link Integer Integers}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@Nullable
+	public int[] getIntArray(@NotNull String key) {
+		return toIntArray(getRaw(key));
+	}
+
+	/**
+	 * Gets an {@code int} array from this {@link DataMap}. Arrays stored with
+	 * {@link #setIntArray(String, int[])} are returned as is, without copying nor
+	 * boxing them, so the returned array <b>must not</b> be modified. Lists of
+	 * {@link Integer Integers}, such as the ones loaded from a file, are converted.
+	 *
+	 * @param key The {@link KeyPath} to get the array from.
+	 *
+	 * @return The stored array, or {@code null} if {@code key} doesn't exist
+	 * or doesn't contain an {@code int} array nor a {@link List} of {@link Integer Integers}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@Nullable
+	public int[] getIntArray(@NotNull KeyPath key) {
+		return toIntArray(getRaw(key));
+	}
+
+	@Nullable
+	private static int[] toIntArray(@Nullable Object obj) {
+		if (obj instanceof int[] arr)
+			return arr;
+		if (!(obj instanceof List<?> lst))
+			return null;
+		final int[] arr = new int[lst.size()];
+		int i = 0;
+		for (Object element : lst) {
+			if (!(element instanceof Integer value))
+				return null;
+			arr[i++] = value;
+		}
+		return arr;
+	}
+
+	/**
+	 * Gets a {@code long} array from this {@link DataMap}. Arrays stored with
+	 * {@link #setLongArray(String, long[])} are returned as is, without copying nor
+	 * boxing them, so the returned array <b>must not</b> be modified. Lists of
+	 * {@link Long Longs}, such as the ones loaded from a file, are converted.
+	 *
+	 * @param key The key to get the array from.
+	 *
+	 * @return The stored array, or {@code null} if {@code key} doesn't exist
+	 * or doesn't contain a {@code long} array nor a {@link List} of {@link Long Longs}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@Nullable
+	public long[] getLongArray(@NotNull String key) {
+		return toLongArray(getRaw(key));
+	}
+
+	/**
+	 * Gets a {@code long} array from this {@link DataMap}. Arrays stored with
+	 * {@link #setLongArray(String, long[])} are returned as is, without copying nor
+	 * boxing them, so the returned array <b>must not</b> be modified. Lists of
+	 * {@link Long Longs}, such as the ones loaded from a file, are converted.
+	 *
+	 * @param key The {@link KeyPath} to get the array from.
+	 *
+	 * @return The stored array, or {@code null} if {@code key} doesn't exist
+	 * or doesn't contain a {@code long} array nor a {@link List} of {@link Long Longs}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@Nullable
+	public long[] getLongArray(@NotNull KeyPath key) {
+		return toLongArray(getRaw(key));
+	}
+
+	@Nullable
+	private static long[] toLongArray(@Nullable Object obj) {
+		if (obj instanceof long[] arr)
+			return arr;
+		if (!(obj instanceof List<?> lst))
+			return null;
+		final long[] arr = new long[lst.size()];
+		int i = 0;
+		for (Object element : lst) {
+			if (!(element instanceof Long value))
+				return null;
+			arr[i++] = value;
+		}
+		return arr;
+	}
+
+	/**
+	 * Gets a {@code double} array from this {@link DataMap}. Arrays stored with
+	 * {@link #setDoubleArray(String, double[])} are returned as is, without copying nor
+	 * boxing them, so the returned array <b>must not</b> be modified. Lists of
+	 * {@link Double Doubles}, such as the ones loaded from a file, are converted.
+	 *
+	 * @param key The key to get the array from.
+	 *
+	 * @return The stored array, or {@code null} if {@code key} doesn't exist
+	 * or doesn't contain a {@code double} array nor a {@link List} of {@link Double Doubles}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@Nullable
+	public double[] getDoubleArray(@NotNull String key) {
+		return toDoubleArray(getRaw(key));
+	}
+
+	/**
+	 * Gets a {@code double} array from this {@link DataMap}. Arrays stored with
+	 * {@link #setDoubleArray(String, double[])} are returned as is, without copying nor
+	 * boxing them, so the returned array <b>must not</b> be modified. Lists of
+	 * {@link Double Doubles}, such as the ones loaded from a file, are converted.
+	 *
+	 * @param key The {@link KeyPath} to get the array from.
+	 *
+	 * @return The stored array, or {@code null} if {@code key} doesn't exist
+	 * or doesn't contain a {@code double} array nor a {@link List} of {@link Double Doubles}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@Nullable
+	public double[] getDoubleArray(@NotNull KeyPath key) {
+		return toDoubleArray(getRaw(key));
+	}
+
+	@Nullable
+	private static double[] toDoubleArray(@Nullable Object obj) {
+		if (obj instanceof double[] arr)
+			return arr;
+		if (!(obj instanceof List<?> lst))
+			return null;
+		final double[] arr = new double[lst.size()];
+		int i = 0;
+		for (Object element : lst) {
+			if (!(element instanceof Double value))
+				return null;
+			arr[i++] = value;
+		}
+		return arr;
+	}
+
 	/*
 	 * Setters
 	 */
 
+	private void put(@NotNull String key, @Nullable String[] parents, @NotNull String name, @NotNull Object value) {
+		if (!concurrent) {
+			// The hot path of every setter, so it skips write and its lambdas.
+			final Map<String, Object> root = map.get();
+			(parents == null ? root : getNestedMap(root, parents, true)).put(name, value);
+			localModifications++;
+			localDirtyKeys.add(key);
+			return;
+		}
+		write(root -> {
+			(parents == null ? root : getNestedMap(root, parents, true)).put(name, value);
+			return true;
+		}, version -> markDirty(key, version));
+	}
+
+	private void put(@NotNull KeyPath key, @NotNull Object value) {
+		if (useNesting)
+			put(key.getPath(), key.parents, key.name, value);
+		else
+			put(key.getPath(), null, key.getPath(), value);
+	}
+
 	@NotNull
 	public <T> T set(@NotNull String key, @NotNull T value) {
-		if (value instanceof List<?>) {
-			setList(key, (List<?>) value);
-			return value;
-		}
-		final String actualKey = getActualKey(key);
-		final Map<String, Object> source = getActualMap(key, true);
-		if (source != null) {
-			isModified = true;
-			source.put(actualKey, value);
-		}
+		if (useNesting)
+			return set(KeyPath.of(key), value);
+		if (value instanceof List<?> lst)
+			put(key, null, key, toStoredList(lst));
+		else
+			put(key, null, key, value);
+		return value;
+	}
+
+	@NotNull
+	public <T> T set(@NotNull KeyPath key, @NotNull T value) {
+		put(key, value instanceof List<?> lst ? toStoredList(lst) : value);
 		return value;
 	}
 
 	@NotNull
 	public <T> List<T> setList(@NotNull String key, @NotNull List<T> value) {
-		final String actualKey = getActualKey(key);
-		final Map<String, Object> source = getActualMap(key, true);
-		if (source == null)
-			return value;
-		isModified = true;
-		if (value instanceof LinkedList<T> lst)
-			source.put(actualKey, lst);
-		else
-			source.put(actualKey, new LinkedList<>(value));
+		return set(key, value);
+	}
+
+	@NotNull
+	public <T> List<T> setList(@NotNull KeyPath key, @NotNull List<T> value) {
+		return set(key, value);
+	}
+
+	/**
+	 * Stores a copy of an {@code int} array on this {@link DataMap}. Unlike
+	 * {@link List lists} of {@link Integer Integers}, the array is stored without
+	 * boxing its values, which can be retrieved with {@link #getIntArray(String)}
+	 * or as a boxed copy with {@link #getList(String, Class)}. Storages save and load
+	 * it back as an array, while lists stored with {@link #setList(String, List)} stay lists.
+	 *
+	 * @param key The key to store the array at.
+	 * @param value The array to store.
+	 *
+	 * @return {@code value}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public int[] setIntArray(@NotNull String key, @NotNull int[] value) {
+		set(key, value.clone());
 		return value;
 	}
+
+	/**
+	 * Stores a copy of a {@code long} array on this {@link DataMap}. Unlike
+	 * {@link List lists} of {@link Long Longs}, the array is stored without
+	 * boxing its values, which can be retrieved with {@link #getLongArray(String)}
+	 * or as a boxed copy with {@link #getList(String, Class)}. Storages save and load
+	 * it back as an array, while lists stored with {@link #setList(String, List)} stay lists.
+	 *
+	 * @param key The key to store the array at.
+	 * @param value The array to store.
+	 *
+	 * @return {@code value}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public long[] setLongArray(@NotNull String key, @NotNull long[] value) {
+		set(key, value.clone());
+		return value;
+	}
+
+	/**
+	 * Stores a copy of a {@code double} array on this {@link DataMap}. Unlike
+	 * {@link List lists} of {@link Double Doubles}, the array is stored without
+	 * boxing its values, which can be retrieved with {@link #getDoubleArray(String)}
+	 * or as a boxed copy with {@link #getList(String, Class)}. Storages save and load
+	 * it back as an array, while lists stored with {@link #setList(String, List)} stay lists.
+	 *
+	 * @param key The key to store the array at.
+	 * @param value The array to store.
+	 *
+	 * @return {@code value}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public double[] setDoubleArray(@NotNull String key, @NotNull double[] value) {
+		set(key, value.clone());
+		return value;
+	}
+
+	@NotNull
+	private <T> List<T> toStoredList(@NotNull List<T> value) {
+		// Lists of concurrent maps are shared with snapshots, so they are copied and can't be modified.
+		if (concurrent)
+			return value instanceof TypedList<T> lst && lst.isImmutable() ? lst : TypedList.immutableCopyOf(value);
+		// Otherwise, mutable lists are copied too, so two keys never share the same list.
+		return value instanceof TypedList<T> lst && lst.isImmutable() ? lst : TypedList.copyOf(value);
+	}
+
+	/*
+	 * Snapshot class
+	 */
+
+	/**
+	 * A snapshot of the content of a {@link DataMap}, obtained with {@link DataMap#snapshot()}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public static final class Snapshot {
+
+		private final Map<String, Object> content;
+		private final long version;
+		private final Set<String> dirtyKeys;
+		private final boolean untrackedChanges;
+
+		private Snapshot(@NotNull Map<String, Object> content, long version, @NotNull Set<String> dirtyKeys, boolean untrackedChanges) {
+			this.content = content;
+			this.version = version;
+			this.dirtyKeys = dirtyKeys;
+			this.untrackedChanges = untrackedChanges;
+		}
+
+		/**
+		 * Gets the read-only content of this {@link Snapshot}.
+		 *
+		 * @return The read-only content of this {@link Snapshot}.
+		 *
+		 * @since SkyUtils 1.0.0
+		 */
+		@NotNull
+		public Map<String, Object> getContent() {
+			return content;
+		}
+
+		/**
+		 * Gets the version of this {@link Snapshot}, which can be given to
+		 * {@link DataMap#markSaved(long)} once its content has been saved.
+		 *
+		 * @return The version of this {@link Snapshot}.
+		 *
+		 * @since SkyUtils 1.0.0
+		 */
+		public long getVersion() {
+			return version;
+		}
+
+		/**
+		 * Gets the {@link DataMap#getDirtyKeys() dirty keys} of the {@link DataMap} up to
+		 * the {@link #getVersion() version} of this {@link Snapshot}.
+		 *
+		 * @return An immutable {@link Set} with the keys modified since the last save.
+		 *
+		 * @since SkyUtils 1.0.0
+		 */
+		@NotNull
+		public Set<String> getDirtyKeys() {
+			return dirtyKeys;
+		}
+
+		/**
+		 * Checks if the {@link DataMap} had {@link DataMap#hasUntrackedChanges() untracked changes}
+		 * when this {@link Snapshot} was taken, in which case {@link #getDirtyKeys()} may not
+		 * include every modified key.
+		 *
+		 * @return {@code true} if the {@link DataMap} had untracked changes.
+		 *
+		 * @since SkyUtils 1.0.0
+		 */
+		public boolean hasUntrackedChanges() {
+			return untrackedChanges;
+		}
+	}
 }
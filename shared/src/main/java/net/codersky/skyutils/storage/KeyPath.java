@@ -0,0 +1,145 @@
+package net.codersky.skyutils.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An immutable, pre-parsed key of a {@link DataMap}, such as "a.b.c", split into
+ * its sections only once. Using a {@link KeyPath} instead of a {@link String} key
+ * on {@link DataMap DataMaps} or {@link Config Configs} that use nesting means
+ * that lookups don't need to split the key again.
+ * <p>
+ * {@link KeyPath KeyPaths} are obtained with {@link #of(String)}, which caches them,
+ * meaning that {@link String} keys also benefit from this, but keeping a reference
+ * to the {@link KeyPath} of keys that are used often is still faster, as the cache
+ * doesn't need to be queried:
+ * <p>
+ * {@code private static final KeyPath SPAWN_WORLD = KeyPath.of("spawn.location.world");}
+ *
+ * @since SkyUtils 1.0.0
+ *
+ * @see #of(String)
+ *
+ * @author xDec0de_
+ */
+public final class KeyPath {
+
+	/** Maximum amount of cached keys, so keys built at runtime (With player names, for example) can't fill the memory. */
+	private static final int MAX_CACHE_SIZE = 4096;
+	private static final ConcurrentHashMap<String, KeyPath> CACHE = new ConcurrentHashMap<>();
+
+	private final String path;
+	/** The last section of the key, after the last '.' character. */
+	final String name;
+	/** Sections of the key before the last '.' character, {@code null} if the key isn't nested. */
+	@Nullable
+	final String[] parents;
+	/** Every section of the key. */
+	final String[] sections;
+
+	private KeyPath(@NotNull String path) {
+		this.path = path;
+		final int lastSeparator = path.lastIndexOf('.');
+		this.name = lastSeparator == -1 ? path : path.substring(lastSeparator + 1);
+		this.parents = lastSeparator == -1 ? null : path.substring(0, lastSeparator).split("\\.");
+		this.sections = path.split("\\.");
+	}
+
+	/**
+	 * Gets the {@link KeyPath} of the specified {@code path}, parsing it only
+	 * if it hasn't been parsed before.
+	 *
+	 * @param path The key to get the {@link KeyPath} of, such as "a.b.c".
+	 *
+	 * @return The {@link KeyPath} of {@code path}.
+	 *
+	 * @throws NullPointerException if {@code path} is {@code null}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public static KeyPath of(@NotNull String path) {
+		final KeyPath cached = CACHE.get(path);
+		if (cached != null)
+			return cached;
+		final KeyPath parsed = new KeyPath(path);
+		if (CACHE.size() >= MAX_CACHE_SIZE)
+			return parsed;
+		final KeyPath previous = CACHE.putIfAbsent(path, parsed);
+		return previous == null ? parsed : previous;
+	}
+
+	/*
+	 * Getters
+	 */
+
+	/**
+	 * Gets the full key of this {@link KeyPath}, such as "a.b.c".
+	 *
+	 * @return The full key of this {@link KeyPath}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public String getPath() {
+		return path;
+	}
+
+	/**
+	 * Gets the last section of this {@link KeyPath}, for example, "c" on "a.b.c".
+	 *
+	 * @return The last section of this {@link KeyPath}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Gets every section of this {@link KeyPath}, for example, ["a", "b", "c"] on "a.b.c".
+	 *
+	 * @return An immutable {@link List} with every section of this {@link KeyPath}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public List<String> getSections() {
+		return List.of(sections);
+	}
+
+	/**
+	 * Checks whether this {@link KeyPath} is nested or not, that is,
+	 * if it contains at least one '.' character.
+	 *
+	 * @return {@code true} if this {@link KeyPath} is nested, {@code false} otherwise.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public boolean isNested() {
+		return parents != null;
+	}
+
+	/*
+	 * Object class
+	 */
+
+	@Override
+	public boolean equals(@Nullable Object obj) {
+		return obj instanceof final KeyPath other && other.path.equals(path);
+	}
+
+	@Override
+	public int hashCode() {
+		return path.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return path;
+	}
+}
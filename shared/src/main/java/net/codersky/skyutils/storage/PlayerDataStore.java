@@ -0,0 +1,521 @@
+package net.codersky.skyutils.storage;
+
+import net.codersky.skyutils.storage.files.FlatStorage;
+import net.codersky.skyutils.time.Task;
+import net.codersky.skyutils.time.TaskScheduler;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Keeps one {@link Storage} per player, identified by {@link UUID}, loading storages
+ * on async tasks and keeping a bounded amount of them loaded. Storages are kept on a
+ * least recently used cache, from which they are evicted once the cache grows larger
+ * than its maximum size, or after not being accessed for some time. Evicted storages
+ * are saved if {@link DataMap#isModified() modified}.
+ * <p>
+ * Storages of online players should be {@link #load(UUID) loaded} when they join and
+ * {@link #release(UUID) released} when they quit, which pins them to the cache while the
+ * player is online, so they are never evicted. Pins are counted, so a player that logs in
+ * again before the previous session quits keeps its storage pinned until every load is
+ * released. Storages of offline players can still be accessed with {@link #get(UUID)},
+ * which loads them if required, but aren't pinned.
+ * <p>
+ * Storages returned by this class must not be kept after being evicted, as changes made to
+ * an evicted storage may be lost. As storages are saved and loaded from other threads,
+ * they should use a {@link DataMap#isConcurrent() concurrent} {@link DataMap}.
+ * <p>
+ * Remember to {@link #stop() stop} the store and {@link #flushNow() flush} any pending
+ * change when the plugin is disabled.
+ *
+ * @param <S> The type of {@link Storage} used.
+ *
+ * @since SkyUtils 1.0.0
+ *
+ * @author xDec0de_
+ *
+ * @see #flat(File, TaskScheduler, int, int)
+ */
+public class PlayerDataStore<S extends Storage> {
+
+	private final TaskScheduler scheduler;
+	private final Function<UUID, S> factory;
+	private final int maxSize;
+	private final int idleTime;
+	/** Loaded storages, on access order. Guarded by this. */
+	private final LinkedHashMap<UUID, Cached<S>> cache = new LinkedHashMap<>(16, 0.75f, true);
+	/** Storages being loaded. Guarded by this. */
+	private final HashMap<UUID, Loading<S>> loading = new HashMap<>();
+	/** Evicted storages that are still being saved, reused if loaded again. Guarded by this. */
+	private final HashMap<UUID, S> flushing = new HashMap<>();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	@Nullable
+	private Task task;
+
+	/**
+	 * Creates a new {@link PlayerDataStore}. Idle storages aren't evicted until the store is {@link #start() started}.
+	 *
+	 * @param scheduler The {@link TaskScheduler} used to load, save and evict storages.
+	 * @param maxSize The maximum amount of loaded storages. Storages of online
+	 * players are never evicted, so this may be exceeded if many players are online.
+	 * @param idleTime The amount of seconds a storage that isn't pinned can go without
+	 * being accessed before being evicted, zero to only evict storages based on {@code maxSize}.
+	 * @param factory The function that creates the storage of a player. The storage doesn't need
+	 * to be {@link Storage#setup() set up} nor {@link Storage#reload() loaded}, as that is done
+	 * by this store.
+	 *
+	 * @throws NullPointerException if {@code scheduler} or {@code factory} are {@code null}.
+	 * @throws IllegalArgumentException if {@code maxSize} is lower than one or {@code idleTime} is negative.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public PlayerDataStore(@NotNull TaskScheduler scheduler, int maxSize, int idleTime, @NotNull Function<UUID, S> factory) {
+		this.scheduler = Objects.requireNonNull(scheduler, "Scheduler cannot be null");
+		this.factory = Objects.requireNonNull(factory, "Factory cannot be null");
+		if (maxSize < 1)
+			throw new IllegalArgumentException("Max size must be at least one");
+		if (idleTime < 0)
+			throw new IllegalArgumentException("Idle time cannot be negative");
+		this.maxSize = maxSize;
+		this.idleTime = idleTime;
+	}
+
+	/**
+	 * Creates a new {@link PlayerDataStore} of concurrent {@link FlatStorage FlatStorages},
+	 * stored on {@link #getShardedFile(File, UUID, String) sharded} files inside {@code folder}.
+	 *
+	 * @param folder The folder to store the files on.
+	 * @param scheduler The {@link TaskScheduler} used to load, save and evict storages.
+	 * @param maxSize The maximum amount of loaded storages.
+	 * @param idleTime The amount of seconds a storage can go without being accessed before being evicted.
+	 *
+	 * @return A new {@link PlayerDataStore}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 *
+	 * @see #PlayerDataStore(TaskScheduler, int, int, Function)
+	 */
+	@NotNull
+	public static PlayerDataStore<FlatStorage> flat(@NotNull File folder, @NotNull TaskScheduler scheduler, int maxSize, int idleTime) {
+		return new PlayerDataStore<>(scheduler, maxSize, idleTime, uuid -> new FlatStorage(getShardedFile(folder, uuid, ".mcufs"), true));
+	}
+
+	/**
+	 * Gets the file of a player inside a sub-folder named after the first two characters of
+	 * its {@link UUID}, such as "folder/f4/f4a1...mcufs", so files are split on up to 256
+	 * sub-folders instead of having a single folder with thousands of files.
+	 *
+	 * @param folder The folder that contains the sub-folders.
+	 * @param uuid The {@link UUID} of the player.
+	 * @param extension The extension of the file, including the dot.
+	 *
+	 * @return The file of the player.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public static File getShardedFile(@NotNull File folder, @NotNull UUID uuid, @NotNull String extension) {
+		final String name = uuid.toString();
+		return new File(new File(folder, name.substring(0, 2)), name + extension);
+	}
+
+	/*
+	 * Access
+	 */
+
+	/**
+	 * Loads the storage of an online player on an async task, pinning it to
+	 * the cache until the player is {@link #release(UUID) released}. This is
+	 * intended to be called when a player joins, before accessing the storage.
+	 *
+	 * @param uuid The {@link UUID} of the player.
+	 *
+	 * @return A {@link CompletableFuture} completed with the storage once loaded, right away
+	 * if it is already loaded, or exceptionally if the storage couldn't be loaded.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public CompletableFuture<S> load(@NotNull UUID uuid) {
+		return access(uuid, true, true);
+	}
+
+	/**
+	 * Loads the storage of an online player on the current thread, pinning it to the
+	 * cache until the player is {@link #release(UUID) released}, just like {@link #load(UUID)}
+	 * does. This is intended for threads that can wait for the storage to load, such as
+	 * the async pre-login thread of the server.
+	 *
+	 * @param uuid The {@link UUID} of the player.
+	 *
+	 * @return The storage of the player.
+	 *
+	 * @throws java.util.concurrent.CompletionException if the storage couldn't be loaded.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public S loadNow(@NotNull UUID uuid) {
+		return access(uuid, true, false).join();
+	}
+
+	/**
+	 * Gets the storage of a player, loading it on the current thread if it isn't loaded.
+	 * The storage isn't pinned, so it may be evicted at any time.
+	 *
+	 * @param uuid The {@link UUID} of the player.
+	 *
+	 * @return The storage of the player.
+	 *
+	 * @throws java.util.concurrent.CompletionException if the storage couldn't be loaded.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public S get(@NotNull UUID uuid) {
+		return access(uuid, false, false).join();
+	}
+
+	/**
+	 * Gets the storage of a player if it is already loaded.
+	 *
+	 * @param uuid The {@link UUID} of the player.
+	 *
+	 * @return The storage of the player, {@code null} if it isn't loaded.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@Nullable
+	public S getIfLoaded(@NotNull UUID uuid) {
+		final Cached<S> entry;
+		synchronized (this) {
+			entry = cache.get(uuid);
+		}
+		if (entry == null) {
+			misses.increment();
+			return null;
+		}
+		hits.increment();
+		entry.lastAccess = System.nanoTime();
+		return entry.storage;
+	}
+
+	/**
+	 * Releases the storage of a player that quit, so it can be evicted again once every
+	 * {@link #load(UUID) load} of it has been released, and starts saving it on an async
+	 * task if modified. This is intended to be called when a player quits.
+	 *
+	 * @param uuid The {@link UUID} of the player.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public void release(@NotNull UUID uuid) {
+		final Cached<S> entry;
+		synchronized (this) {
+			final Loading<S> pending = loading.get(uuid);
+			if (pending != null && pending.pins > 0)
+				pending.pins--;
+			entry = cache.get(uuid);
+			if (entry == null)
+				return;
+			if (entry.pins > 0)
+				entry.pins--;
+			entry.lastAccess = System.nanoTime();
+			evictOverflow();
+		}
+		if (entry.storage.getMap().isModified())
+			scheduler.runAsync(() -> save(entry.storage));
+	}
+
+	private CompletableFuture<S> access(@NotNull UUID uuid, boolean pin, boolean async) {
+		final Loading<S> load;
+		synchronized (this) {
+			final Cached<S> entry = cache.get(uuid);
+			if (entry != null) {
+				hits.increment();
+				entry.lastAccess = System.nanoTime();
+				if (pin)
+					entry.pins++;
+				return CompletableFuture.completedFuture(entry.storage);
+			}
+			misses.increment();
+			final Loading<S> pending = loading.get(uuid);
+			if (pending != null) {
+				if (pin)
+					pending.pins++;
+				return pending.future;
+			}
+			final S evicted = flushing.remove(uuid);
+			if (evicted != null) // Evicted but not saved yet, its content is newer than the file.
+				return CompletableFuture.completedFuture(insert(uuid, evicted, pin ? 1 : 0));
+			load = new Loading<>(pin ? 1 : 0);
+			loading.put(uuid, load);
+		}
+		if (async)
+			scheduler.runAsync(() -> open(uuid, load));
+		else
+			open(uuid, load);
+		return load.future;
+	}
+
+	private void open(@NotNull UUID uuid, @NotNull Loading<S> load) {
+		try {
+			final S storage = factory.apply(uuid);
+			if (!storage.setup() || !storage.reload())
+				throw new IllegalStateException("Failed to load the storage of " + uuid);
+			synchronized (this) {
+				loading.remove(uuid);
+				insert(uuid, storage, load.pins);
+			}
+			load.future.complete(storage);
+		} catch (Throwable e) {
+			synchronized (this) {
+				loading.remove(uuid);
+			}
+			load.future.completeExceptionally(e);
+		}
+	}
+
+	/*
+	 * Eviction
+	 */
+
+	/** Must be called while holding the lock of this store. */
+	private S insert(@NotNull UUID uuid, @NotNull S storage, int pins) {
+		final Cached<S> entry = new Cached<>(storage, pins);
+		cache.put(uuid, entry);
+		evictOverflow();
+		return storage;
+	}
+
+	/** Must be called while holding the lock of this store. */
+	private void evictOverflow() {
+		final Iterator<Map.Entry<UUID, Cached<S>>> iterator = cache.entrySet().iterator();
+		// Iteration goes from least to most recently used.
+		while (cache.size() > maxSize && iterator.hasNext()) {
+			final Map.Entry<UUID, Cached<S>> entry = iterator.next();
+			if (entry.getValue().pins == 0) {
+				iterator.remove();
+				evict(entry.getKey(), entry.getValue().storage);
+			}
+		}
+	}
+
+	/** Must be called while holding the lock of this store. */
+	private void evict(@NotNull UUID uuid, @NotNull S storage) {
+		evictions.increment();
+		if (!storage.getMap().isModified())
+			return;
+		flushing.put(uuid, storage);
+		scheduler.runAsync(() -> {
+			save(storage);
+			synchronized (this) {
+				flushing.remove(uuid, storage);
+			}
+		});
+	}
+
+	/**
+	 * Evicts every storage that isn't pinned and hasn't been accessed for longer than the
+	 * idle time of this store. This is done periodically once the store is {@link #start() started}.
+	 *
+	 * @return The amount of evicted storages.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public int evictIdle() {
+		if (idleTime == 0)
+			return 0;
+		final long limit = System.nanoTime() - TimeUnit.SECONDS.toNanos(idleTime);
+		int evicted = 0;
+		synchronized (this) {
+			final Iterator<Map.Entry<UUID, Cached<S>>> iterator = cache.entrySet().iterator();
+			while (iterator.hasNext()) {
+				final Map.Entry<UUID, Cached<S>> entry = iterator.next();
+				final Cached<S> value = entry.getValue();
+				if (value.pins == 0 && value.lastAccess - limit < 0) {
+					iterator.remove();
+					evict(entry.getKey(), value.storage);
+					evicted++;
+				}
+			}
+		}
+		return evicted;
+	}
+
+	/**
+	 * Starts evicting idle storages periodically, doing nothing if already started or if
+	 * this store has no idle time. Idle storages are checked every {@code idleTime} seconds,
+	 * up to once per minute, so storages may stay loaded for longer than {@code idleTime}.
+	 *
+	 * @return This {@link PlayerDataStore}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public synchronized PlayerDataStore<S> start() {
+		if (task == null && idleTime != 0) {
+			final int interval = Math.min(idleTime, 60);
+			task = scheduler.repeatAsync(this::evictIdle, TimeUnit.SECONDS, interval, interval);
+		}
+		return this;
+	}
+
+	/**
+	 * Stops the periodic eviction of idle storages. Storages aren't saved, use {@link #flushNow()} for that.
+	 *
+	 * @return This {@link PlayerDataStore}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public synchronized PlayerDataStore<S> stop() {
+		if (task != null) {
+			task.cancel();
+			task = null;
+		}
+		return this;
+	}
+
+	/**
+	 * Saves every modified storage on the current thread, including evicted
+	 * storages that are still being saved, intended to be used once the store
+	 * is {@link #stop() stopped}, for example, when the plugin is disabled.
+	 *
+	 * @return {@code true} if every modified storage saved correctly.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public boolean flushNow() {
+		final List<S> storages = new ArrayList<>();
+		synchronized (this) {
+			for (Cached<S> entry : cache.values())
+				storages.add(entry.storage);
+			storages.addAll(flushing.values());
+		}
+		boolean success = true;
+		for (S storage : storages)
+			if (storage.getMap().isModified() && !save(storage))
+				success = false;
+		return success;
+	}
+
+	private boolean save(@NotNull S storage) {
+		try {
+			return storage.save();
+		} catch (RuntimeException e) {
+			e.printStackTrace();
+			return false;
+		}
+	}
+
+	/*
+	 * Metrics
+	 */
+
+	/**
+	 * Gets the amount of loaded storages.
+	 *
+	 * @return The amount of loaded storages.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public synchronized int getSize() {
+		return cache.size();
+	}
+
+	/**
+	 * Gets the amount of times a storage was accessed while loaded.
+	 *
+	 * @return The amount of cache hits.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * Gets the amount of times a storage was accessed while not loaded,
+	 * which includes accesses to storages that were still being loaded.
+	 *
+	 * @return The amount of cache misses.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * Gets the amount of storages evicted, either by size or by idle time.
+	 *
+	 * @return The amount of evictions.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	/**
+	 * Gets the ratio of {@link #getHits() hits} over every access.
+	 *
+	 * @return The hit rate, from zero to one, one if no storage was accessed yet.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public double getHitRate() {
+		final long hitCount = hits.sum();
+		final long total = hitCount + misses.sum();
+		return total == 0 ? 1 : (double) hitCount / total;
+	}
+
+	@Override
+	public String toString() {
+		return "PlayerDataStore{size=" + getSize() + ", hits=" + getHits() + ", misses=" + getMisses() + ", evictions=" + getEvictions() + "}";
+	}
+
+	/*
+	 * Cache classes
+	 */
+
+	private static final class Cached<S> {
+
+		private final S storage;
+		private volatile long lastAccess = System.nanoTime();
+		/** Amount of unreleased loads. Guarded by the lock of the store. */
+		private int pins;
+
+		private Cached(@NotNull S storage, int pins) {
+			this.storage = storage;
+			this.pins = pins;
+		}
+	}
+
+	private static final class Loading<S> {
+
+		private final CompletableFuture<S> future = new CompletableFuture<>();
+		/** Amount of unreleased loads. Guarded by the lock of the store. */
+		private int pins;
+
+		private Loading(int pins) {
+			this.pins = pins;
+		}
+	}
+}
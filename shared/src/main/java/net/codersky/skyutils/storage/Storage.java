@@ -50,7 +50,21 @@ public abstract class Storage implements Config {
 	private final DataMap map;
 
 	public Storage(boolean useNesting) {
-		this.map = new DataMap(useNesting);
+		this(useNesting, false);
+	}
+
+	/**
+	 * Creates a new {@link Storage}.
+	 *
+	 * @param useNesting Whether to treat '.' characters on keys as
+	 * separators of nested keys or not.
+	 * @param concurrent Whether the {@link DataMap} of this {@link Storage} can be safely
+	 * accessed from multiple threads or not, read {@link DataMap} for more information.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public Storage(boolean useNesting, boolean concurrent) {
+		this.map = new DataMap(useNesting, concurrent);
 	}
 
 	@NotNull
@@ -132,22 +146,43 @@ public abstract class Storage implements Config {
 		return getMap().get(key, Byte.class);
 	}
 
+	@Nullable
+	public Byte getByte(@NotNull KeyPath key) {
+		return getMap().get(key, Byte.class);
+	}
+
 	public byte getByte(@NotNull String key, byte def) {
 		final Byte b = getByte(key);
 		return b == null ? def : b;
 	}
 
+	public byte getByte(@NotNull KeyPath key, byte def) {
+		final Byte b = getByte(key);
+		return b == null ? def : b;
+	}
+
 	@Nullable
 	public List<Byte> getBytes(@NotNull String key) {
 		return getMap().getList(key, Byte.class);
 	}
 
+	@Nullable
+	public List<Byte> getBytes(@NotNull KeyPath key) {
+		return getMap().getList(key, Byte.class);
+	}
+
 	@NotNull
 	public List<Byte> getBytes(@NotNull String key, @NotNull List<Byte> def) {
 		final List<Byte> lst = getBytes(key);
 		return lst == null ? def : lst;
 	}
 
+	@NotNull
+	public List<Byte> getBytes(@NotNull KeyPath key, @NotNull List<Byte> def) {
+		final List<Byte> lst = getBytes(key);
+		return lst == null ? def : lst;
+	}
+
 	// - Shorts - //
 
 	@Nullable
@@ -155,22 +190,43 @@ public abstract class Storage implements Config {
 		return getMap().get(key, Short.class);
 	}
 
+	@Nullable
+	public Short getShort(@NotNull KeyPath key) {
+		return getMap().get(key, Short.class);
+	}
+
 	public short getShort(@NotNull String key, short def) {
 		final Short s = getShort(key);
 		return s == null ? def : s;
 	}
 
+	public short getShort(@NotNull KeyPath key, short def) {
+		final Short s = getShort(key);
+		return s == null ? def : s;
+	}
+
 	@Nullable
 	public List<Short> getShorts(@NotNull String key) {
 		return getMap().getList(key, Short.class);
 	}
 
+	@Nullable
+	public List<Short> getShorts(@NotNull KeyPath key) {
+		return getMap().getList(key, Short.class);
+	}
+
 	@NotNull
 	public List<Short> getShorts(@NotNull String key, @NotNull List<Short> def) {
 		final List<Short> lst = getShorts(key);
 		return lst == null ? def : lst;
 	}
 
+	@NotNull
+	public List<Short> getShorts(@NotNull KeyPath key, @NotNull List<Short> def) {
+		final List<Short> lst = getShorts(key);
+		return lst == null ? def : lst;
+	}
+
 	/*
 	 * Getters by conversion
 	 */
@@ -183,15 +239,28 @@ public abstract class Storage implements Config {
 		return millis == null ? null : new Date(millis);
 	}
 
+	@Nullable
+	public Date getDate(@NotNull KeyPath key) {
+		final Long millis = getLong(key);
+		return millis == null ? null : new Date(millis);
+	}
+
 	@NotNull
 	public Date getDate(@NotNull String key, @NotNull Date def) {
 		final Date date = getDate(key);
 		return date == null ? def : date;
 	}
 
+	@NotNull
+	public Date getDate(@NotNull KeyPath key, @NotNull Date def) {
+		final Date date = getDate(key);
+		return date == null ? def : date;
+	}
+
 	@Nullable
 	public List<Date> getDates(@NotNull String key) {
-		return getDates(key, null);
+		final List<Long> lst = getLongs(key);
+		return lst == null ? null : SkyCollections.map(lst, millis -> new Date(millis));
 	}
 
 	@Nullable
@@ -0,0 +1,231 @@
+package net.codersky.skyutils.storage;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Array-backed {@link java.util.List List} used by {@link DataMap DataMaps} to store lists.
+ * Unlike regular lists, a {@link TypedList} keeps track of the type of its elements while
+ * they are added, so checking the type of the list doesn't require inspecting its elements.
+ * <p>
+ * {@link TypedList TypedLists} can be {@link #isImmutable() immutable}, which is the case of
+ * lists stored on {@link DataMap#isConcurrent() concurrent} maps, as those lists are shared
+ * with snapshots of the map.
+ *
+ * @param <E> The type of elements of this list.
+ *
+ * @since SkyUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+public final class TypedList<E> extends AbstractList<E> implements RandomAccess {
+
+	private static final Object[] EMPTY = new Object[0];
+
+	private Object[] elements;
+	private int size;
+	/** The class shared by every element, {@code null} if the list is empty or {@link #mixed}. */
+	@Nullable
+	private Class<?> type;
+	/** Whether this list contains {@code null} or elements of different classes. */
+	private boolean mixed;
+	private final boolean immutable;
+
+	private TypedList(@NotNull Object[] elements, boolean immutable) {
+		// Collection.toArray may return arrays of a subtype, which can't store any element.
+		this.elements = elements.getClass() == Object[].class ? elements : Arrays.copyOf(elements, elements.length, Object[].class);
+		this.size = elements.length;
+		this.immutable = immutable;
+		for (Object element : elements)
+			track(element);
+	}
+
+	/**
+	 * Creates a new empty and mutable {@link TypedList}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public TypedList() {
+		this(EMPTY, false);
+	}
+
+	/**
+	 * Creates a mutable {@link TypedList} with the elements of the specified {@link Collection}.
+	 *
+	 * @param elements The elements to copy.
+	 *
+	 * @return A new mutable {@link TypedList} with the elements of {@code elements}.
+	 *
+	 * @param <E> The type of elements of the list.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public static <E> TypedList<E> copyOf(@NotNull Collection<? extends E> elements) {
+		return new TypedList<>(elements.toArray(), false);
+	}
+
+	/**
+	 * Creates an immutable {@link TypedList} with the elements of the specified {@link Collection}.
+	 *
+	 * @param elements The elements to copy.
+	 *
+	 * @return A new immutable {@link TypedList} with the elements of {@code elements}.
+	 *
+	 * @param <E> The type of elements of the list.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public static <E> TypedList<E> immutableCopyOf(@NotNull Collection<? extends E> elements) {
+		return new TypedList<>(elements.toArray(), true);
+	}
+
+	/*
+	 * Type tracking
+	 */
+
+	private void track(@Nullable Object element) {
+		if (mixed)
+			return;
+		if (element == null) {
+			mixed = true;
+			type = null;
+		} else if (type == null)
+			type = element.getClass();
+		else if (type != element.getClass()) {
+			mixed = true;
+			type = null;
+		}
+	}
+
+	private void retrack() {
+		type = null;
+		mixed = false;
+		for (int i = 0; i < size; i++)
+			track(elements[i]);
+	}
+
+	/**
+	 * Gets the class shared by every element of this {@link TypedList}.
+	 *
+	 * @return The class of the elements of this {@link TypedList}, {@code null} if
+	 * the list is empty, contains {@code null} or elements of different classes.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@Nullable
+	public Class<?> getElementType() {
+		return type;
+	}
+
+	/**
+	 * Checks if every element of this {@link TypedList} is of the specified class,
+	 * which is always the case for empty lists. Subclasses of {@code type} don't match.
+	 *
+	 * @param type The class to check.
+	 *
+	 * @return {@code true} if this list is empty or every element is of class {@code type}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public boolean isOf(@NotNull Class<?> type) {
+		return size == 0 || this.type == type;
+	}
+
+	/**
+	 * Checks if this {@link TypedList} is immutable, in which case any
+	 * attempt to modify it throws an {@link UnsupportedOperationException}.
+	 *
+	 * @return {@code true} if this {@link TypedList} is immutable.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public boolean isImmutable() {
+		return immutable;
+	}
+
+	/*
+	 * List implementation
+	 */
+
+	private void checkMutable() {
+		if (immutable)
+			throw new UnsupportedOperationException("Immutable list");
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public E get(int index) {
+		return (E) elements[Objects.checkIndex(index, size)];
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public E set(int index, E element) {
+		checkMutable();
+		final E previous = (E) elements[Objects.checkIndex(index, size)];
+		elements[index] = element;
+		if (size == 1 || mixed)
+			retrack();
+		else
+			track(element);
+		return previous;
+	}
+
+	@Override
+	public void add(int index, E element) {
+		checkMutable();
+		if (index < 0 || index > size)
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		if (size == elements.length)
+			elements = Arrays.copyOf(elements, Math.max(10, size + (size >> 1)));
+		System.arraycopy(elements, index, elements, index + 1, size - index);
+		elements[index] = element;
+		size++;
+		modCount++;
+		track(element);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public E remove(int index) {
+		checkMutable();
+		final E removed = (E) elements[Objects.checkIndex(index, size)];
+		System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+		elements[--size] = null;
+		modCount++;
+		if (mixed || size == 0)
+			retrack();
+		return removed;
+	}
+
+	@Override
+	protected void removeRange(int fromIndex, int toIndex) {
+		checkMutable();
+		System.arraycopy(elements, toIndex, elements, fromIndex, size - toIndex);
+		final int newSize = size - (toIndex - fromIndex);
+		Arrays.fill(elements, newSize, size, null);
+		size = newSize;
+		modCount++;
+		if (mixed || size == 0)
+			retrack();
+	}
+
+	@NotNull
+	@Override
+	public Object[] toArray() {
+		return Arrays.copyOf(elements, size);
+	}
+}
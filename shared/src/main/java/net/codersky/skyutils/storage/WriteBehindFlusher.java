@@ -0,0 +1,213 @@
+package net.codersky.skyutils.storage;
+
+import net.codersky.skyutils.time.Task;
+import net.codersky.skyutils.time.TaskScheduler;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Periodically saves every {@link #register(Config) registered} {@link Config} that
+ * has been {@link DataMap#isModified() modified}, so changes don't need to be saved
+ * right after being made. This bounds the amount of writes to disk no matter how often
+ * configs are modified, which is useful for things like per-player storage files.
+ * <p>
+ * Flushes run on async tasks of a {@link TaskScheduler}, saving up to a fixed amount of
+ * configs at the same time. A flush is skipped if the previous one is still running.
+ * As configs are saved from other threads, registered configs must use a
+ * {@link DataMap#isConcurrent() concurrent} {@link DataMap}.
+ * <p>
+ * Remember to {@link #stop() stop} the flusher and {@link #flushNow() flush} any pending
+ * change when the plugin is disabled.
+ *
+ * @since SkyUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+public class WriteBehindFlusher {
+
+	private final TaskScheduler scheduler;
+	private final int interval;
+	private final int maxConcurrentSaves;
+	private final Set<Config> configs = ConcurrentHashMap.newKeySet();
+	private final AtomicBoolean flushing = new AtomicBoolean(false);
+	@Nullable
+	private Task task;
+
+	/**
+	 * Creates a new {@link WriteBehindFlusher}, which won't flush anything until {@link #start() started}.
+	 *
+	 * @param scheduler The {@link TaskScheduler} used to run flushes.
+	 * @param interval The amount of seconds between flushes.
+	 * @param maxConcurrentSaves The maximum amount of configs saved at the same time.
+	 *
+	 * @throws NullPointerException if {@code scheduler} is {@code null}.
+	 * @throws IllegalArgumentException if {@code interval} or {@code maxConcurrentSaves} are lower than one.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public WriteBehindFlusher(@NotNull TaskScheduler scheduler, int interval, int maxConcurrentSaves) {
+		this.scheduler = Objects.requireNonNull(scheduler, "Scheduler cannot be null");
+		if (interval < 1)
+			throw new IllegalArgumentException("Interval must be at least one second");
+		if (maxConcurrentSaves < 1)
+			throw new IllegalArgumentException("Max concurrent saves must be at least one");
+		this.interval = interval;
+		this.maxConcurrentSaves = maxConcurrentSaves;
+	}
+
+	/*
+	 * Registration
+	 */
+
+	/**
+	 * Registers a {@link Config} to this {@link WriteBehindFlusher}, so it gets saved on every
+	 * flush if modified. Registering a {@link Config} more than once has no effect.
+	 *
+	 * @param config The {@link Config} to register.
+	 *
+	 * @return {@code config}, for convenience.
+	 *
+	 * @param <C> The type of {@link Config}.
+	 *
+	 * @throws NullPointerException if {@code config} is {@code null}.
+	 * @throws IllegalArgumentException if {@code config} doesn't use a
+	 * {@link DataMap#isConcurrent() concurrent} {@link DataMap}, as saving
+	 * it from another thread while it's modified isn't safe.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public <C extends Config> C register(@NotNull C config) {
+		Objects.requireNonNull(config, "Config cannot be null");
+		if (!config.getMap().isConcurrent())
+			throw new IllegalArgumentException("Config must use a concurrent DataMap");
+		configs.add(config);
+		return config;
+	}
+
+	/**
+	 * Unregisters a {@link Config} from this {@link WriteBehindFlusher}. This
+	 * doesn't save the {@link Config}, so it should be saved if modified.
+	 *
+	 * @param config The {@link Config} to unregister.
+	 *
+	 * @return {@code true} if {@code config} was registered, {@code false} otherwise.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public boolean unregister(@NotNull Config config) {
+		return configs.remove(config);
+	}
+
+	/*
+	 * Flushing
+	 */
+
+	/**
+	 * Starts flushing every {@code interval} seconds, doing nothing if already started.
+	 *
+	 * @return This {@link WriteBehindFlusher}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public synchronized WriteBehindFlusher start() {
+		if (task == null)
+			task = scheduler.repeatAsync(this::flush, TimeUnit.SECONDS, interval, interval);
+		return this;
+	}
+
+	/**
+	 * Stops periodic flushes. A flush that is already running isn't interrupted.
+	 *
+	 * @return This {@link WriteBehindFlusher}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public synchronized WriteBehindFlusher stop() {
+		if (task != null) {
+			task.cancel();
+			task = null;
+		}
+		return this;
+	}
+
+	/**
+	 * Starts a flush of every modified {@link Config}, unless a flush is already running.
+	 * The modified configs are saved on up to {@code maxConcurrentSaves} async tasks.
+	 *
+	 * @return {@code true} if a flush was started, {@code false} if one was already running.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public boolean flush() {
+		if (!flushing.compareAndSet(false, true))
+			return false;
+		final Queue<Config> dirty = new ConcurrentLinkedQueue<>();
+		for (Config config : configs)
+			if (config.getMap().isModified())
+				dirty.add(config);
+		final int workers = Math.min(maxConcurrentSaves, dirty.size());
+		if (workers == 0) {
+			flushing.set(false);
+			return true;
+		}
+		final AtomicInteger running = new AtomicInteger(workers);
+		for (int i = 0; i < workers; i++) {
+			try {
+				scheduler.runAsync(() -> {
+					try {
+						Config config;
+						while ((config = dirty.poll()) != null)
+							save(config);
+					} finally {
+						if (running.decrementAndGet() == 0)
+							flushing.set(false);
+					}
+				});
+			} catch (RuntimeException e) {
+				// Workers that weren't submitted will never finish, so future flushes aren't blocked forever.
+				if (running.addAndGet(i - workers) == 0)
+					flushing.set(false);
+				throw e;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Saves every modified {@link Config} on the current thread, intended
+	 * to be used once the flusher is {@link #stop() stopped}, for example,
+	 * when the plugin is disabled.
+	 *
+	 * @return {@code true} if every modified {@link Config} saved correctly.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public boolean flushNow() {
+		boolean success = true;
+		for (Config config : configs)
+			if (config.getMap().isModified() && !save(config))
+				success = false;
+		return success;
+	}
+
+	private boolean save(@NotNull Config config) {
+		try {
+			return config.save();
+		} catch (RuntimeException e) {
+			e.printStackTrace();
+			return false;
+		}
+	}
+}
@@ -0,0 +1,314 @@
+package net.codersky.skyutils.storage.files;
+
+import net.codersky.skyutils.storage.Config;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Service used to save {@link Config configs} outside the thread that requests the save,
+ * shared by every {@link Config} through {@link Config#saveAsync()}.
+ * <p>
+ * Saves are coalesced: requesting a save of a {@link Config} that already has a save
+ * waiting to run returns the {@link CompletableFuture} of that save instead of scheduling
+ * another one. As the data to save is only read once the save runs, the pending save
+ * already includes any change made before it starts.
+ * <p>
+ * This class also provides {@link #writeAtomically(File, WriteAction)}, used by file based
+ * configs to save their files, so a crash while saving never leaves a half written file.
+ *
+ * @since SkyUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+public final class AsyncSaver {
+
+	private static volatile AsyncSaver defaultSaver;
+	/** Notified of every file written by {@link #writeAtomically(File, WriteAction)}, so {@link ConfigWatcher} can ignore them. */
+	static final List<Consumer<Path>> writeListeners = new CopyOnWriteArrayList<>();
+
+	private final ExecutorService executor;
+	private final ConcurrentHashMap<Object, CompletableFuture<Boolean>> pending = new ConcurrentHashMap<>();
+	/** Saves that are waiting or running, used by {@link #flush(long, TimeUnit)}. */
+	private final Set<CompletableFuture<Boolean>> scheduled = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Creates a new {@link AsyncSaver} that runs saves on the specified {@link ExecutorService}.
+	 *
+	 * @param executor The {@link ExecutorService} to run saves on.
+	 *
+	 * @throws NullPointerException if {@code executor} is {@code null}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public AsyncSaver(@NotNull ExecutorService executor) {
+		this.executor = Objects.requireNonNull(executor, "Executor cannot be null");
+	}
+
+	/**
+	 * Gets the default {@link AsyncSaver}, used by {@link Config#saveAsync()},
+	 * which runs saves one after another on a single daemon thread.
+	 * <p>
+	 * As the thread is a daemon, saves still scheduled when the plugin is disabled are lost
+	 * unless {@link #shutdownDefault(long, TimeUnit)} is called from {@code onDisable}. A new
+	 * default {@link AsyncSaver} is created if this method is called after that.
+	 *
+	 * @return The default {@link AsyncSaver}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public static AsyncSaver getDefault() {
+		AsyncSaver saver = defaultSaver;
+		if (saver == null || saver.executor.isShutdown()) {
+			synchronized (AsyncSaver.class) {
+				saver = defaultSaver;
+				if (saver == null || saver.executor.isShutdown())
+					defaultSaver = saver = new AsyncSaver(Executors.newSingleThreadExecutor(task -> {
+						final Thread thread = new Thread(task, "SkyUtils AsyncSaver");
+						thread.setDaemon(true);
+						return thread;
+					}));
+			}
+		}
+		return saver;
+	}
+
+	/**
+	 * Waits for every save scheduled on the {@link #getDefault() default} {@link AsyncSaver}
+	 * to finish and then shuts it down, stopping its thread. This should be called from the
+	 * {@code onDisable} method of plugins, so no save is lost and no thread is left behind
+	 * when the plugin is disabled or reloaded. Calling {@link #getDefault()} afterwards
+	 * creates a new default {@link AsyncSaver}.
+	 *
+	 * @param timeout The maximum time to wait.
+	 * @param unit The {@link TimeUnit} of {@code timeout}.
+	 *
+	 * @return {@code true} if every save finished, {@code false} if the timeout elapsed first.
+	 *
+	 * @throws InterruptedException if interrupted while waiting.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public static boolean shutdownDefault(long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+		final AsyncSaver saver;
+		synchronized (AsyncSaver.class) {
+			saver = defaultSaver;
+			defaultSaver = null;
+		}
+		return saver == null || saver.shutdown(timeout, unit);
+	}
+
+	/*
+	 * Saving
+	 */
+
+	/**
+	 * Schedules a {@link Config#save() save} of the specified {@link Config}. If
+	 * {@code config} already has a save waiting to run, no new save is scheduled.
+	 * <p>
+	 * The save runs on another thread, so unless the {@link Config} uses a
+	 * {@link net.codersky.skyutils.storage.DataMap#isConcurrent() concurrent} map,
+	 * it must not be modified until the returned {@link CompletableFuture} completes.
+	 *
+	 * @param config The {@link Config} to save.
+	 *
+	 * @return A {@link CompletableFuture} completed with the result of {@link Config#save()}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public CompletableFuture<Boolean> save(@NotNull Config config) {
+		return submit(config, config::save);
+	}
+
+	/**
+	 * Schedules a save task identified by {@code key}. If a task with the
+	 * same {@code key} is waiting to run, its {@link CompletableFuture} is
+	 * returned and {@code task} is ignored.
+	 *
+	 * @param key The key identifying what {@code task} saves, usually the saved object itself.
+	 * @param task The task to run, returning whether the save succeeded or not.
+	 *
+	 * @return A {@link CompletableFuture} completed with the result of the save, or
+	 * exceptionally if the task throws or this {@link AsyncSaver} has been shut down.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public CompletableFuture<Boolean> submit(@NotNull Object key, @NotNull BooleanSupplier task) {
+		final CompletableFuture<Boolean> future = new CompletableFuture<>();
+		final CompletableFuture<Boolean> existing = pending.putIfAbsent(key, future);
+		if (existing != null)
+			return existing;
+		scheduled.add(future);
+		future.whenComplete((result, error) -> scheduled.remove(future));
+		try {
+			executor.execute(() -> {
+				// Saves requested from now on may include changes this save won't see.
+				pending.remove(key, future);
+				try {
+					future.complete(task.getAsBoolean());
+				} catch (Throwable t) {
+					future.completeExceptionally(t);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			pending.remove(key, future);
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+
+	/**
+	 * Waits for every scheduled save to finish, including saves scheduled while waiting,
+	 * such as the ones scheduled by other saves. Unlike {@link #shutdown(long, TimeUnit)},
+	 * this {@link AsyncSaver} keeps accepting saves.
+	 *
+	 * @param timeout The maximum time to wait.
+	 * @param unit The {@link TimeUnit} of {@code timeout}.
+	 *
+	 * @return {@code true} if every save finished, {@code false} if the timeout elapsed first.
+	 *
+	 * @throws InterruptedException if interrupted while waiting.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public boolean flush(long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+		final long deadline = System.nanoTime() + unit.toNanos(timeout);
+		while (true) {
+			scheduled.removeIf(CompletableFuture::isDone);
+			if (scheduled.isEmpty())
+				return true;
+			final long remaining = deadline - System.nanoTime();
+			if (remaining <= 0)
+				return false;
+			try {
+				CompletableFuture.allOf(scheduled.toArray(new CompletableFuture<?>[0])).get(remaining, TimeUnit.NANOSECONDS);
+			} catch (ExecutionException ignored) {
+				// Failed saves are reported through their own future.
+			} catch (TimeoutException e) {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Waits for the scheduled saves to finish, just like {@link #flush(long, TimeUnit)},
+	 * and then stops accepting new saves.
+	 *
+	 * @param timeout The maximum time to wait.
+	 * @param unit The {@link TimeUnit} of {@code timeout}.
+	 *
+	 * @return {@code true} if every save finished, {@code false} if the timeout elapsed first.
+	 *
+	 * @throws InterruptedException if interrupted while waiting.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public boolean shutdown(long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+		final long deadline = System.nanoTime() + unit.toNanos(timeout);
+		final boolean flushed = flush(timeout, unit);
+		executor.shutdown();
+		return executor.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS) && flushed;
+	}
+
+	/*
+	 * Atomic writing
+	 */
+
+	/**
+	 * Writes a {@link File} atomically. The content is written to a temporary file on the
+	 * same directory through a buffered channel, forced to the storage device, and then the
+	 * temporary file is moved over {@code target}, forcing the directory afterwards so the move
+	 * itself is durable. This way, {@code target} either keeps its previous content or has the new
+	 * one, even if the process crashes while writing. Any missing parent directory of {@code target}
+	 * is created.
+	 *
+	 * @param target The {@link File} to write.
+	 * @param action The action that writes the content of the file.
+	 *
+	 * @throws IOException if an I/O error occurs, {@code target} is left untouched in that case.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public static void writeAtomically(@NotNull File target, @NotNull WriteAction action) throws IOException {
+		final Path path = target.toPath().toAbsolutePath();
+		final Path dir = path.getParent();
+		Files.createDirectories(dir);
+		// Not created with Files.createTempFile, as it restricts file permissions to the owner.
+		final Path temp = dir.resolve(path.getFileName() + "." + Long.toHexString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+		try {
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+					OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel))) {
+				action.write(out);
+				out.flush();
+				channel.force(true);
+			}
+			try {
+				Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+			}
+			forceDirectory(dir);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+		for (Consumer<Path> listener : writeListeners)
+			listener.accept(path.normalize());
+	}
+
+	/** Forces the entries of a directory to the storage device, so a rename on it survives a crash. */
+	private static void forceDirectory(@NotNull Path dir) {
+		try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+			channel.force(true);
+		} catch (IOException ignored) {
+			// Directories can't be opened on some platforms, such as Windows, the rename is left to the file system there.
+		}
+	}
+
+	/**
+	 * Writes the content of a file for {@link #writeAtomically(File, WriteAction)}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@FunctionalInterface
+	public interface WriteAction {
+
+		/**
+		 * Writes the content of the file.
+		 *
+		 * @param out The buffered {@link OutputStream} to write to, which must not be closed.
+		 *
+		 * @throws IOException if an I/O error occurs.
+		 *
+		 * @since SkyUtils 1.0.0
+		 */
+		void write(@NotNull OutputStream out) throws IOException;
+	}
+}
@@ -0,0 +1,434 @@
+package net.codersky.skyutils.storage.files;
+
+import net.codersky.skyutils.StagedReloadable;
+import net.codersky.skyutils.java.SkyFiles;
+import net.codersky.skyutils.storage.DataMap;
+import net.codersky.skyutils.storage.Storage;
+import net.codersky.skyutils.storage.TypedList;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Binary variant of {@link FlatStorage}, using the ".mcufb" extension. It supports
+ * the same data types, but values are stored as raw little-endian primitives
+ * and length-prefixed UTF-8 strings, so loading a file doesn't require parsing
+ * any text. Files are read at once through a {@link FileChannel}.
+ * <p>
+ * <b>Format</b>
+ * <p>
+ * Files start with the "MCUF" magic bytes followed by a format version byte. After that,
+ * every entry consists of its key, as an unsigned short length followed by its UTF-8 bytes,
+ * a type tag (The same characters {@link FlatStorage} uses) and the value. Lists use the
+ * '*' tag, followed by the type tag of their elements, an int with their size and the
+ * elements themselves. {@code int}, {@code long} and {@code double} arrays use the same format,
+ * with the '[' tag instead, so they are loaded back as arrays. Strings are stored as an int
+ * length followed by their UTF-8 bytes.
+ * <p>
+ * Existing {@link FlatStorage} files can be converted with {@link #convert(FlatStorage, File)}.
+ *
+ * @author xDec0de_
+ *
+ * @since SkyUtils 1.0.0
+ */
+public class BinaryFlatStorage extends Storage implements StagedReloadable {
+
+	private static final byte[] MAGIC = {'M', 'C', 'U', 'F'};
+	private static final byte VERSION = 1;
+
+	private final File file;
+
+	/**
+	 * Creates a new {@link BinaryFlatStorage} for the specified {@link File}.
+	 *
+	 * @param file The {@link File} to use, which must have the ".mcufb" extension.
+	 * @param concurrent Whether the {@link DataMap} of this {@link BinaryFlatStorage} can be safely
+	 * accessed from multiple threads or not, read {@link DataMap} for more information.
+	 *
+	 * @throws IllegalArgumentException if {@code file} doesn't have the ".mcufb" extension.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public BinaryFlatStorage(@NotNull File file, boolean concurrent) {
+		super(false, concurrent);
+		if (!file.getName().endsWith(".mcufb"))
+			throw new IllegalArgumentException("BinaryFlatStorage only accepts files with the \".mcufb\" extension.");
+		this.file = file;
+	}
+
+	public BinaryFlatStorage(@NotNull File file) {
+		this(file, false);
+	}
+
+	public BinaryFlatStorage(@NotNull String path, boolean concurrent) {
+		super(false, concurrent);
+		this.file = new File(path.endsWith(".mcufb") ? path : path + ".mcufb");
+	}
+
+	public BinaryFlatStorage(@NotNull String path) {
+		this(path, false);
+	}
+
+	/**
+	 * Converts a text {@link FlatStorage} to a {@link BinaryFlatStorage}. The
+	 * {@code source} is {@link FlatStorage#reload() reloaded}, then its content
+	 * is saved to {@code target}. The {@code source} file is not deleted.
+	 *
+	 * @param source The {@link FlatStorage} to convert.
+	 * @param target The ".mcufb" {@link File} to save the converted content to.
+	 *
+	 * @return The converted {@link BinaryFlatStorage}, {@code null} if
+	 * {@code source} couldn't be loaded or {@code target} couldn't be saved.
+	 *
+	 * @throws IllegalArgumentException if {@code target} doesn't have the ".mcufb" extension.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@Nullable
+	public static BinaryFlatStorage convert(@NotNull FlatStorage source, @NotNull File target) {
+		final BinaryFlatStorage converted = new BinaryFlatStorage(target);
+		if (!source.reload())
+			return null;
+		converted.getMap().putAll(source.getMap().getInternalMap());
+		return converted.save() ? converted : null;
+	}
+
+	/*
+	 * Utility
+	 */
+
+	public boolean setup() {
+		return file.exists() || SkyFiles.create(file);
+	}
+
+	@NotNull
+	public final File asFile() {
+		return file;
+	}
+
+	public final boolean exists() {
+		return file.exists();
+	}
+
+	/*
+	 * Saving
+	 */
+
+	/**
+	 * Saves this {@link BinaryFlatStorage} to its {@link File}. The file is written
+	 * {@link AsyncSaver#writeAtomically(File, AsyncSaver.WriteAction) atomically},
+	 * and saves of the same instance never run at the same time.
+	 *
+	 * @return {@code true} if this {@link BinaryFlatStorage} saved correctly, {@code false} otherwise.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@Override
+	public synchronized boolean save() {
+		if (!getMap().isModified())
+			return true;
+		int errors = 0;
+		final DataMap.Snapshot snapshot = getMap().snapshot();
+		final Output out = new Output();
+		out.ensure(MAGIC.length + 1);
+		out.buffer.put(MAGIC).put(VERSION);
+		for (Entry<String, Object> entry : snapshot.getContent().entrySet()) {
+			final int start = out.buffer.position();
+			if (!writeEntry(out, entry.getKey(), entry.getValue())) {
+				out.buffer.position(start);
+				errors++;
+			}
+		}
+		try {
+			AsyncSaver.writeAtomically(file, stream -> stream.write(out.buffer.array(), 0, out.buffer.position()));
+		} catch (IOException e) {
+			e.printStackTrace();
+			return false;
+		}
+		if (errors != 0)
+			System.err.println("Failed to save " + file.getPath() + " because of " + errors + " error(s) shown above.");
+		else
+			getMap().markSaved(snapshot.getVersion());
+		return errors == 0;
+	}
+
+	private boolean writeEntry(@NotNull Output out, @NotNull String key, @NotNull Object value) {
+		final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+		if (keyBytes.length > 0xFFFF) {
+			System.err.println("Key \"" + key.substring(0, 32) + "...\" is too long");
+			return false;
+		}
+		// Empty lists are skipped, as their type is unknown.
+		if ((value instanceof List<?> lst && lst.isEmpty()) || isEmptyArray(value))
+			return true;
+		out.ensure(2 + keyBytes.length + 2);
+		out.buffer.putShort((short) keyBytes.length).put(keyBytes);
+		if (value instanceof List<?> lst)
+			return writeList(out, lst);
+		if (value instanceof int[] arr) {
+			out.ensure(6 + arr.length * 4);
+			out.buffer.put((byte) '[').put((byte) 'I').putInt(arr.length).asIntBuffer().put(arr);
+			out.skip(arr.length * 4);
+		} else if (value instanceof long[] arr) {
+			out.ensure(6 + arr.length * 8);
+			out.buffer.put((byte) '[').put((byte) 'L').putInt(arr.length).asLongBuffer().put(arr);
+			out.skip(arr.length * 8);
+		} else if (value instanceof double[] arr) {
+			out.ensure(6 + arr.length * 8);
+			out.buffer.put((byte) '[').put((byte) 'D').putInt(arr.length).asDoubleBuffer().put(arr);
+			out.skip(arr.length * 8);
+		} else {
+			final byte tag = getTag(value);
+			if (tag == 0) {
+				System.err.println("Unsupported data of type " + value.getClass().getName() + " with a string value of \"" + value + "\"");
+				return false;
+			}
+			out.buffer.put(tag);
+			writeValue(out, tag, value);
+		}
+		return true;
+	}
+
+	private boolean isEmptyArray(@NotNull Object value) {
+		return (value instanceof int[] ints && ints.length == 0)
+				|| (value instanceof long[] longs && longs.length == 0)
+				|| (value instanceof double[] doubles && doubles.length == 0);
+	}
+
+	private boolean writeList(@NotNull Output out, @NotNull List<?> lst) {
+		final Object first = lst.getFirst();
+		final byte tag = first == null ? 0 : getTag(first);
+		if (tag == 0) {
+			System.err.println("Unsupported list data of type " + (first == null ? "null" : first.getClass().getName()));
+			return false;
+		}
+		out.ensure(6);
+		out.buffer.put((byte) '*').put(tag).putInt(lst.size());
+		for (Object element : lst) {
+			if (element == null || element.getClass() != first.getClass()) {
+				System.err.println("Unsupported list with elements of different types: " + lst);
+				return false;
+			}
+			writeValue(out, tag, element);
+		}
+		return true;
+	}
+
+	private byte getTag(@NotNull Object value) {
+		return switch (value) {
+		case CharSequence ignored -> 's';
+		case Character ignored -> 'c';
+		case Boolean ignored -> 'b';
+		case UUID ignored -> 'u';
+		case Byte ignored -> 'B';
+		case Short ignored -> 'S';
+		case Integer ignored -> 'I';
+		case Long ignored -> 'L';
+		case Float ignored -> 'F';
+		case Double ignored -> 'D';
+		default -> 0;
+		};
+	}
+
+	private void writeValue(@NotNull Output out, byte tag, @NotNull Object value) {
+		switch (tag) {
+		case 's' -> {
+			final byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+			out.ensure(4 + bytes.length);
+			out.buffer.putInt(bytes.length).put(bytes);
+		}
+		case 'c' -> out.ensure(2).putChar((char) value);
+		case 'b' -> out.ensure(1).put((byte) ((boolean) value ? 1 : 0));
+		case 'u' -> {
+			final UUID uuid = (UUID) value;
+			out.ensure(16).putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+		}
+		case 'B' -> out.ensure(1).put((byte) value);
+		case 'S' -> out.ensure(2).putShort((short) value);
+		case 'I' -> out.ensure(4).putInt((int) value);
+		case 'L' -> out.ensure(8).putLong((long) value);
+		case 'F' -> out.ensure(4).putFloat((float) value);
+		case 'D' -> out.ensure(8).putDouble((double) value);
+		default -> throw new IllegalStateException("Unknown tag " + (char) tag);
+		}
+	}
+
+	/** Growable little-endian output buffer. */
+	private static final class Output {
+
+		private ByteBuffer buffer = ByteBuffer.allocate(4096).order(ByteOrder.LITTLE_ENDIAN);
+
+		@NotNull
+		private ByteBuffer ensure(int bytes) {
+			if (buffer.remaining() < bytes) {
+				final int capacity = Math.max(buffer.capacity() * 2, buffer.position() + bytes);
+				buffer = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN).put(buffer.flip());
+			}
+			return buffer;
+		}
+
+		// Bulk puts on views don't move the position of the buffer.
+		private void skip(int bytes) {
+			buffer.position(buffer.position() + bytes);
+		}
+	}
+
+	/*
+	 * Loading
+	 */
+
+	@Override
+	public boolean reload() {
+		return StagedReloadable.super.reload();
+	}
+
+	/**
+	 * Prepares a reload of this {@link BinaryFlatStorage}, reading its file on the
+	 * current thread. Read {@link StagedReloadable} for more information.
+	 *
+	 * @return The action that applies the reload, {@code null} if the file couldn't be read.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@Nullable
+	@Override
+	public BooleanSupplier prepareReload() {
+		if (!setup())
+			return null;
+		// Loaded content is added at once, so concurrent readers never see a partially loaded file.
+		final DataMap loaded = new DataMap(false);
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			final long size = channel.size();
+			if (size == 0)
+				return () -> true; // Just created by setup.
+			if (size > Integer.MAX_VALUE)
+				throw new IOException(file.getPath() + " is too large to be loaded");
+			// Read to the heap, never mapped, as a mapped file can't be replaced on Windows until the mapping is collected.
+			final ByteBuffer buffer = ByteBuffer.allocate((int) size);
+			while (buffer.hasRemaining())
+				if (channel.read(buffer) == -1)
+					break;
+			buffer.flip();
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			if (!readHeader(buffer))
+				return null;
+			while (buffer.hasRemaining())
+				readEntry(loaded, buffer);
+		} catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+			e.printStackTrace();
+			return null;
+		}
+		return () -> {
+			// Without unsaved changes, nothing is lost by replacing the content, which is exactly what is saved.
+			if (getMap().isModified())
+				getMap().putAll(loaded.getInternalMap());
+			else
+				getMap().reset(loaded.getInternalMap());
+			return true;
+		};
+	}
+
+	private boolean readHeader(@NotNull ByteBuffer buffer) {
+		for (byte magic : MAGIC) {
+			if (!buffer.hasRemaining() || buffer.get() != magic) {
+				System.err.println(file.getPath() + " is not a valid binary flat storage file.");
+				return false;
+			}
+		}
+		final byte version = buffer.hasRemaining() ? buffer.get() : -1;
+		if (version != VERSION) {
+			System.err.println(file.getPath() + " uses an unsupported format version (" + version + ").");
+			return false;
+		}
+		return true;
+	}
+
+	private void readEntry(@NotNull DataMap target, @NotNull ByteBuffer buffer) {
+		final byte[] keyBytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+		buffer.get(keyBytes);
+		final String key = new String(keyBytes, StandardCharsets.UTF_8);
+		final byte tag = buffer.get();
+		if (tag != '*' && tag != '[') {
+			target.set(key, readValue(buffer, tag));
+			return;
+		}
+		final byte elementTag = buffer.get();
+		if (tag == '*') {
+			// Every element takes at least one byte.
+			final int size = readLength(buffer, 1);
+			final TypedList<Object> lst = new TypedList<>();
+			for (int i = 0; i < size; i++)
+				lst.add(readValue(buffer, elementTag));
+			target.setList(key, lst);
+			return;
+		}
+		switch (elementTag) {
+		case 'I' -> {
+			final int size = readLength(buffer, 4);
+			final int[] arr = new int[size];
+			buffer.asIntBuffer().get(arr);
+			buffer.position(buffer.position() + size * 4);
+			target.set(key, arr);
+		}
+		case 'L' -> {
+			final int size = readLength(buffer, 8);
+			final long[] arr = new long[size];
+			buffer.asLongBuffer().get(arr);
+			buffer.position(buffer.position() + size * 8);
+			target.set(key, arr);
+		}
+		case 'D' -> {
+			final int size = readLength(buffer, 8);
+			final double[] arr = new double[size];
+			buffer.asDoubleBuffer().get(arr);
+			buffer.position(buffer.position() + size * 8);
+			target.set(key, arr);
+		}
+		default -> throw new IllegalArgumentException("Unknown array type tag " + elementTag + " on " + file.getPath());
+		}
+	}
+
+	/**
+	 * Reads a length prefix, checking it against the remaining bytes before anything is
+	 * allocated with it, so corrupted files can't allocate more memory than their own size.
+	 */
+	private int readLength(@NotNull ByteBuffer buffer, int elementSize) {
+		final int length = buffer.getInt();
+		if (length < 0 || length > buffer.remaining() / elementSize)
+			throw new IllegalArgumentException("Invalid length " + length + " on " + file.getPath());
+		return length;
+	}
+
+	@NotNull
+	private Object readValue(@NotNull ByteBuffer buffer, byte tag) {
+		return switch (tag) {
+		case 's' -> {
+			final byte[] bytes = new byte[readLength(buffer, 1)];
+			buffer.get(bytes);
+			yield new String(bytes, StandardCharsets.UTF_8);
+		}
+		case 'c' -> buffer.getChar();
+		case 'b' -> buffer.get() != 0;
+		case 'u' -> new UUID(buffer.getLong(), buffer.getLong());
+		case 'B' -> buffer.get();
+		case 'S' -> buffer.getShort();
+		case 'I' -> buffer.getInt();
+		case 'L' -> buffer.getLong();
+		case 'F' -> buffer.getFloat();
+		case 'D' -> buffer.getDouble();
+		default -> throw new IllegalArgumentException("Unknown type tag " + tag + " on " + file.getPath());
+		};
+	}
+}
@@ -0,0 +1,453 @@
+package net.codersky.skyutils.storage.files;
+
+import net.codersky.skyutils.StagedReloadable;
+import net.codersky.skyutils.storage.DataHandler;
+import net.codersky.skyutils.storage.DataMap;
+import net.codersky.skyutils.storage.files.yaml.YamlFile;
+import net.codersky.skyutils.time.TaskScheduler;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Watches the files of {@link #watch(YamlFile) registered} configs, reloading them when
+ * they are modified outside the plugin, for example, when a server owner edits a config
+ * file. Configs are only reloaded once their file stops changing for a short delay, so an
+ * editor saving a file in multiple writes only triggers one reload.
+ * <p>
+ * Modified files are parsed on the thread of the watcher, and the parsed content is then
+ * applied on the main thread through a {@link TaskScheduler#runSync(Runnable) sync task},
+ * comparing it key by key with the previous content. {@link ChangeListener Listeners}
+ * are only notified of keys whose value changed, so they can update any cached value
+ * without a full reload. Configs with {@link DataMap#isModified() unsaved changes}
+ * aren't reloaded, as their changes would be lost, and neither are configs modified
+ * while their file was being parsed. Files saved by the plugin itself, through
+ * {@link AsyncSaver#writeAtomically(File, AsyncSaver.WriteAction)}, as every SkyUtils
+ * config does, don't trigger a reload unless modified again afterwards.
+ * <p>
+ * Files are watched with a {@link WatchService}, watching the folders that contain
+ * them, such as the data folder of the plugin. Remember to {@link #stop() stop}
+ * the watcher when the plugin is disabled.
+ *
+ * @since SkyUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+public class ConfigWatcher {
+
+	private final TaskScheduler scheduler;
+	private final long debounce;
+	private final Map<Path, Watched> watched = new ConcurrentHashMap<>();
+	private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+	private final Consumer<Path> saveListener = this::onSave;
+	@Nullable
+	private WatchService service;
+	@Nullable
+	private Thread thread;
+
+	/**
+	 * Creates a new {@link ConfigWatcher}, which won't watch anything until {@link #start() started}.
+	 *
+	 * @param scheduler The {@link TaskScheduler} used to apply reloads on the main thread.
+	 * @param debounce The amount of milliseconds a file must stay unchanged before being reloaded.
+	 *
+	 * @throws NullPointerException if {@code scheduler} is {@code null}.
+	 * @throws IllegalArgumentException if {@code debounce} is negative.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public ConfigWatcher(@NotNull TaskScheduler scheduler, long debounce) {
+		this.scheduler = Objects.requireNonNull(scheduler, "Scheduler cannot be null");
+		if (debounce < 0)
+			throw new IllegalArgumentException("Debounce cannot be negative");
+		this.debounce = debounce;
+	}
+
+	/**
+	 * Creates a new {@link ConfigWatcher} that reloads files once they stay unchanged
+	 * for half a second. The watcher won't watch anything until {@link #start() started}.
+	 *
+	 * @param scheduler The {@link TaskScheduler} used to apply reloads on the main thread.
+	 *
+	 * @throws NullPointerException if {@code scheduler} is {@code null}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public ConfigWatcher(@NotNull TaskScheduler scheduler) {
+		this(scheduler, 500);
+	}
+
+	/*
+	 * Registration
+	 */
+
+	/**
+	 * Watches the file of a {@link YamlFile}, reloading it when modified.
+	 *
+	 * @param file The {@link YamlFile} to watch.
+	 *
+	 * @return {@code file}, for convenience.
+	 *
+	 * @param <Y> The type of {@link YamlFile}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public <Y extends YamlFile> Y watch(@NotNull Y file) {
+		return watch(file.asFile(), file);
+	}
+
+	/**
+	 * Watches the file of a {@link FlatStorage}, reloading it when modified.
+	 *
+	 * @param storage The {@link FlatStorage} to watch.
+	 *
+	 * @return {@code storage}, for convenience.
+	 *
+	 * @param <S> The type of {@link FlatStorage}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public <S extends FlatStorage> S watch(@NotNull S storage) {
+		return watch(storage.asFile(), storage);
+	}
+
+	/**
+	 * Watches the file of a {@link BinaryFlatStorage}, reloading it when modified.
+	 *
+	 * @param storage The {@link BinaryFlatStorage} to watch.
+	 *
+	 * @return {@code storage}, for convenience.
+	 *
+	 * @param <S> The type of {@link BinaryFlatStorage}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public <S extends BinaryFlatStorage> S watch(@NotNull S storage) {
+		return watch(storage.asFile(), storage);
+	}
+
+	/**
+	 * Watches a {@link File}, reloading {@code handler} when it is modified. Watching
+	 * a {@link File} that is already watched replaces the handler that was watching it.
+	 *
+	 * @param file The {@link File} to watch.
+	 * @param handler The handler to reload when {@code file} is modified.
+	 *
+	 * @return {@code handler}, for convenience.
+	 *
+	 * @param <T> The type of handler.
+	 *
+	 * @throws IllegalStateException if the folder of {@code file} can't be watched.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public synchronized <T extends StagedReloadable & DataHandler> T watch(@NotNull File file, @NotNull T handler) {
+		Objects.requireNonNull(handler, "Handler cannot be null");
+		final Path path = file.toPath().toAbsolutePath().normalize();
+		watched.put(path, new Watched(path, handler, handler));
+		if (service != null)
+			register(service, path.getParent());
+		return handler;
+	}
+
+	/**
+	 * Stops watching a {@link File}. Its folder is still watched
+	 * until the watcher is {@link #stop() stopped}.
+	 *
+	 * @param file The {@link File} to stop watching.
+	 *
+	 * @return {@code true} if {@code file} was being watched, {@code false} otherwise.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public boolean unwatch(@NotNull File file) {
+		return watched.remove(file.toPath().toAbsolutePath().normalize()) != null;
+	}
+
+	/**
+	 * Adds a {@link ChangeListener} to this {@link ConfigWatcher}, notified on
+	 * the main thread of every key changed by a reload of a watched file.
+	 *
+	 * @param listener The {@link ChangeListener} to add.
+	 *
+	 * @return This {@link ConfigWatcher}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public ConfigWatcher addListener(@NotNull ChangeListener listener) {
+		listeners.add(Objects.requireNonNull(listener, "Listener cannot be null"));
+		return this;
+	}
+
+	/**
+	 * Removes a {@link ChangeListener} from this {@link ConfigWatcher}.
+	 *
+	 * @param listener The {@link ChangeListener} to remove.
+	 *
+	 * @return {@code true} if {@code listener} was added, {@code false} otherwise.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public boolean removeListener(@NotNull ChangeListener listener) {
+		return listeners.remove(listener);
+	}
+
+	/*
+	 * Watching
+	 */
+
+	/**
+	 * Starts watching every registered file, doing nothing if already started.
+	 *
+	 * @return This {@link ConfigWatcher}.
+	 *
+	 * @throws IllegalStateException if the {@link WatchService} can't be created.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public synchronized ConfigWatcher start() {
+		if (service != null)
+			return this;
+		final WatchService newService;
+		try {
+			newService = FileSystems.getDefault().newWatchService();
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed to create a WatchService", e);
+		}
+		for (Path path : watched.keySet())
+			register(newService, path.getParent());
+		service = newService;
+		AsyncSaver.writeListeners.add(saveListener);
+		thread = new Thread(() -> run(newService), "SkyUtils ConfigWatcher");
+		thread.setDaemon(true);
+		thread.start();
+		return this;
+	}
+
+	/**
+	 * Stops watching files. Reloads that are already being applied aren't cancelled.
+	 *
+	 * @return This {@link ConfigWatcher}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public synchronized ConfigWatcher stop() {
+		if (service != null) {
+			try {
+				service.close(); // Also stops the thread.
+			} catch (IOException ignored) {}
+			service = null;
+			thread = null;
+			AsyncSaver.writeListeners.remove(saveListener);
+		}
+		return this;
+	}
+
+	private void register(@NotNull WatchService service, @NotNull Path dir) {
+		try {
+			dir.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed to watch " + dir, e);
+		}
+	}
+
+	private void run(@NotNull WatchService service) {
+		// Files pending a reload, with the time at which they can be reloaded.
+		final Map<Path, Long> pending = new HashMap<>();
+		try {
+			while (true) {
+				final WatchKey key = pending.isEmpty() ? service.take() : service.poll(getWait(pending), TimeUnit.NANOSECONDS);
+				if (key != null) {
+					final Path dir = (Path) key.watchable();
+					for (WatchEvent<?> event : key.pollEvents()) {
+						if (event.context() instanceof Path name) {
+							final Path path = dir.resolve(name);
+							if (watched.containsKey(path))
+								pending.put(path, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(debounce));
+						}
+					}
+					key.reset();
+				}
+				final long now = System.nanoTime();
+				pending.entrySet().removeIf(entry -> {
+					if (entry.getValue() - now > 0)
+						return false;
+					final Watched target = watched.get(entry.getKey());
+					if (target != null)
+						reload(target);
+					return true;
+				});
+			}
+		} catch (InterruptedException | ClosedWatchServiceException ignored) {
+			// Stopped.
+		}
+	}
+
+	private void onSave(@NotNull Path path) {
+		final Watched target = watched.get(path);
+		if (target != null)
+			target.savedTime = getLastModified(path);
+	}
+
+	@Nullable
+	private static FileTime getLastModified(@NotNull Path path) {
+		try {
+			return Files.getLastModifiedTime(path);
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	private long getWait(@NotNull Map<Path, Long> pending) {
+		final long now = System.nanoTime();
+		long wait = Long.MAX_VALUE;
+		for (long time : pending.values())
+			wait = Math.min(wait, time - now);
+		return Math.max(wait, 0);
+	}
+
+	/*
+	 * Reloading
+	 */
+
+	private void reload(@NotNull Watched target) {
+		final FileTime modified = getLastModified(target.path);
+		if (modified != null && modified.equals(target.savedTime))
+			return; // Saved by the plugin, so it already has this content.
+		final DataMap map = target.handler.getMap();
+		// Modifications made while parsing would be lost by applying the reload, even if saved meanwhile.
+		final long version = map.getContentVersion();
+		final BooleanSupplier apply;
+		try {
+			apply = target.reloadable.prepareReload();
+		} catch (RuntimeException e) {
+			e.printStackTrace();
+			return;
+		}
+		if (apply == null) {
+			System.err.println("Failed to reload " + target.path + " after it was modified.");
+			return;
+		}
+		scheduler.runSync(() -> {
+			if (watched.get(target.path) != target)
+				return; // Unwatched meanwhile.
+			if (map.isModified() || map.getContentVersion() != version) {
+				System.err.println(target.path + " was modified, but it wasn't reloaded as it has unsaved changes.");
+				return;
+			}
+			final Map<String, Object> before = flatten(map.snapshot().getContent());
+			if (!apply.getAsBoolean())
+				return;
+			final Map<String, Object> after = flatten(map.snapshot().getContent());
+			if (!listeners.isEmpty())
+				fireChanges(target.handler, before, after);
+		});
+	}
+
+	@NotNull
+	private static Map<String, Object> flatten(@NotNull Map<String, Object> content) {
+		final Map<String, Object> flat = new LinkedHashMap<>();
+		flatten("", content, flat);
+		return flat;
+	}
+
+	private static void flatten(@NotNull String parent, @NotNull Map<?, ?> map, @NotNull Map<String, Object> flat) {
+		for (Map.Entry<?, ?> entry : map.entrySet()) {
+			final String key = parent + entry.getKey();
+			if (entry.getValue() instanceof Map<?, ?> child && !child.isEmpty())
+				flatten(key + '.', child, flat);
+			else
+				flat.put(key, entry.getValue());
+		}
+	}
+
+	private void fireChanges(@NotNull DataHandler handler, @NotNull Map<String, Object> before, @NotNull Map<String, Object> after) {
+		final Set<String> keys = new HashSet<>(before.keySet());
+		keys.addAll(after.keySet());
+		for (String key : keys) {
+			final Object oldValue = before.get(key);
+			final Object newValue = after.get(key);
+			if (Objects.deepEquals(oldValue, newValue))
+				continue;
+			for (ChangeListener listener : listeners) {
+				try {
+					listener.onChange(handler, key, oldValue, newValue);
+				} catch (RuntimeException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+
+	private static final class Watched {
+
+		private final Path path;
+		private final StagedReloadable reloadable;
+		private final DataHandler handler;
+		/** Last modification time of the file after being saved by the plugin. */
+		@Nullable
+		private volatile FileTime savedTime;
+
+		private Watched(@NotNull Path path, @NotNull StagedReloadable reloadable, @NotNull DataHandler handler) {
+			this.path = path;
+			this.reloadable = reloadable;
+			this.handler = handler;
+		}
+	}
+
+	/*
+	 * ChangeListener interface
+	 */
+
+	/**
+	 * Listener notified by a {@link ConfigWatcher} of every key changed by a reload.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@FunctionalInterface
+	public interface ChangeListener {
+
+		/**
+		 * Called on the main thread when a reload changes the value of a key. Nested
+		 * keys are reported with their full path, such as "a.b.c".
+		 *
+		 * @param handler The handler that was reloaded.
+		 * @param key The key that changed.
+		 * @param oldValue The previous value of {@code key}, {@code null} if it didn't exist.
+		 * @param newValue The new value of {@code key}, {@code null} if it was removed.
+		 *
+		 * @since SkyUtils 1.0.0
+		 */
+		void onChange(@NotNull DataHandler handler, @NotNull String key, @Nullable Object oldValue, @Nullable Object newValue);
+	}
+}
@@ -1,21 +1,31 @@
 package net.codersky.skyutils.storage.files;
 
+import net.codersky.skyutils.StagedReloadable;
 import net.codersky.skyutils.java.SkyFiles;
 import net.codersky.skyutils.java.strings.SkyStrings;
+import net.codersky.skyutils.storage.DataMap;
 import net.codersky.skyutils.storage.Storage;
+import net.codersky.skyutils.storage.TypedList;
+import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.UUID;
+import java.util.function.BooleanSupplier;
 import java.util.function.Function;
 
 /**
@@ -26,25 +36,92 @@ import java.util.function.Function;
  * data types. About memory usage, this class only
  * stores a {@link HashMap} with all keys and values
  * and the {@link File} itself.
+ * <p>
+ * <b>Journal mode</b>
+ * <p>
+ * Storages created in journal mode don't rewrite the whole file on every {@link #save() save}.
+ * Instead, the {@link DataMap#getDirtyKeys() keys modified} since the last save are appended
+ * to a journal file next to the storage file (With the ".log" extension added), so saves cost
+ * as much as the amount of changes instead of the size of the file. {@link #reload() Reloading}
+ * reads the storage file and then replays the journal. Once the journal grows larger than the
+ * storage file, it is {@link #compact() compacted}, rewriting the storage file and deleting the
+ * journal. This is done by a background task on storages with a {@link DataMap#isConcurrent()
+ * concurrent} {@link DataMap}, and by the save itself otherwise. Journal mode is intended for frequently modified storages with
+ * a large amount of keys.
  * 
  * @author xDec0de_
  *
  * @since SkyUtils 1.0.0
  */
-public class FlatStorage extends Storage {
+public class FlatStorage extends Storage implements StagedReloadable {
+
+	/** Minimum size of the journal, in bytes, before compacting it. */
+	private static final long MIN_COMPACT_SIZE = 64 * 1024;
 
 	private final File file;
+	@Nullable
+	private final File journal;
+	/**
+	 * Generation of the storage file, the journal is only replayed if it has the same generation,
+	 * so a journal left behind by a compaction interrupted by a crash isn't replayed.
+	 * -1 if unknown, as the storage hasn't been loaded nor compacted yet.
+	 */
+	private long generation = -1;
+	/**
+	 * Length, in bytes, of the committed part of the journal. Anything after it was left
+	 * by a save that didn't finish, and is truncated before appending the next save.
+	 */
+	private long journalEnd;
+	private final Object compactKey = new Object();
 
-	public FlatStorage(@NotNull File file) {
-		super(false);
+	/**
+	 * Creates a new {@link FlatStorage} for the specified {@link File}.
+	 *
+	 * @param file The {@link File} to use, which must have the ".mcufs" extension.
+	 * @param concurrent Whether the {@link DataMap} of this {@link FlatStorage} can be safely
+	 * accessed from multiple threads or not. This allows reading and modifying the storage
+	 * while it is being saved from another thread, read {@link DataMap} for more information.
+	 *
+	 * @throws IllegalArgumentException if {@code file} doesn't have the ".mcufs" extension.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public FlatStorage(@NotNull File file, boolean concurrent) {
+		this(file, concurrent, false);
+	}
+
+	/**
+	 * Creates a new {@link FlatStorage} for the specified {@link File}.
+	 *
+	 * @param file The {@link File} to use, which must have the ".mcufs" extension.
+	 * @param concurrent Whether the {@link DataMap} of this {@link FlatStorage} can be safely
+	 * accessed from multiple threads or not. This allows reading and modifying the storage
+	 * while it is being saved from another thread, read {@link DataMap} for more information.
+	 * @param journal Whether to use journal mode or not. Details about this can be found
+	 * {@link FlatStorage here}, under the "<b>Journal mode</b>" section.
+	 *
+	 * @throws IllegalArgumentException if {@code file} doesn't have the ".mcufs" extension.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public FlatStorage(@NotNull File file, boolean concurrent, boolean journal) {
+		super(false, concurrent);
 		if (!file.getName().endsWith(".mcufs"))
 			throw new IllegalArgumentException("FlatStorage only accepts files with the \".mcufs\" extension.");
 		this.file = file;
+		this.journal = journal ? new File(file.getPath() + ".log") : null;
+	}
+
+	public FlatStorage(@NotNull File file) {
+		this(file, false);
+	}
+
+	public FlatStorage(@NotNull String path, boolean concurrent) {
+		this(new File(path.endsWith(".mcufs") ? path : path + ".mcufs"), concurrent, false);
 	}
 
 	public FlatStorage(@NotNull String path) {
-		super(false);
-		this.file = new File(path.endsWith(".mcufs") ? path : path + ".mcufs");
+		this(path, false);
 	}
 
 	/*
@@ -52,7 +129,7 @@ public class FlatStorage extends Storage {
 	 */
 
 	public boolean setup() {
-		return SkyFiles.create(file);
+		return file.exists() || SkyFiles.create(file);
 	}
 
 	@NotNull
@@ -61,7 +138,22 @@ public class FlatStorage extends Storage {
 	}
 
 	public boolean rename(@NotNull String name) {
-		return file.renameTo(new File(file.getParent() + (name.endsWith(".mcufs") ? name : name + ".mcufs")));
+		final File renamed = new File(file.getParent() + (name.endsWith(".mcufs") ? name : name + ".mcufs"));
+		if (journal != null && journal.exists() && !journal.renameTo(new File(renamed.getPath() + ".log")))
+			return false;
+		return file.renameTo(renamed);
+	}
+
+	/**
+	 * Checks if this {@link FlatStorage} uses journal mode. Details about this can
+	 * be found {@link FlatStorage here}, under the "<b>Journal mode</b>" section.
+	 *
+	 * @return {@code true} if this {@link FlatStorage} uses journal mode.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public final boolean isJournaled() {
+		return journal != null;
 	}
 
 	public final boolean exists() {
@@ -72,43 +164,209 @@ public class FlatStorage extends Storage {
 	 * Saving
 	 */
 
+	/**
+	 * Saves this {@link FlatStorage} to its {@link File}. The file is written
+	 * {@link AsyncSaver#writeAtomically(File, AsyncSaver.WriteAction) atomically},
+	 * and saves of the same instance never run at the same time, so the file always
+	 * ends up with the content of the latest save.
+	 * <p>
+	 * On {@link #isJournaled() journaled} storages, only the modified keys are saved,
+	 * appending them to the journal, unless the {@link DataMap} has
+	 * {@link DataMap#hasUntrackedChanges() untracked changes}, which are saved
+	 * by {@link #compact() compacting} the storage.
+	 *
+	 * @return {@code true} if this {@link FlatStorage} saved correctly, {@code false} otherwise.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
 	@Override
-	public boolean save() {
+	public synchronized boolean save() {
 		if (!getMap().isModified())
 			return true;
-		if (!setup())
-			return false;
+		final DataMap.Snapshot snapshot = getMap().snapshot();
+		if (journal == null)
+			return writeFile(snapshot, null) == 0;
+		if (generation == -1 || snapshot.hasUntrackedChanges() || !file.exists())
+			return compact(snapshot);
+		return appendJournal(snapshot);
+	}
+
+	/**
+	 * Writes the whole storage file, skipping entries that fail to be encoded.
+	 *
+	 * @return The amount of entries that failed to be encoded, {@code -1} if the file couldn't be written.
+	 */
+	private int writeFile(@NotNull DataMap.Snapshot snapshot, @Nullable String header) {
 		int errors = 0;
+		final StringBuilder content = new StringBuilder();
+		if (header != null)
+			content.append(header);
+		for (Entry<String, Object> entry : snapshot.getContent().entrySet()) {
+			final String toWrite;
+			if (entry.getValue() instanceof final List<?> lst) {
+				if (lst.isEmpty())
+					continue;
+				toWrite = toWrite(entry.getKey(), lst);
+			} else
+				toWrite = toWrite(entry.getKey(), entry.getValue());
+			if (toWrite != null)
+				content.append(toWrite);
+			else
+				errors++;
+		}
 		try {
-			final FileWriter writer = new FileWriter(file);
-			for (Entry<String, Object> entry : getEntries()) {
-				final String toWrite;
-				if (entry.getValue() instanceof final List<?> lst) {
-					if (lst.isEmpty())
-						continue;
-					toWrite = toWrite(entry.getKey(), lst);
-				} else
-					toWrite = toWrite(entry.getKey(), entry.getValue());
-				if (toWrite != null)
-					writer.write(toWrite);
-				else
-					errors++;
-			}
-			writer.close();
+			AsyncSaver.writeAtomically(file, out -> out.write(content.toString().getBytes(StandardCharsets.UTF_8)));
 		} catch (IOException e) {
 			e.printStackTrace();
-			return false;
+			return -1;
 		}
 		if (errors != 0)
 			System.err.println("Failed to save " + file.getPath() + " because of " + errors + " error(s) shown above.");
 		else
-			getMap().setModified(false);
+			getMap().markSaved(snapshot.getVersion());
+		return errors;
+	}
+
+	// Saving - Journal //
+
+	/**
+	 * Compacts the journal of this {@link FlatStorage}, rewriting the whole storage file
+	 * and then deleting the journal. This is done automatically once the journal grows
+	 * larger than the storage file, and does nothing if this {@link FlatStorage} isn't
+	 * {@link #isJournaled() journaled}.
+	 *
+	 * @return {@code true} if the storage was compacted correctly, {@code false} otherwise.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public synchronized boolean compact() {
+		return journal == null || compact(getMap().snapshot());
+	}
+
+	private boolean compact(@NotNull DataMap.Snapshot snapshot) {
+		// A new generation, so the current journal is ignored if the process crashes before deleting it.
+		final long newGeneration = Math.max(generation + 1, System.currentTimeMillis());
+		final int errors = writeFile(snapshot, "#generation:" + newGeneration + '\n');
+		if (errors == -1)
+			return false;
+		// Written even if some entries failed, so the file already has the new generation.
+		generation = newGeneration;
+		// Even if it can't be deleted, a journal of an older generation is truncated by the next save.
+		journalEnd = 0;
+		try {
+			Files.deleteIfExists(journal.toPath());
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
 		return errors == 0;
 	}
 
+	private boolean appendJournal(@NotNull DataMap.Snapshot snapshot) {
+		int errors = 0;
+		final StringBuilder records = new StringBuilder();
+		for (String key : snapshot.getDirtyKeys()) {
+			final Object value = snapshot.getContent().get(key);
+			final String toWrite;
+			if (value == null)
+				toWrite = "";
+			else if (value instanceof List<?> lst)
+				toWrite = lst.isEmpty() ? "" : toWrite(key, lst);
+			else
+				toWrite = toWrite(key, value);
+			if (toWrite == null)
+				errors++;
+			else if (toWrite.isEmpty()) // Removed or empty, which isn't saved, so it's removed too.
+				records.append('-').append(key).append(":\n");
+			else
+				records.append(toWrite);
+		}
+		// Records of a save are only replayed if the save finished writing them.
+		records.append("#commit\n");
+		// The journal lost committed records, which only the storage file can save again.
+		if (journal.length() < journalEnd)
+			return compact(snapshot);
+		final long journalSize;
+		try (FileChannel channel = FileChannel.open(journal.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+			// Drops whatever a failed or interrupted save left after the last commit, so this save never commits it.
+			if (channel.size() > journalEnd)
+				channel.truncate(journalEnd);
+			if (journalEnd == 0)
+				records.insert(0, "#generation:" + generation + '\n');
+			channel.position(journalEnd);
+			final ByteBuffer buffer = ByteBuffer.wrap(records.toString().getBytes(StandardCharsets.UTF_8));
+			while (buffer.hasRemaining())
+				channel.write(buffer);
+			channel.force(false);
+			journalSize = channel.size();
+			journalEnd = journalSize;
+		} catch (IOException e) {
+			e.printStackTrace();
+			return false;
+		}
+		if (errors != 0) {
+			System.err.println("Failed to save " + file.getPath() + " because of " + errors + " error(s) shown above.");
+			return false;
+		}
+		getMap().markSaved(snapshot.getVersion());
+		if (journalSize > Math.max(MIN_COMPACT_SIZE, file.length())) {
+			// Only concurrent maps can be read from another thread while they are modified.
+			if (getMap().isConcurrent())
+				AsyncSaver.getDefault().submit(compactKey, this::compact);
+			else
+				compact(getMap().snapshot());
+		}
+		return true;
+	}
+
+	// Saving - Entry encoding //
+
+	/**
+	 * Encodes a single entry with the format of {@link FlatStorage} files,
+	 * which other storages can use to store entries as text.
+	 *
+	 * @param key The key of the entry.
+	 * @param value The value of the entry.
+	 *
+	 * @return The encoded entry, without a line break at the end, an empty string
+	 * if {@code value} is an empty list or array, which aren't stored, or {@code null}
+	 * if the type of {@code value} isn't supported.
+	 *
+	 * @since SkyUtils 1.0.0
+	 *
+	 * @see #decodeEntry(DataMap, String)
+	 */
+	@Nullable
+	@ApiStatus.Internal
+	public static String encodeEntry(@NotNull String key, @NotNull Object value) {
+		final String encoded;
+		if (value instanceof List<?> lst)
+			encoded = lst.isEmpty() ? "" : toWrite(key, lst);
+		else
+			encoded = toWrite(key, value);
+		return encoded == null || encoded.isEmpty() ? encoded : encoded.substring(0, encoded.length() - 1);
+	}
+
+	/**
+	 * Decodes an entry {@link #encodeEntry(String, Object) encoded} with the format
+	 * of {@link FlatStorage} files, setting it on {@code target}.
+	 *
+	 * @param target The {@link DataMap} to set the decoded entry on.
+	 * @param encoded The encoded entry.
+	 *
+	 * @return {@code true} if the entry was decoded, {@code false} if {@code encoded} isn't valid.
+	 *
+	 * @throws NumberFormatException if {@code encoded} has an invalid number.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@ApiStatus.Internal
+	public static boolean decodeEntry(@NotNull DataMap target, @NotNull String encoded) {
+		return !encoded.isEmpty() && parseLine(target, encoded);
+	}
+
 	// Saving - Simple objects //
 
-	private String toWrite(String key, Object value) {
+	private static String toWrite(String key, Object value) {
 		final StringBuilder builder = new StringBuilder();
 		if (value instanceof CharSequence)
 			builder.append('s').append(key).append(':').append(value.toString().replace("\n", "\\n"));
@@ -120,7 +378,27 @@ public class FlatStorage extends Storage {
 			builder.append('u').append(key).append(':').append(value.toString());
 		else if (value instanceof Number) // Number identification character is upper case.
 			builder.append(value.getClass().getSimpleName().charAt(0)).append(key).append(':').append(value.toString());
-		else {
+		// Primitive arrays use the list format with '[' instead of '*', so they are loaded back as arrays.
+		// Empty ones are skipped like empty lists.
+		else if (value instanceof int[] arr) {
+			if (arr.length == 0)
+				return "";
+			builder.append("[I").append(key).append(':').append(arr[0]);
+			for (int i = 1; i < arr.length; i++)
+				builder.append(',').append(arr[i]);
+		} else if (value instanceof long[] arr) {
+			if (arr.length == 0)
+				return "";
+			builder.append("[L").append(key).append(':').append(arr[0]);
+			for (int i = 1; i < arr.length; i++)
+				builder.append(',').append(arr[i]);
+		} else if (value instanceof double[] arr) {
+			if (arr.length == 0)
+				return "";
+			builder.append("[D").append(key).append(':').append(arr[0]);
+			for (int i = 1; i < arr.length; i++)
+				builder.append(',').append(arr[i]);
+		} else {
 			System.err.println("Unsupported data of type " + value.getClass().getName() + " with a string value of \"" + value + "\"");
 			return null;
 		}
@@ -133,7 +411,7 @@ public class FlatStorage extends Storage {
 	 * @throws ClassCastException If lst contains elements of different types (Try with Arrays.asList("exception", 10))
 	 */
 	@SuppressWarnings("unchecked")
-	private String toWrite(String key, List<?> lst) {
+	private static String toWrite(String key, List<?> lst) {
 		final Object first = lst.getFirst();
 		final StringBuilder builder = new StringBuilder("*");
 		if (first instanceof CharSequence)
@@ -153,7 +431,7 @@ public class FlatStorage extends Storage {
 		return builder.append('\n').toString();
 	}
 
-	private <T> String listAppend(String key, StringBuilder builder, List<T> lst, boolean separate, Function<T, String> modifier) {
+	private static <T> String listAppend(String key, StringBuilder builder, List<T> lst, boolean separate, Function<T, String> modifier) {
 		builder.append(key).append(':');
 		final int size = lst.size() - 1;
 		for (int lstI = 0; lstI <= size; lstI++) {
@@ -165,7 +443,7 @@ public class FlatStorage extends Storage {
 		return builder.toString();
 	}
 
-	private String listAppend(String key, StringBuilder builder, List<CharSequence> lst) {
+	private static String listAppend(String key, StringBuilder builder, List<CharSequence> lst) {
 		return listAppend(key, builder, lst, true, seq -> {
 			final int len = seq.length();
 			final StringBuilder seqBuilder = new StringBuilder(len);
@@ -189,72 +467,176 @@ public class FlatStorage extends Storage {
 
 	@Override
 	public boolean reload() {
+		return StagedReloadable.super.reload();
+	}
+
+	/**
+	 * Prepares a reload of this {@link FlatStorage}, reading the storage file, and the
+	 * journal on journal mode, on the current thread. Read {@link StagedReloadable} for
+	 * more information. On journal mode, applying the reload fails if the storage is
+	 * {@link #compact() compacted} after the reload is prepared, as the loaded content
+	 * would belong to an older generation of the storage file, and if the storage has
+	 * {@link DataMap#isModified() unsaved changes}, which must be saved first.
+	 *
+	 * @return The action that applies the reload, {@code null} if the storage couldn't be read.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@Nullable
+	@Override
+	public synchronized BooleanSupplier prepareReload() {
 		if (!setup())
-			return false;
-		try {
-			final BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file)));
+			return null;
+		// Loaded content is added at once, so concurrent readers never see a partially loaded file.
+		final DataMap loaded = new DataMap(false);
+		final long fileGeneration;
+		final long committedJournal;
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
 			String line;
-			while ((line = reader.readLine()) != null)
-				parseLine(line);
-			reader.close();
-			return true;
-		} catch (IOException e) {
+			long readGeneration = 0;
+			while ((line = reader.readLine()) != null) {
+				if (line.startsWith("#generation:"))
+					readGeneration = Long.parseLong(line.substring(12));
+				else
+					parseLine(loaded, line);
+			}
+			fileGeneration = readGeneration;
+			committedJournal = journal == null ? 0 : replayJournal(loaded, fileGeneration);
+		} catch (IOException | NumberFormatException e) {
 			e.printStackTrace();
-			return false;
+			return null;
+		}
+		if (journal == null) {
+			return () -> {
+				// Without unsaved changes, nothing is lost by replacing the content, which is exactly what is saved.
+				if (getMap().isModified())
+					getMap().putAll(loaded.getInternalMap());
+				else
+					getMap().reset(loaded.getInternalMap());
+				return true;
+			};
 		}
+		final long preparedGeneration = generation;
+		final long preparedJournalEnd = journalEnd;
+		return () -> {
+			synchronized (this) {
+				// Unsaved changes would be overwritten by the loaded values while staying dirty, so they are kept instead.
+				// A save appended after preparing the reload would also be missing from the loaded content.
+				if (generation != preparedGeneration || journalEnd != preparedJournalEnd || getMap().isModified())
+					return false;
+				generation = fileGeneration;
+				journalEnd = committedJournal;
+				// The loaded content is exactly what is saved, so it isn't marked as modified.
+				getMap().reset(loaded.getInternalMap());
+				return true;
+			}
+		};
+	}
+
+	/**
+	 * Replays the committed records of the journal, skipping invalid ones.
+	 *
+	 * @return The length, in bytes, of the committed part of the journal, which is 0
+	 * if it doesn't exist or doesn't belong to the generation of the storage file.
+	 */
+	private long replayJournal(final DataMap target, final long fileGeneration) throws IOException {
+		if (!journal.exists())
+			return 0;
+		// Read as bytes, as the committed part is tracked by its length. Compaction keeps journals small.
+		final byte[] content = Files.readAllBytes(journal.toPath());
+		final List<String> pending = new ArrayList<>();
+		boolean validGeneration = false;
+		long committed = 0;
+		int lineStart = 0;
+		for (int i = 0; i < content.length; i++) {
+			if (content[i] != '\n')
+				continue;
+			final String line = new String(content, lineStart, i - lineStart, StandardCharsets.UTF_8);
+			lineStart = i + 1;
+			if (!validGeneration) {
+				if (!line.equals("#generation:" + fileGeneration))
+					return 0; // Left behind by an interrupted compaction, the storage file is newer.
+				validGeneration = true;
+				committed = lineStart;
+			} else if (!line.equals("#commit"))
+				pending.add(line);
+			else {
+				for (String record : pending)
+					replayRecord(target, record);
+				pending.clear();
+				committed = lineStart;
+			}
+		}
+		// Pending records, and a partial last line, belong to a save that didn't finish, so they aren't replayed.
+		return committed;
 	}
 
-	private boolean parseLine(final String line) {
+	private void replayRecord(final DataMap target, final String record) {
+		try {
+			if (record.startsWith("-"))
+				target.removeEntries(record.substring(1, record.length() - 1));
+			else
+				parseLine(target, record);
+		} catch (RuntimeException e) {
+			// A single invalid record shouldn't prevent the storage from loading.
+			System.err.println("Skipping invalid journal record of " + file.getPath() + ": " + record);
+		}
+	}
+
+	private static boolean parseLine(final DataMap target, final String line) {
 		int separatorIndex = line.indexOf(':');
 		if (separatorIndex == -1)
 			return false;
 		final String key = line.substring(1, separatorIndex);
 		final String value = line.substring(separatorIndex + 1);
 		if (line.charAt(0) == '*')
-			return loadLstFromLine(line.charAt(1), key.substring(1), value);
+			return loadLstFromLine(target, line.charAt(1), key.substring(1), value);
+		else if (line.charAt(0) == '[')
+			return loadArrayFromLine(target, line.charAt(1), key.substring(1), value);
 		else
-			return loadObjFromLine(line.charAt(0), key, value);
+			return loadObjFromLine(target, line.charAt(0), key, value);
 	}
 
 	// Loading - Simple objects //
 
-	private boolean loadObjFromLine(final char type, final String key, final String value) {
-		return switch (type) {
-		case 's' -> setString(key, value.replace("\\n", "\n"));
-		case 'c' -> setChar(key, value.equals("\\n") ? '\n' : value.charAt(0));
-		case 'b' -> setBoolean(key, value.charAt(0) == 't');
-		case 'u' -> setUUID(key, SkyStrings.toUUID(value));
-		case 'B' -> setByte(key, Byte.parseByte(value));
-		case 'S' -> setShort(key, Short.parseShort(value));
-		case 'I' -> setInt(key, Integer.parseInt(value));
-		case 'L' -> setLong(key, Long.parseLong(value));
-		case 'F' -> setFloat(key, Float.parseFloat(value));
-		case 'D' -> setDouble(key, Double.parseDouble(value));
+	private static boolean loadObjFromLine(final DataMap target, final char type, final String key, final String value) {
+		final Object obj = switch (type) {
+		case 's' -> value.replace("\\n", "\n");
+		case 'c' -> value.equals("\\n") ? '\n' : value.charAt(0);
+		case 'b' -> value.charAt(0) == 't';
+		case 'u' -> SkyStrings.toUUID(value);
+		case 'B' -> Byte.parseByte(value);
+		case 'S' -> Short.parseShort(value);
+		case 'I' -> Integer.parseInt(value);
+		case 'L' -> Long.parseLong(value);
+		case 'F' -> Float.parseFloat(value);
+		case 'D' -> Double.parseDouble(value);
 		default -> null;
-		} != null;
+		};
+		return obj != null && target.set(key, obj) != null;
 	}
 
 	// Loading - Lists //
 
-	private boolean loadLstFromLine(final char type, final String key, final String value) {
+	private static boolean loadLstFromLine(final DataMap target, final char type, final String key, final String value) {
 		return switch (type) {
-		case 's' -> loadStringList(key, value);
-		case 'c' -> loadCharList(key, value);
-		case 'b' -> loadBoolList(key, value);
-		case 'u' -> loadList(key, value, SkyStrings::toUUID);
-		case 'B' -> loadList(key, value, Byte::parseByte);
-		case 'S' -> loadList(key, value, Short::parseShort);
-		case 'I' -> loadList(key, value, Integer::parseInt);
-		case 'L' -> loadList(key, value, Long::parseLong);
-		case 'F' -> loadList(key, value, Float::parseFloat);
-		case 'D' -> loadList(key, value, Double::parseDouble);
+		case 's' -> loadStringList(target, key, value);
+		case 'c' -> loadCharList(target, key, value);
+		case 'b' -> loadBoolList(target, key, value);
+		case 'u' -> loadList(target, key, value, SkyStrings::toUUID);
+		case 'B' -> loadList(target, key, value, Byte::parseByte);
+		case 'S' -> loadList(target, key, value, Short::parseShort);
+		case 'I' -> loadList(target, key, value, Integer::parseInt);
+		case 'L' -> loadList(target, key, value, Long::parseLong);
+		case 'F' -> loadList(target, key, value, Float::parseFloat);
+		case 'D' -> loadList(target, key, value, Double::parseDouble);
 		default -> false;
 		};
 	}
 
-	private <T> boolean loadList(final String key, final String lstStr, Function<String, T> modifier) {
+	private static <T> boolean loadList(final DataMap target, final String key, final String lstStr, Function<String, T> modifier) {
 		final int len = lstStr.length();
-		final LinkedList<T> result = new LinkedList<>();
+		final TypedList<T> result = new TypedList<>();
 		StringBuilder element = new StringBuilder();
 		for (int i = 0; i < len; i++) {
 			final char ch = lstStr.charAt(i);
@@ -265,15 +647,15 @@ public class FlatStorage extends Storage {
 				element.append(ch);
 		}
 		result.add(modifier.apply(element.toString()));
-		getMap().setList(key, result);
+		target.setList(key, result);
 		return true;
 	}
 
 	// Specific method for strings to handle the '\' character to avoid counting
 	// Strings that contain commas as different strings. Also handles the '\n' character.
-	private boolean loadStringList(final String key, final String lstStr) {
+	private static boolean loadStringList(final DataMap target, final String key, final String lstStr) {
 		final int len = lstStr.length();
-		final LinkedList<String> result = new LinkedList<>();
+		final TypedList<String> result = new TypedList<>();
 		StringBuilder element = new StringBuilder();
 		for (int i = 0; i < len; i++) {
 			final char ch = lstStr.charAt(i);
@@ -291,15 +673,15 @@ public class FlatStorage extends Storage {
 				element.append(ch);
 		}
 		result.add(element.toString());
-		setStrings(key, result);
+		target.setList(key, result);
 		return true;
 	}
 
 	// Specific method for characters, as characters don't use a separator
 	// But the '\n' character is stored as two characters.
-	private boolean loadCharList(final String key, final String lstStr) {
+	private static boolean loadCharList(final DataMap target, final String key, final String lstStr) {
 		final int len = lstStr.length();
-		final LinkedList<Character> result = new LinkedList<>();
+		final TypedList<Character> result = new TypedList<>();
 		for (int i = 0; i < len; i++) {
 			final char ch = lstStr.charAt(i);
 			if (ch == '\\' && len > i && lstStr.charAt(i + 1) == 'n') {
@@ -308,17 +690,55 @@ public class FlatStorage extends Storage {
 			} else
 				result.add(ch);
 		}
-		setChars(key, result);
+		target.setList(key, result);
 		return true;
 	}
 
 	// Specific method for booleans, as booleans don't need a separator.
-	private boolean loadBoolList(final String key, final String lstStr) {
+	private static boolean loadBoolList(final DataMap target, final String key, final String lstStr) {
 		final int len = lstStr.length();
-		final LinkedList<Boolean> result = new LinkedList<>();
+		final TypedList<Boolean> result = new TypedList<>();
 		for (int i = 0; i < len; i++)
 			result.add(lstStr.charAt(i) == 't');
-		setBooleans(key, result);
+		target.setList(key, result);
+		return true;
+	}
+
+	// Loading - Primitive arrays //
+
+	private static boolean loadArrayFromLine(final DataMap target, final char type, final String key, final String value) {
+		return switch (type) {
+		case 'I' -> loadIntArray(target, key, value);
+		case 'L' -> loadLongArray(target, key, value);
+		case 'D' -> loadDoubleArray(target, key, value);
+		default -> false;
+		};
+	}
+
+	private static boolean loadIntArray(final DataMap target, final String key, final String lstStr) {
+		final String[] elements = lstStr.split(",");
+		final int[] result = new int[elements.length];
+		for (int i = 0; i < result.length; i++)
+			result[i] = Integer.parseInt(elements[i]);
+		target.set(key, result);
+		return true;
+	}
+
+	private static boolean loadLongArray(final DataMap target, final String key, final String lstStr) {
+		final String[] elements = lstStr.split(",");
+		final long[] result = new long[elements.length];
+		for (int i = 0; i < result.length; i++)
+			result[i] = Long.parseLong(elements[i]);
+		target.set(key, result);
+		return true;
+	}
+
+	private static boolean loadDoubleArray(final DataMap target, final String key, final String lstStr) {
+		final String[] elements = lstStr.split(",");
+		final double[] result = new double[elements.length];
+		for (int i = 0; i < result.length; i++)
+			result[i] = Double.parseDouble(elements[i]);
+		target.set(key, result);
 		return true;
 	}
 }
@@ -0,0 +1,74 @@
+package net.codersky.skyutils.storage.files;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The keys changed by updating an {@link UpdatableFile}. Keys are reported with
+ * their full path, such as "a.b.c", and sections that were added or removed
+ * as a whole are reported as a single key, without their nested keys.
+ *
+ * @since SkyUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+public final class UpdateReport {
+
+	private final List<String> added;
+	private final List<String> removed;
+
+	/**
+	 * Creates a new {@link UpdateReport}.
+	 *
+	 * @param added The keys that were added.
+	 * @param removed The keys that were removed.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public UpdateReport(@NotNull List<String> added, @NotNull List<String> removed) {
+		this.added = Collections.unmodifiableList(added);
+		this.removed = Collections.unmodifiableList(removed);
+	}
+
+	/**
+	 * Gets the keys that were added by the update, as they were missing from the file.
+	 *
+	 * @return An unmodifiable {@link List} with the keys that were added.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public List<String> getAdded() {
+		return added;
+	}
+
+	/**
+	 * Gets the keys that were removed by the update, as they are no longer used.
+	 *
+	 * @return An unmodifiable {@link List} with the keys that were removed.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public List<String> getRemoved() {
+		return removed;
+	}
+
+	/**
+	 * Checks if the update added or removed any key.
+	 *
+	 * @return {@code true} if the update changed the file, {@code false} otherwise.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public boolean hasChanges() {
+		return !added.isEmpty() || !removed.isEmpty();
+	}
+
+	@Override
+	public String toString() {
+		return "UpdateReport{added=" + added + ", removed=" + removed + "}";
+	}
+}
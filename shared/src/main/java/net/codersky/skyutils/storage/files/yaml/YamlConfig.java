@@ -9,10 +9,18 @@ import java.io.File;
 
 public class YamlConfig extends YamlFile implements Config {
 
+	public YamlConfig(@NotNull SkyUtils<?> utils, @Nullable File parent, @NotNull String path, boolean concurrent) {
+		super(utils, parent, path, concurrent);
+	}
+
 	public YamlConfig(@NotNull SkyUtils<?> utils, @Nullable File parent, @NotNull String path) {
 		super(utils, parent, path);
 	}
 
+	public YamlConfig(@NotNull SkyUtils<?> utils, @NotNull String path, boolean concurrent) {
+		super(utils, path, concurrent);
+	}
+
 	public YamlConfig(@NotNull SkyUtils<?> utils, @NotNull String path) {
 		super(utils, path);
 	}
@@ -1,45 +1,70 @@
 package net.codersky.skyutils.storage.files.yaml;
 
-import net.codersky.skyutils.Reloadable;
 import net.codersky.skyutils.SkyUtils;
+import net.codersky.skyutils.StagedReloadable;
 import net.codersky.skyutils.java.SkyFiles;
 import net.codersky.skyutils.storage.DataHandler;
 import net.codersky.skyutils.storage.DataMap;
+import net.codersky.skyutils.storage.files.AsyncSaver;
 import net.codersky.skyutils.storage.files.UpdatableFile;
+import net.codersky.skyutils.storage.files.UpdateReport;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import org.yaml.snakeyaml.DumperOptions;
-import org.yaml.snakeyaml.Yaml;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.BooleanSupplier;
 
-public class YamlFile implements DataHandler, Reloadable, UpdatableFile {
+public class YamlFile implements DataHandler, StagedReloadable, UpdatableFile {
 
-	protected final DataMap data = new DataMap(true);
+	protected final DataMap data;
 	protected final ClassLoader loader;
-	protected final Yaml yaml;
+	protected final YamlStreams streams;
 	protected final File file;
 	protected final String resourcePath;
 
-	public YamlFile(@NotNull SkyUtils<?> utils, @Nullable File parent, @NotNull String path) {
+	/**
+	 * Creates a new {@link YamlFile}.
+	 *
+	 * @param utils The {@link SkyUtils} instance used to get the resource of this file.
+	 * @param parent The parent folder of the file, can be {@code null}.
+	 * @param path The path of the file, relative to {@code parent}, which is
+	 * also the path of the resource of this file.
+	 * @param concurrent Whether the {@link DataMap} of this file can be safely accessed
+	 * from multiple threads or not. This allows reading the file from async tasks while
+	 * it is being saved, read {@link DataMap} for more information.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public YamlFile(@NotNull SkyUtils<?> utils, @Nullable File parent, @NotNull String path, boolean concurrent) {
+		this.data = new DataMap(true, concurrent);
 		this.loader = utils.getPlugin().getClass().getClassLoader();
-		this.yaml = getNewYaml();
+		this.streams = new YamlStreams();
 		this.file = new File(parent, path);
 		this.resourcePath = path;
 	}
 
+	public YamlFile(@NotNull SkyUtils<?> utils, @Nullable File parent, @NotNull String path) {
+		this(utils, parent, path, false);
+	}
+
+	public YamlFile(@NotNull SkyUtils<?> utils, @NotNull String path, boolean concurrent) {
+		this(utils, utils.getDataFolder(), path, concurrent);
+	}
+
 	public YamlFile(@NotNull SkyUtils<?> utils, @NotNull String path) {
-		this(utils, utils.getDataFolder(), path);
+		this(utils, utils.getDataFolder(), path, false);
 	}
 
 	/*
@@ -52,17 +77,6 @@ public class YamlFile implements DataHandler, Reloadable, UpdatableFile {
 		return data;
 	}
 
-	/*
-	 * SnakeYaml utilities
-	 */
-
-	@NotNull
-	private Yaml getNewYaml() {
-		final DumperOptions dumperOptions = new DumperOptions();
-		dumperOptions.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
-		return new Yaml(dumperOptions);
-	}
-
 	/*
 	 * File handling
 	 */
@@ -82,51 +96,69 @@ public class YamlFile implements DataHandler, Reloadable, UpdatableFile {
 		return SkyFiles.create(file) && update() && save();
 	}
 
-	public boolean save() {
+	/**
+	 * Saves this {@link YamlFile}. The file is written
+	 * {@link AsyncSaver#writeAtomically(File, AsyncSaver.WriteAction) atomically},
+	 * and saves of the same instance never run at the same time.
+	 *
+	 * @return {@code true} if this {@link YamlFile} saved correctly, {@code false} otherwise.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public synchronized boolean save() {
 		if (!getMap().isModified())
 			return true;
-		if (!exists() && !SkyFiles.create(file))
-			return false;
+		final DataMap.Snapshot snapshot = data.snapshot();
 		try {
-			final FileWriter writer = new FileWriter(file, StandardCharsets.UTF_8);
-			yaml.dump(data.getInternalMap(), writer);
-			writer.close();
-			getMap().setModified(false);
-			return true;
+			AsyncSaver.writeAtomically(file, out -> {
+				final Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+				streams.dump(snapshot.getContent(), writer);
+				writer.flush();
+			});
 		} catch (IOException e) {
 			return false;
 		}
+		data.markSaved(snapshot.getVersion());
+		return true;
 	}
 
 	/*
-	 * Reloadable implementation
+	 * StagedReloadable implementation
 	 */
 
+	@Override
 	public boolean reload() {
-		try {
-			data.clear();
-			final HashMap<String, Object> loadedMap = this.yaml.load(new FileInputStream(this.file));
-			if (loadedMap != null) // May be null on empty files
-				data.getInternalMap().putAll(loadedMap);
-			return true;
-		} catch (FileNotFoundException | SecurityException ex) {
-			return false;
+		return StagedReloadable.super.reload();
+	}
+
+	/**
+	 * Prepares a reload of this {@link YamlFile}, loading its file
+	 * on the current thread. Read {@link StagedReloadable} for more information.
+	 *
+	 * @return The action that applies the reload, {@code null} if the file couldn't be read.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@Nullable
+	@Override
+	public BooleanSupplier prepareReload() {
+		final Map<String, Object> loaded;
+		try (InputStream stream = new FileInputStream(this.file)) {
+			loaded = streams.load(stream, data.isConcurrent());
+		} catch (IOException | SecurityException ex) {
+			return null;
 		}
+		return () -> {
+			// Loaded content is published at once, so concurrent readers never see a partially loaded file.
+			data.reset(loaded);
+			return true;
+		};
 	}
 
 	/*
 	 * UpdatableFile implementation
 	 */
 
-	private boolean isIgnored(String path, @Nullable List<String> ignored) {
-		if (ignored == null)
-			return false;
-		for (String ignoredPath : ignored)
-			if (path.startsWith(ignoredPath))
-				return true;
-		return false;
-	}
-
 	/**
 	 * Gets the updated {@link InputStream} of this {@link YamlFile}.
 	 * By default, this method uses the {@link ClassLoader} of the
@@ -146,33 +178,140 @@ public class YamlFile implements DataHandler, Reloadable, UpdatableFile {
 	}
 
 	public boolean update(@Nullable List<String> ignored) {
-		int changes = 0;
-		final InputStream updated = getUpdatedStream();
-		if (updated == null)
-			return false;
-		final HashMap<String, Object> internalMap = data.getInternalMap();
-		final HashMap<String, Object> updMap = getNewYaml().load(updated);
-		// Add new keys
-		for (Map.Entry<String, Object> entry : updMap.entrySet()) {
-			if (!internalMap.containsKey(entry.getKey()) && !isIgnored(entry.getKey(), ignored)) {
-				internalMap.put(entry.getKey(), entry.getValue());
-				changes++;
+		return updateWithReport(ignored) != null;
+	}
+
+	/**
+	 * Updates this {@link YamlFile} with its {@link #getUpdatedStream() updated resource},
+	 * merging every section recursively. Keys missing from the file are added, keys that
+	 * the resource no longer has are removed, and any other key keeps its current value.
+	 * The file is saved once, and only if the update changed it.
+	 * <p>
+	 * A key is ignored if its full path, such as "a.b.c", starts with any of the
+	 * {@code ignored} paths, so ignoring "a.b" ignores every key inside of it too.
+	 *
+	 * @param ignored A list of paths that shall be ignored, {@code null}
+	 * or an empty list indicates no paths are ignored.
+	 *
+	 * @return An {@link UpdateReport} with the keys that were added and removed,
+	 * {@code null} if the update or the save failed.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@Nullable
+	public UpdateReport updateWithReport(@Nullable List<String> ignored) {
+		final Map<String, Object> updMap;
+		try (InputStream updated = getUpdatedStream()) {
+			if (updated == null)
+				return null;
+			updMap = streams.load(updated, data.isConcurrent());
+		} catch (IOException e) {
+			return null;
+		}
+		if (updMap.isEmpty())
+			return null;
+		final IgnoredPaths ignoredPaths = IgnoredPaths.of(ignored);
+		final UpdateReport[] report = new UpdateReport[1];
+		final boolean changed = data.edit(internalMap -> {
+			// May be called more than once on concurrent maps, so the report is rebuilt on every call.
+			final List<String> added = new ArrayList<>();
+			final List<String> removed = new ArrayList<>();
+			final Map<String, Object> merged = merge(internalMap, updMap, ignoredPaths, "", added, removed);
+			report[0] = new UpdateReport(added, removed);
+			if (merged == internalMap)
+				return false;
+			internalMap.clear();
+			internalMap.putAll(merged);
+			return true;
+		});
+		if (!changed)
+			return report[0];
+		return save() ? report[0] : null;
+	}
+
+	/**
+	 * Merges a section with its updated version. Nested maps may be shared with snapshots on
+	 * concurrent maps, so sections are never modified, they are copied once something changes.
+	 *
+	 * @return {@code current} if nothing changed, otherwise, the merged copy of {@code current}.
+	 */
+	@SuppressWarnings("unchecked")
+	@NotNull
+	private static Map<String, Object> merge(@NotNull Map<String, Object> current, @NotNull Map<String, Object> updated,
+			@Nullable IgnoredPaths ignored, @NotNull String parent, @NotNull List<String> added, @NotNull List<String> removed) {
+		LinkedHashMap<String, Object> result = null;
+		for (Map.Entry<String, Object> entry : updated.entrySet()) {
+			final String key = entry.getKey();
+			final IgnoredPaths node = IgnoredPaths.walk(ignored, key);
+			if (node == IgnoredPaths.IGNORED)
+				continue;
+			final Object value = current.get(key);
+			if (value == null && !current.containsKey(key)) {
+				if (result == null)
+					result = new LinkedHashMap<>(current);
+				result.put(key, entry.getValue());
+				added.add(parent + key);
+			} else if (value instanceof Map<?, ?> section && entry.getValue() instanceof Map<?, ?> updatedSection) {
+				final Map<String, Object> merged = merge((Map<String, Object>) section, (Map<String, Object>) updatedSection,
+						node == null ? null : node.children.get('.'), parent + key + '.', added, removed);
+				if (merged != section) {
+					if (result == null)
+						result = new LinkedHashMap<>(current);
+					result.put(key, merged);
+				}
 			}
 		}
-		// Remove old keys
-		for (Map.Entry<String, Object> entry : internalMap.entrySet()) {
-			if (!updMap.containsKey(entry.getKey()) && !isIgnored(entry.getKey(), ignored)) {
-				internalMap.remove(entry.getKey());
-				changes++;
+		for (String key : current.keySet()) {
+			if (updated.containsKey(key) || IgnoredPaths.walk(ignored, key) == IgnoredPaths.IGNORED)
+				continue;
+			if (result == null)
+				result = new LinkedHashMap<>(current);
+			result.remove(key);
+			removed.add(parent + key);
+		}
+		return result == null ? current : result;
+	}
+
+	/**
+	 * Prefix trie of ignored paths, walked along with the sections being merged,
+	 * so checking a key only costs as much as its length, not the amount of ignored
+	 * paths, and sections without ignored paths inside aren't checked at all.
+	 */
+	private static final class IgnoredPaths {
+
+		private static final IgnoredPaths IGNORED = new IgnoredPaths();
+
+		private final HashMap<Character, IgnoredPaths> children = new HashMap<>();
+		private boolean end = false;
+
+		@Nullable
+		private static IgnoredPaths of(@Nullable List<String> ignored) {
+			if (ignored == null || ignored.isEmpty())
+				return null;
+			final IgnoredPaths root = new IgnoredPaths();
+			for (String path : ignored) {
+				IgnoredPaths node = root;
+				for (int i = 0; i < path.length(); i++)
+					node = node.children.computeIfAbsent(path.charAt(i), ch -> new IgnoredPaths());
+				node.end = true;
 			}
+			return root;
 		}
-		try {
-			if (changes != 0)
-				save();
-			updated.close();
-			return true;
-		} catch (IOException e) {
-			return false;
+
+		/**
+		 * Walks {@code key} from {@code node}.
+		 *
+		 * @return {@link #IGNORED} if {@code key} is ignored, {@code null} if no ignored
+		 * path continues after {@code key}, otherwise, the node reached after {@code key}.
+		 */
+		@Nullable
+		private static IgnoredPaths walk(@Nullable IgnoredPaths node, @NotNull String key) {
+			for (int i = 0; node != null && i < key.length(); i++) {
+				if (node.end)
+					return IGNORED;
+				node = node.children.get(key.charAt(i));
+			}
+			return node != null && node.end ? IGNORED : node;
 		}
 	}
 
@@ -1,16 +1,23 @@
 package net.codersky.skyutils.storage.files.yaml;
 
 import net.codersky.skyutils.SkyUtils;
+import net.codersky.skyutils.crossplatform.MessageReceiver;
+import net.codersky.skyutils.java.strings.MessageTemplate;
 import net.codersky.skyutils.java.strings.Replacer;
+import net.codersky.skyutils.java.strings.SkyStrings;
 import net.codersky.skyutils.storage.files.MessagesFile;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
 
 public class YamlMessages extends YamlFile implements MessagesFile {
 
 	private Replacer defReplacer = null;
+	private final ConcurrentHashMap<String, MessageTemplate> templates = new ConcurrentHashMap<>();
 
 	public YamlMessages(@NotNull SkyUtils<?> utils, @Nullable File parent, @NotNull String path) {
 		super(utils, parent, path);
@@ -20,6 +27,70 @@ public class YamlMessages extends YamlFile implements MessagesFile {
 		super(utils, path);
 	}
 
+	/*
+	 * Templates
+	 */
+
+	@Nullable
+	@Override
+	public BooleanSupplier prepareReload() {
+		final BooleanSupplier apply = super.prepareReload();
+		if (apply == null)
+			return null;
+		return () -> {
+			final boolean applied = apply.getAsBoolean();
+			buildTemplates();
+			return applied;
+		};
+	}
+
+	private void buildTemplates() {
+		templates.clear();
+		buildTemplates("", data.snapshot().getContent());
+	}
+
+	private void buildTemplates(@NotNull String parent, @NotNull Map<?, ?> map) {
+		for (Map.Entry<?, ?> entry : map.entrySet()) {
+			final String path = parent + entry.getKey();
+			if (entry.getValue() instanceof String raw)
+				templates.put(path, new MessageTemplate(raw, defReplacer));
+			else if (entry.getValue() instanceof Map<?, ?> section)
+				buildTemplates(path + '.', section);
+		}
+	}
+
+	/**
+	 * Gets the {@link MessageTemplate} of the message at the specified {@code path}.
+	 * Templates are built for every message on {@link #reload()}, and rebuilt if
+	 * the message is modified afterwards or if the {@link #setDefaultReplacer(Replacer)
+	 * default replacer} changes or gets new replacements {@link Replacer#add(Object...) added}.
+	 *
+	 * @param path The path of the message to get.
+	 *
+	 * @return The {@link MessageTemplate} of the message at the specified {@code path},
+	 * {@code null} if no message is stored on said {@code path}.
+	 *
+	 * @throws NullPointerException If {@code path} is {@code null}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@Nullable
+	public MessageTemplate getTemplate(@NotNull String path) {
+		final String raw = getRawMessage(path);
+		if (raw == null)
+			return null;
+		final MessageTemplate template = templates.get(path);
+		if (template != null && template.isFrom(raw, defReplacer))
+			return template;
+		final MessageTemplate updated = new MessageTemplate(raw, defReplacer);
+		templates.put(path, updated);
+		return updated;
+	}
+
+	/*
+	 * MessagesFile implementation
+	 */
+
 	@Nullable
 	@Override
 	public Replacer getDefaultReplacer() {
@@ -30,6 +101,7 @@ public class YamlMessages extends YamlFile implements MessagesFile {
 	@Override
 	public MessagesFile setDefaultReplacer(@Nullable Replacer replacer) {
 		this.defReplacer = replacer;
+		buildTemplates();
 		return this;
 	}
 
@@ -38,4 +110,34 @@ public class YamlMessages extends YamlFile implements MessagesFile {
 	public String getRawMessage(@NotNull String path) {
 		return getMap().get(path, String.class);
 	}
+
+	@Nullable
+	@Override
+	public String getMessage(@NotNull String path) {
+		final MessageTemplate template = getTemplate(path);
+		return template == null ? null : template.getMessage();
+	}
+
+	@Nullable
+	@Override
+	public String getMessage(@NotNull String path, @NotNull Replacer replacer) {
+		final MessageTemplate template = getTemplate(path);
+		return template == null ? null : template.apply(replacer);
+	}
+
+	@Nullable
+	@Override
+	public String getMessage(@NotNull String path, @NotNull Object... replacements) {
+		final MessageTemplate template = getTemplate(path);
+		return template == null ? null : template.apply(new Replacer(replacements));
+	}
+
+	@Override
+	public boolean send(@NotNull MessageReceiver target, @NotNull String path) {
+		// Templates already have color patterns applied, and applying them again makes no difference.
+		final String message = getMessage(path);
+		if (message != null && !message.isBlank())
+			SkyStrings.sendMessage(target, message, false);
+		return true;
+	}
 }
@@ -0,0 +1,459 @@
+package net.codersky.skyutils.storage.files.yaml;
+
+import net.codersky.skyutils.storage.TypedList;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.constructor.Construct;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+import org.yaml.snakeyaml.emitter.Emitter;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.events.AliasEvent;
+import org.yaml.snakeyaml.events.DocumentEndEvent;
+import org.yaml.snakeyaml.events.DocumentStartEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.ImplicitTuple;
+import org.yaml.snakeyaml.events.MappingEndEvent;
+import org.yaml.snakeyaml.events.MappingStartEvent;
+import org.yaml.snakeyaml.events.NodeEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.events.SequenceEndEvent;
+import org.yaml.snakeyaml.events.SequenceStartEvent;
+import org.yaml.snakeyaml.events.StreamEndEvent;
+import org.yaml.snakeyaml.events.StreamStartEvent;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.NodeTuple;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.SequenceNode;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.parser.Parser;
+import org.yaml.snakeyaml.parser.ParserImpl;
+import org.yaml.snakeyaml.reader.StreamReader;
+import org.yaml.snakeyaml.reader.UnicodeReader;
+import org.yaml.snakeyaml.representer.Representer;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Loads and dumps YAML documents directly from and to the maps stored on a
+ * {@link net.codersky.skyutils.storage.DataMap DataMap}, working with the events of
+ * SnakeYAML instead of its node graph. Loading a document builds its maps and
+ * {@link TypedList lists} while it is being parsed, and dumping a map emits it while
+ * it is being traversed, so neither holds the whole document twice in memory.
+ * <p>
+ * Documents are loaded the same way a default {@link org.yaml.snakeyaml.Yaml Yaml}
+ * instance would, with a few differences: Keys are always converted to strings, as
+ * {@link net.codersky.skyutils.storage.DataMap DataMaps} only use string keys, tags of
+ * mappings and sequences are ignored, and {@link UUID UUIDs} can be loaded back, as they
+ * are dumped with their own tag. Instances of this class can be used from multiple threads.
+ *
+ * @since SkyUtils 1.0.0
+ *
+ * @author xDec0de_
+ */
+public final class YamlStreams {
+
+	private static final Tag UUID_TAG = new Tag(UUID.class);
+	private static final Pattern MULTILINE = Pattern.compile("\\n|\\u0085|\\u2028|\\u2029");
+
+	private final DumperOptions dumperOptions;
+	private final LoaderOptions loaderOptions;
+	private final Resolver resolver = new Resolver();
+
+	/**
+	 * Creates a new {@link YamlStreams} instance.
+	 *
+	 * @param dumperOptions The {@link DumperOptions} used to dump documents.
+	 * @param loaderOptions The {@link LoaderOptions} used to load documents.
+	 *
+	 * @throws NullPointerException if any parameter is {@code null}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public YamlStreams(@NotNull DumperOptions dumperOptions, @NotNull LoaderOptions loaderOptions) {
+		this.dumperOptions = Objects.requireNonNull(dumperOptions, "Dumper options cannot be null");
+		this.loaderOptions = Objects.requireNonNull(loaderOptions, "Loader options cannot be null");
+	}
+
+	/**
+	 * Creates a new {@link YamlStreams} instance that uses the default {@link LoaderOptions}
+	 * and dumps documents with the {@link DumperOptions.FlowStyle#BLOCK block} flow style.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public YamlStreams() {
+		this(newBlockOptions(), new LoaderOptions());
+	}
+
+	@NotNull
+	private static DumperOptions newBlockOptions() {
+		final DumperOptions options = new DumperOptions();
+		options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+		return options;
+	}
+
+	/*
+	 * Loading
+	 */
+
+	/**
+	 * Loads the first and only document of a YAML stream, which must be a mapping.
+	 * The stream is decoded in chunks, detecting its encoding from its byte order
+	 * mark, so it doesn't need to be buffered. It isn't closed by this method.
+	 *
+	 * @param stream The {@link InputStream} to load.
+	 * @param immutableLists Whether loaded lists should be {@link TypedList#isImmutable()
+	 * immutable}, as {@link net.codersky.skyutils.storage.DataMap#isConcurrent() concurrent}
+	 * maps require.
+	 *
+	 * @return The loaded mapping, which is empty if the stream has no document or the document is empty.
+	 *
+	 * @throws YAMLException if the stream can't be read, isn't valid YAML,
+	 * has more than one document or its document isn't a mapping.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public LinkedHashMap<String, Object> load(@NotNull InputStream stream, boolean immutableLists) {
+		final Parser parser = new ParserImpl(new StreamReader(new UnicodeReader(stream)), loaderOptions);
+		return new Loader(parser, immutableLists).loadDocument();
+	}
+
+	private final class Loader {
+
+		private final Parser parser;
+		private final boolean immutableLists;
+		private final ScalarConstructor constructor = new ScalarConstructor(loaderOptions);
+		private final HashMap<String, Object> anchors = new HashMap<>();
+		private int collectionAliases = 0;
+
+		private Loader(@NotNull Parser parser, boolean immutableLists) {
+			this.parser = parser;
+			this.immutableLists = immutableLists;
+		}
+
+		@NotNull
+		private LinkedHashMap<String, Object> loadDocument() {
+			parser.getEvent(); // Stream start
+			if (parser.checkEvent(Event.ID.StreamEnd))
+				return new LinkedHashMap<>();
+			parser.getEvent(); // Document start
+			final Object root = readNode(parser.getEvent());
+			parser.getEvent(); // Document end
+			if (!parser.checkEvent(Event.ID.StreamEnd))
+				throw new YAMLException("Expected a single document in the stream, but found another document");
+			if (root == null)
+				return new LinkedHashMap<>();
+			if (!(root instanceof LinkedHashMap<?, ?>))
+				throw new YAMLException("Expected a mapping as the root of the document, found " + root.getClass().getSimpleName());
+			@SuppressWarnings("unchecked")
+			final LinkedHashMap<String, Object> map = (LinkedHashMap<String, Object>) root;
+			return map;
+		}
+
+		@Nullable
+		private Object readNode(@NotNull Event event) {
+			final Object value = switch (event.getEventId()) {
+				case Alias -> readAlias((AliasEvent) event);
+				case Scalar -> readScalar((ScalarEvent) event);
+				case SequenceStart -> readSequence();
+				case MappingStart -> readMapping();
+				default -> throw new YAMLException("Unexpected event " + event);
+			};
+			// Anchors are registered once their node is complete, so recursive nodes aren't supported.
+			if (!(event instanceof AliasEvent) && ((NodeEvent) event).getAnchor() != null)
+				anchors.put(((NodeEvent) event).getAnchor(), value);
+			return value;
+		}
+
+		@Nullable
+		private Object readAlias(@NotNull AliasEvent event) {
+			final String anchor = event.getAnchor();
+			if (!anchors.containsKey(anchor))
+				throw new YAMLException("Found undefined alias " + anchor);
+			final Object value = anchors.get(anchor);
+			// Aliased collections are shared, but dumping them expands every alias.
+			if ((value instanceof Map<?, ?> || value instanceof List<?>) && ++collectionAliases > loaderOptions.getMaxAliasesForCollections())
+				throw new YAMLException("Number of aliases for non-scalar nodes exceeds the specified max=" + loaderOptions.getMaxAliasesForCollections());
+			return value;
+		}
+
+		@NotNull
+		private Tag getTag(@NotNull ScalarEvent event) {
+			final String tag = event.getTag();
+			if (tag == null || tag.equals("!"))
+				return resolver.resolve(NodeId.scalar, event.getValue(), event.getImplicit().canOmitTagInPlainScalar());
+			return new Tag(tag);
+		}
+
+		@Nullable
+		private Object readScalar(@NotNull ScalarEvent event) {
+			final Tag tag = getTag(event);
+			if (tag.equals(Tag.STR))
+				return event.getValue();
+			if (tag.equals(UUID_TAG)) {
+				try {
+					return UUID.fromString(event.getValue());
+				} catch (IllegalArgumentException e) {
+					throw new YAMLException("Invalid UUID " + event.getValue() + " at " + event.getStartMark(), e);
+				}
+			}
+			return constructor.construct(new ScalarNode(tag, event.getValue(), event.getStartMark(), event.getEndMark(), event.getScalarStyle()));
+		}
+
+		@NotNull
+		private List<Object> readSequence() {
+			final TypedList<Object> list = new TypedList<>();
+			Event event;
+			while (!(event = parser.getEvent()).is(Event.ID.SequenceEnd))
+				list.add(readNode(event));
+			return immutableLists ? TypedList.immutableCopyOf(list) : list;
+		}
+
+		@NotNull
+		private LinkedHashMap<String, Object> readMapping() {
+			final LinkedHashMap<String, Object> map = new LinkedHashMap<>();
+			List<Map<?, ?>> merged = null;
+			Event event;
+			while (!(event = parser.getEvent()).is(Event.ID.MappingEnd)) {
+				if (event instanceof ScalarEvent scalar && getTag(scalar).equals(Tag.MERGE)) {
+					if (merged == null)
+						merged = new ArrayList<>(1);
+					addMerged(merged, readNode(parser.getEvent()));
+				} else
+					map.put(String.valueOf(readNode(event)), readNode(parser.getEvent()));
+			}
+			return merged == null ? map : merge(merged, map);
+		}
+
+		private void addMerged(@NotNull List<Map<?, ?>> merged, @Nullable Object value) {
+			if (value instanceof Map<?, ?> map)
+				merged.add(map);
+			else if (value instanceof List<?> list) {
+				for (Object element : list) {
+					if (!(element instanceof Map<?, ?> map))
+						throw new YAMLException("Expected a mapping for merging, but found " + element);
+					merged.add(map);
+				}
+			} else
+				throw new YAMLException("Expected a mapping or list of mappings for merging, but found " + value);
+		}
+
+		// Merged keys go first, earlier merges win over later ones and explicit keys win over every merge.
+		@NotNull
+		private LinkedHashMap<String, Object> merge(@NotNull List<Map<?, ?>> merged, @NotNull Map<String, Object> explicit) {
+			final LinkedHashMap<String, Object> result = new LinkedHashMap<>();
+			for (Map<?, ?> map : merged)
+				for (Map.Entry<?, ?> entry : map.entrySet())
+					result.putIfAbsent(String.valueOf(entry.getKey()), entry.getValue());
+			result.putAll(explicit);
+			return result;
+		}
+	}
+
+	private static final class ScalarConstructor extends SafeConstructor {
+
+		private ScalarConstructor(@NotNull LoaderOptions options) {
+			super(options);
+		}
+
+		@Nullable
+		private Object construct(@NotNull ScalarNode node) {
+			Construct construct = yamlConstructors.get(node.getTag());
+			if (construct == null)
+				construct = yamlConstructors.get(null); // Throws on unknown tags
+			return construct.construct(node);
+		}
+	}
+
+	/*
+	 * Dumping
+	 */
+
+	/**
+	 * Dumps a map as a YAML document. Maps, {@link List lists}, primitive arrays, strings,
+	 * numbers, booleans, characters and {@link UUID UUIDs} are emitted directly, while any
+	 * other value is represented the same way a default {@link org.yaml.snakeyaml.Yaml Yaml}
+	 * instance would. {@code writer} is flushed, but not closed, once the document is dumped.
+	 *
+	 * @param content The map to dump.
+	 * @param writer The {@link Writer} to dump to, which should be buffered.
+	 *
+	 * @throws IOException if an I/O error occurs.
+	 * @throws YAMLException if {@code content} contains a recursive object that can't be dumped.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public void dump(@NotNull Map<String, ?> content, @NotNull Writer writer) throws IOException {
+		final Emitter emitter = new Emitter(writer, dumperOptions);
+		emitter.emit(new StreamStartEvent(null, null));
+		emitter.emit(new DocumentStartEvent(null, null, dumperOptions.isExplicitStart(), dumperOptions.getVersion(), dumperOptions.getTags()));
+		new Dumper(emitter).dumpMapping(content);
+		emitter.emit(new DocumentEndEvent(null, null, dumperOptions.isExplicitEnd()));
+		emitter.emit(new StreamEndEvent(null, null));
+	}
+
+	private final class Dumper {
+
+		private final Emitter emitter;
+		@Nullable
+		private Representer representer;
+
+		private Dumper(@NotNull Emitter emitter) {
+			this.emitter = emitter;
+		}
+
+		private void dumpValue(@Nullable Object value) throws IOException {
+			switch (value) {
+				case null -> dumpScalar(Tag.NULL, "null");
+				case String str -> dumpString(str);
+				case Map<?, ?> map -> dumpMapping(map);
+				case List<?> list -> dumpSequence(list);
+				case Boolean bool -> dumpScalar(Tag.BOOL, bool.toString());
+				case Integer num -> dumpScalar(Tag.INT, num.toString());
+				case Long num -> dumpScalar(Tag.INT, num.toString());
+				case Short num -> dumpScalar(Tag.INT, num.toString());
+				case Byte num -> dumpScalar(Tag.INT, num.toString());
+				case BigInteger num -> dumpScalar(Tag.INT, num.toString());
+				case Double num -> dumpScalar(Tag.FLOAT, toFloatScalar(num));
+				case Float num -> dumpScalar(Tag.FLOAT, toFloatScalar(num));
+				case Character ch -> dumpString(ch.toString());
+				case UUID uuid -> dumpScalar(UUID_TAG, uuid.toString());
+				case int[] arr -> {
+					startSequence();
+					for (int i : arr)
+						dumpScalar(Tag.INT, Integer.toString(i));
+					endSequence();
+				}
+				case long[] arr -> {
+					startSequence();
+					for (long l : arr)
+						dumpScalar(Tag.INT, Long.toString(l));
+					endSequence();
+				}
+				case double[] arr -> {
+					startSequence();
+					for (double d : arr)
+						dumpScalar(Tag.FLOAT, toFloatScalar(d));
+					endSequence();
+				}
+				default -> dumpNode(getRepresenter().represent(value));
+			}
+		}
+
+		// Same format SnakeYAML uses, floats keep their own representation, so 0.1f isn't dumped as 0.10000000149011612.
+		@NotNull
+		private String toFloatScalar(@NotNull Number value) {
+			final double d = value.doubleValue();
+			if (Double.isNaN(d))
+				return ".NaN";
+			if (Double.isInfinite(d))
+				return d > 0 ? ".inf" : "-.inf";
+			return value.toString();
+		}
+
+		private void dumpString(@NotNull String value) throws IOException {
+			DumperOptions.ScalarStyle style = dumperOptions.getDefaultScalarStyle();
+			if (style == DumperOptions.ScalarStyle.PLAIN && MULTILINE.matcher(value).find())
+				style = DumperOptions.ScalarStyle.LITERAL;
+			final boolean plainImplicit = resolver.resolve(NodeId.scalar, value, true).equals(Tag.STR);
+			emitter.emit(new ScalarEvent(null, Tag.STR.getValue(), new ImplicitTuple(plainImplicit, true), value, null, null, style));
+		}
+
+		private void dumpScalar(@NotNull Tag tag, @NotNull String value) throws IOException {
+			dumpScalar(tag, value, dumperOptions.getDefaultScalarStyle());
+		}
+
+		private void dumpScalar(@NotNull Tag tag, @NotNull String value, @NotNull DumperOptions.ScalarStyle style) throws IOException {
+			final ImplicitTuple implicit = new ImplicitTuple(
+					tag.equals(resolver.resolve(NodeId.scalar, value, true)),
+					tag.equals(resolver.resolve(NodeId.scalar, value, false)));
+			emitter.emit(new ScalarEvent(null, tag.getValue(), implicit, value, null, null, style));
+		}
+
+		private void dumpMapping(@NotNull Map<?, ?> map) throws IOException {
+			emitter.emit(new MappingStartEvent(null, Tag.MAP.getValue(), true, null, null, dumperOptions.getDefaultFlowStyle()));
+			for (Map.Entry<?, ?> entry : map.entrySet()) {
+				dumpValue(entry.getKey());
+				dumpValue(entry.getValue());
+			}
+			emitter.emit(new MappingEndEvent(null, null));
+		}
+
+		private void dumpSequence(@NotNull List<?> list) throws IOException {
+			startSequence();
+			for (Object element : list)
+				dumpValue(element);
+			endSequence();
+		}
+
+		private void startSequence() throws IOException {
+			emitter.emit(new SequenceStartEvent(null, Tag.SEQ.getValue(), true, null, null, dumperOptions.getDefaultFlowStyle()));
+		}
+
+		private void endSequence() throws IOException {
+			emitter.emit(new SequenceEndEvent(null, null));
+		}
+
+		/*
+		 * Fallback for other objects
+		 */
+
+		@NotNull
+		private Representer getRepresenter() {
+			if (representer == null) {
+				// Configured the same way the Yaml class configures its representer.
+				representer = new Representer(dumperOptions);
+				representer.setDefaultFlowStyle(dumperOptions.getDefaultFlowStyle());
+				representer.setDefaultScalarStyle(dumperOptions.getDefaultScalarStyle());
+				representer.getPropertyUtils().setAllowReadOnlyProperties(dumperOptions.isAllowReadOnlyProperties());
+				representer.setTimeZone(dumperOptions.getTimeZone());
+			}
+			return representer;
+		}
+
+		private void dumpNode(@NotNull Node node) throws IOException {
+			final Tag tag = node.getTag();
+			switch (node.getNodeId()) {
+				case scalar -> {
+					final ScalarNode scalar = (ScalarNode) node;
+					dumpScalar(tag, scalar.getValue(), scalar.getScalarStyle());
+				}
+				case sequence -> {
+					final SequenceNode sequence = (SequenceNode) node;
+					final boolean implicit = tag.equals(resolver.resolve(NodeId.sequence, null, true));
+					emitter.emit(new SequenceStartEvent(null, tag.getValue(), implicit, null, null, sequence.getFlowStyle()));
+					for (Node element : sequence.getValue())
+						dumpNode(element);
+					endSequence();
+				}
+				case mapping -> {
+					final MappingNode mapping = (MappingNode) node;
+					final boolean implicit = tag.equals(resolver.resolve(NodeId.mapping, null, true));
+					emitter.emit(new MappingStartEvent(null, tag.getValue(), implicit, null, null, mapping.getFlowStyle()));
+					for (NodeTuple tuple : mapping.getValue()) {
+						dumpNode(tuple.getKeyNode());
+						dumpNode(tuple.getValueNode());
+					}
+					emitter.emit(new MappingEndEvent(null, null));
+				}
+				default -> throw new YAMLException("Recursive objects can't be dumped");
+			}
+		}
+	}
+}
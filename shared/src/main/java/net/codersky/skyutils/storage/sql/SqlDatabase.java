@@ -0,0 +1,396 @@
+package net.codersky.skyutils.storage.sql;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * A pool of JDBC connections to a database, shared by every {@link SqlStorage} stored on it.
+ * Each pooled connection caches the {@link PreparedStatement statements} it prepares, so
+ * statements used by storages are only prepared once per connection.
+ * <p>
+ * SkyUtils doesn't include any JDBC driver, so the driver of the database must be provided
+ * by the platform or the plugin. Embedded databases such as SQLite, which is included on
+ * Spigot servers, or H2 in file mode, are supported through {@link #sqlite(File, int)}
+ * and {@link #h2(File, int)}. Keep in mind that SQLite only supports one writer at the
+ * same time, so a pool size of one is recommended for it.
+ * <p>
+ * Remember to {@link #close() close} the database when the plugin is disabled.
+ *
+ * @since SkyUtils 1.0.0
+ *
+ * @author xDec0de_
+ *
+ * @see SqlStorage
+ */
+public class SqlDatabase implements AutoCloseable {
+
+	private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+	private final String url;
+	@Nullable
+	private final Properties properties;
+	private final Queue<CachedConnection> idle = new ConcurrentLinkedQueue<>();
+	/** One permit per connection that can be in use, either idle or newly opened. */
+	private final Semaphore permits;
+	private final ExecutorService executor;
+	private final Set<String> createdTables = ConcurrentHashMap.newKeySet();
+	private volatile boolean closed = false;
+
+	/**
+	 * Creates a new {@link SqlDatabase}. Connections are opened once required.
+	 *
+	 * @param url The JDBC url of the database.
+	 * @param properties The connection properties, such as the user and password, can be {@code null}.
+	 * @param poolSize The maximum amount of connections open at the same time, which
+	 * is also the amount of threads used to run {@link #executeAsync(SqlTask) async} tasks.
+	 *
+	 * @throws NullPointerException if {@code url} is {@code null}.
+	 * @throws IllegalArgumentException if {@code poolSize} is lower than one.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public SqlDatabase(@NotNull String url, @Nullable Properties properties, int poolSize) {
+		this.url = Objects.requireNonNull(url, "Url cannot be null");
+		if (poolSize < 1)
+			throw new IllegalArgumentException("Pool size must be at least one");
+		this.properties = properties;
+		this.permits = new Semaphore(poolSize, true);
+		final AtomicInteger threads = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(poolSize, task -> {
+			final Thread thread = new Thread(task, "SkyUtils SqlDatabase #" + threads.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Creates a new {@link SqlDatabase} for a SQLite database file.
+	 *
+	 * @param file The database file, created if it doesn't exist.
+	 * @param poolSize The maximum amount of connections open at the same time.
+	 *
+	 * @return A new {@link SqlDatabase}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public static SqlDatabase sqlite(@NotNull File file, int poolSize) {
+		return new SqlDatabase("jdbc:sqlite:" + file.getAbsolutePath(), null, poolSize);
+	}
+
+	/**
+	 * Creates a new {@link SqlDatabase} for a H2 database in file mode.
+	 *
+	 * @param file The database file, without the ".mv.db" extension H2 adds to it.
+	 * @param poolSize The maximum amount of connections open at the same time.
+	 *
+	 * @return A new {@link SqlDatabase}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public static SqlDatabase h2(@NotNull File file, int poolSize) {
+		return new SqlDatabase("jdbc:h2:file:" + file.getAbsolutePath(), null, poolSize);
+	}
+
+	/*
+	 * Execution
+	 */
+
+	/**
+	 * Runs a task with a pooled connection on the current thread,
+	 * waiting for a connection to be available if every connection is in use.
+	 *
+	 * @param task The task to run.
+	 *
+	 * @return The result of {@code task}.
+	 *
+	 * @param <T> The type of result.
+	 *
+	 * @throws SQLException if a database error occurs or this {@link SqlDatabase} is closed.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public <T> T execute(@NotNull SqlTask<T> task) throws SQLException {
+		final CachedConnection connection = acquire();
+		boolean broken = true;
+		try {
+			final T result = task.run(connection);
+			broken = false;
+			return result;
+		} finally {
+			// Connections are discarded on errors, as they may be left on an unknown state.
+			release(connection, broken);
+		}
+	}
+
+	/**
+	 * Runs a task with a pooled connection inside a transaction on the current thread.
+	 * The transaction is committed once {@code task} finishes, or rolled back if it fails.
+	 *
+	 * @param task The task to run.
+	 *
+	 * @return The result of {@code task}.
+	 *
+	 * @param <T> The type of result.
+	 *
+	 * @throws SQLException if a database error occurs or this {@link SqlDatabase} is closed.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public <T> T transaction(@NotNull SqlTask<T> task) throws SQLException {
+		return execute(connection -> {
+			final Connection raw = connection.getConnection();
+			raw.setAutoCommit(false);
+			try {
+				final T result = task.run(connection);
+				raw.commit();
+				raw.setAutoCommit(true);
+				return result;
+			} catch (SQLException | RuntimeException e) {
+				try {
+					raw.rollback();
+				} catch (SQLException rollback) {
+					e.addSuppressed(rollback);
+				}
+				throw e;
+			}
+		});
+	}
+
+	/**
+	 * Runs a task with a pooled connection on one of the threads of this {@link SqlDatabase}.
+	 *
+	 * @param task The task to run.
+	 *
+	 * @return A {@link CompletableFuture} completed with the result of {@code task}, or
+	 * exceptionally with a {@link CompletionException} caused by the error of {@code task}.
+	 *
+	 * @param <T> The type of result.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public <T> CompletableFuture<T> executeAsync(@NotNull SqlTask<T> task) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return execute(task);
+			} catch (SQLException e) {
+				throw new CompletionException(e);
+			}
+		}, executor);
+	}
+
+	@NotNull
+	<T> CompletableFuture<T> supplyAsync(@NotNull Supplier<T> task) {
+		return CompletableFuture.supplyAsync(task, executor);
+	}
+
+	/*
+	 * Pool
+	 */
+
+	@NotNull
+	private CachedConnection acquire() throws SQLException {
+		if (closed)
+			throw new SQLException("The database is closed");
+		try {
+			permits.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while waiting for a connection", e);
+		}
+		if (closed) {
+			permits.release(); // Wakes the next waiter, so it fails too.
+			throw new SQLException("The database is closed");
+		}
+		final CachedConnection connection = idle.poll();
+		if (connection != null)
+			return connection;
+		// Every idle connection is in use or was discarded, so a new one takes its place.
+		try {
+			return new CachedConnection(properties == null ? DriverManager.getConnection(url) : DriverManager.getConnection(url, properties));
+		} catch (SQLException | RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	private void release(@NotNull CachedConnection connection, boolean broken) {
+		if (broken || closed)
+			connection.close();
+		else {
+			idle.offer(connection);
+			if (closed && idle.remove(connection)) // Closed while offering it.
+				connection.close();
+		}
+		permits.release();
+	}
+
+	/*
+	 * Tables
+	 */
+
+	/**
+	 * Creates the table used by {@link SqlStorage SqlStorages} if it doesn't exist yet.
+	 * Each table is only created once per {@link SqlDatabase}.
+	 *
+	 * @param table The name of the table.
+	 *
+	 * @throws SQLException if a database error occurs.
+	 * @throws IllegalArgumentException if {@code table} isn't a valid table name.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public void createTable(@NotNull String table) throws SQLException {
+		if (createdTables.contains(checkTableName(table)))
+			return;
+		execute(connection -> {
+			try (Statement statement = connection.getConnection().createStatement()) {
+				return statement.executeUpdate("CREATE TABLE IF NOT EXISTS " + table + " (" +
+						"storage_id VARCHAR(255) NOT NULL, " +
+						"data_key VARCHAR(255) NOT NULL, " +
+						"data TEXT NOT NULL, " +
+						"PRIMARY KEY (storage_id, data_key))");
+			}
+		});
+		createdTables.add(table);
+	}
+
+	@NotNull
+	static String checkTableName(@NotNull String table) {
+		if (!TABLE_NAME.matcher(table).matches())
+			throw new IllegalArgumentException("Invalid table name: " + table);
+		return table;
+	}
+
+	/*
+	 * Closing
+	 */
+
+	/**
+	 * Closes every idle connection and stops the threads used by async tasks. Connections
+	 * in use are closed once released, and tasks that are already running aren't interrupted.
+	 * Threads waiting for a connection fail with a {@link SQLException}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		executor.shutdown();
+		CachedConnection connection;
+		while ((connection = idle.poll()) != null)
+			connection.close();
+		// Waiters fail once woken up, each one waking the next.
+		permits.release();
+	}
+
+	/*
+	 * Connection and task classes
+	 */
+
+	/**
+	 * A pooled {@link Connection} that caches the statements it prepares.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public static final class CachedConnection {
+
+		private final Connection connection;
+		private final HashMap<String, PreparedStatement> statements = new HashMap<>();
+
+		private CachedConnection(@NotNull Connection connection) {
+			this.connection = connection;
+		}
+
+		/**
+		 * Gets the {@link Connection} itself, which must not be closed.
+		 *
+		 * @return The {@link Connection}.
+		 *
+		 * @since SkyUtils 1.0.0
+		 */
+		@NotNull
+		public Connection getConnection() {
+			return connection;
+		}
+
+		/**
+		 * Gets a {@link PreparedStatement} for {@code sql}, preparing it only
+		 * the first time it is requested on this connection. The statement
+		 * must not be closed, and its parameters must be set every time.
+		 *
+		 * @param sql The SQL of the statement.
+		 *
+		 * @return The {@link PreparedStatement}.
+		 *
+		 * @throws SQLException if a database error occurs.
+		 *
+		 * @since SkyUtils 1.0.0
+		 */
+		@NotNull
+		public PreparedStatement prepare(@NotNull String sql) throws SQLException {
+			PreparedStatement statement = statements.get(sql);
+			if (statement == null) {
+				statement = connection.prepareStatement(sql);
+				statements.put(sql, statement);
+			}
+			return statement;
+		}
+
+		private void close() {
+			try {
+				connection.close(); // Also closes its statements.
+			} catch (SQLException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * A task run with a {@link CachedConnection} of a {@link SqlDatabase}.
+	 *
+	 * @param <T> The type of result.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@FunctionalInterface
+	public interface SqlTask<T> {
+
+		/**
+		 * Runs this task.
+		 *
+		 * @param connection The {@link CachedConnection} to use, which must not be closed.
+		 *
+		 * @return The result of the task.
+		 *
+		 * @throws SQLException if a database error occurs.
+		 *
+		 * @since SkyUtils 1.0.0
+		 */
+		T run(@NotNull CachedConnection connection) throws SQLException;
+	}
+}
@@ -0,0 +1,386 @@
+package net.codersky.skyutils.storage.sql;
+
+import net.codersky.skyutils.StagedReloadable;
+import net.codersky.skyutils.storage.DataMap;
+import net.codersky.skyutils.storage.Storage;
+import net.codersky.skyutils.storage.files.FlatStorage;
+import net.codersky.skyutils.time.TaskScheduler;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+
+/**
+ * {@link Storage} class used to store data on a table of a {@link SqlDatabase},
+ * so many storages, such as one per player, can share a single database file
+ * instead of having one file each. Each entry is stored as a row, identified
+ * by the id of the storage and its key, with its value encoded with the same
+ * format used by {@link FlatStorage}, so the same data types are supported.
+ * <p>
+ * {@link #save() Saving} only writes the {@link DataMap#getDirtyKeys() keys modified}
+ * since the last save, as a batch of statements inside a single transaction, so saves
+ * cost as much as the amount of changes instead of the size of the storage. Both
+ * {@link #reload() reloading} and {@link #save() saving} block the current thread, so
+ * {@link #reloadAsync(TaskScheduler)} is recommended on the main thread, as well as
+ * {@link #saveAsync()} if this storage uses a {@link DataMap#isConcurrent() concurrent}
+ * {@link DataMap}, which can keep being modified while it's saved.
+ * <p>
+ * Existing {@link FlatStorage} files can be moved to a {@link SqlDatabase}
+ * with {@link #importFiles(SqlDatabase, String, File)}.
+ *
+ * @since SkyUtils 1.0.0
+ *
+ * @author xDec0de_
+ *
+ * @see SqlDatabase
+ */
+public class SqlStorage extends Storage implements StagedReloadable {
+
+	private final SqlDatabase database;
+	private final String table;
+	private final String id;
+	private final String selectSql;
+	private final String insertSql;
+	private final String deleteSql;
+	private final String deleteAllSql;
+	/**
+	 * Guards {@link #synced} and {@link #deletions}. Unlike the monitor of this storage,
+	 * it's never held during database operations, so applying a reload on the main
+	 * thread never waits for a save to finish.
+	 */
+	private final Object syncLock = new Object();
+	/** Whether this storage has been loaded or saved, as only then saved rows match the tracked keys. */
+	private boolean synced = false;
+	/** Amount of times the rows of this storage have been {@link #delete() deleted}. */
+	private long deletions = 0;
+
+	/**
+	 * Creates a new {@link SqlStorage}. Nothing is read from the database until it is {@link #reload() reloaded}.
+	 *
+	 * @param database The {@link SqlDatabase} to use.
+	 * @param table The table to store the data on, shared with other storages of the
+	 * same kind. It is created by {@link #setup()} if it doesn't exist.
+	 * @param id The id of this storage, unique on {@code table}, such as the
+	 * {@link java.util.UUID UUID} of a player. Up to 255 characters long.
+	 * @param concurrent Whether the {@link DataMap} of this {@link SqlStorage} can be safely
+	 * accessed from multiple threads or not. This allows reading and modifying the storage
+	 * while it is being saved from another thread, read {@link DataMap} for more information.
+	 *
+	 * @throws NullPointerException if any parameter is {@code null}.
+	 * @throws IllegalArgumentException if {@code table} isn't a valid table name, which
+	 * may only contain letters, numbers and underscores, not starting with a number.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public SqlStorage(@NotNull SqlDatabase database, @NotNull String table, @NotNull String id, boolean concurrent) {
+		super(false, concurrent);
+		this.database = Objects.requireNonNull(database, "Database cannot be null");
+		this.table = SqlDatabase.checkTableName(Objects.requireNonNull(table, "Table cannot be null"));
+		this.id = Objects.requireNonNull(id, "Id cannot be null");
+		this.selectSql = "SELECT data FROM " + table + " WHERE storage_id = ?";
+		this.insertSql = "INSERT INTO " + table + " (storage_id, data_key, data) VALUES (?, ?, ?)";
+		this.deleteSql = "DELETE FROM " + table + " WHERE storage_id = ? AND data_key = ?";
+		this.deleteAllSql = "DELETE FROM " + table + " WHERE storage_id = ?";
+	}
+
+	public SqlStorage(@NotNull SqlDatabase database, @NotNull String table, @NotNull String id) {
+		this(database, table, id, false);
+	}
+
+	/*
+	 * Utility
+	 */
+
+	public boolean setup() {
+		try {
+			database.createTable(table);
+			return true;
+		} catch (SQLException e) {
+			e.printStackTrace();
+			return false;
+		}
+	}
+
+	@NotNull
+	public final SqlDatabase getDatabase() {
+		return database;
+	}
+
+	@NotNull
+	public final String getTable() {
+		return table;
+	}
+
+	@NotNull
+	public final String getId() {
+		return id;
+	}
+
+	/**
+	 * Deletes every row of this {@link SqlStorage} from the database.
+	 * The content currently loaded on memory isn't modified.
+	 *
+	 * @return {@code true} if the rows were deleted, {@code false} otherwise.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public synchronized boolean delete() {
+		try {
+			database.execute(connection -> {
+				final PreparedStatement delete = connection.prepare(deleteAllSql);
+				delete.setString(1, id);
+				return delete.executeUpdate();
+			});
+			synchronized (syncLock) {
+				synced = false;
+				deletions++;
+			}
+			return true;
+		} catch (SQLException e) {
+			e.printStackTrace();
+			return false;
+		}
+	}
+
+	/*
+	 * Saving
+	 */
+
+	/**
+	 * Saves this {@link SqlStorage} to its {@link SqlDatabase}, on the current thread. Only the
+	 * {@link DataMap#getDirtyKeys() modified keys} are written, unless this storage hasn't been
+	 * loaded nor saved before, or the {@link DataMap} has {@link DataMap#hasUntrackedChanges()
+	 * untracked changes}, in which case every row is rewritten. Every statement runs on a single
+	 * transaction, so the database never ends up with a partial save, and saves of the same
+	 * instance never run at the same time.
+	 *
+	 * @return {@code true} if this {@link SqlStorage} saved correctly, {@code false} otherwise.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@Override
+	public synchronized boolean save() {
+		if (!getMap().isModified())
+			return true;
+		if (!setup())
+			return false;
+		final DataMap.Snapshot snapshot = getMap().snapshot();
+		final Map<String, Object> content = snapshot.getContent();
+		final boolean full;
+		synchronized (syncLock) {
+			full = !synced || snapshot.hasUntrackedChanges();
+		}
+		final Iterable<String> keys = full ? content.keySet() : snapshot.getDirtyKeys();
+		try {
+			database.transaction(connection -> {
+				// Rows are deleted and inserted again instead of using upserts, as their syntax depends on the database.
+				if (full) {
+					final PreparedStatement deleteAll = connection.prepare(deleteAllSql);
+					deleteAll.setString(1, id);
+					deleteAll.executeUpdate();
+				} else {
+					final PreparedStatement delete = connection.prepare(deleteSql);
+					for (String key : keys) {
+						delete.setString(1, id);
+						delete.setString(2, key);
+						delete.addBatch();
+					}
+					delete.executeBatch();
+				}
+				final PreparedStatement insert = connection.prepare(insertSql);
+				for (String key : keys) {
+					final Object value = content.get(key);
+					if (value == null)
+						continue; // Removed key.
+					final String encoded = FlatStorage.encodeEntry(key, value);
+					if (encoded == null)
+						throw new SQLException("Unsupported type " + value.getClass().getName() + " for key \"" + key + '"');
+					if (encoded.isEmpty())
+						continue; // Empty lists aren't stored, just like on FlatStorage.
+					insert.setString(1, id);
+					insert.setString(2, key);
+					insert.setString(3, encoded);
+					insert.addBatch();
+				}
+				return insert.executeBatch();
+			});
+		} catch (SQLException e) {
+			System.err.println("Failed to save SqlStorage \"" + id + "\" on table " + table + ':');
+			e.printStackTrace();
+			return false;
+		}
+		synchronized (syncLock) {
+			synced = true;
+		}
+		getMap().markSaved(snapshot.getVersion());
+		return true;
+	}
+
+	/**
+	 * {@link #save() Saves} this {@link SqlStorage} on one of the threads of its {@link SqlDatabase}.
+	 * <p>
+	 * Unless this {@link SqlStorage} uses a {@link DataMap#isConcurrent() concurrent}
+	 * {@link DataMap}, it must not be modified until the save completes.
+	 *
+	 * @return A {@link CompletableFuture} completed with the result of {@link #save()}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public CompletableFuture<Boolean> saveAsync() {
+		return database.supplyAsync(this::save);
+	}
+
+	/*
+	 * Loading
+	 */
+
+	@Override
+	public boolean reload() {
+		return StagedReloadable.super.reload();
+	}
+
+	/**
+	 * Prepares a reload of this {@link SqlStorage}, reading its rows from the database
+	 * on the current thread. Read {@link StagedReloadable} for more information.
+	 *
+	 * @return The action that applies the reload, {@code null} if the storage couldn't be read.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@Nullable
+	@Override
+	public BooleanSupplier prepareReload() {
+		if (!setup())
+			return null;
+		// Loaded content is added at once, so concurrent readers never see a partially loaded storage.
+		final DataMap loaded = new DataMap(false);
+		final long preparedDeletions;
+		synchronized (syncLock) {
+			preparedDeletions = deletions;
+		}
+		try {
+			database.execute(connection -> {
+				final PreparedStatement select = connection.prepare(selectSql);
+				select.setString(1, id);
+				try (ResultSet result = select.executeQuery()) {
+					while (result.next())
+						if (!FlatStorage.decodeEntry(loaded, result.getString(1)))
+							System.err.println("Ignoring invalid entry of SqlStorage \"" + id + "\" on table " + table);
+				}
+				return null;
+			});
+		} catch (SQLException | NumberFormatException e) {
+			e.printStackTrace();
+			return null;
+		}
+		return () -> {
+			// Doesn't take the monitor of this storage, which saves hold during their whole transaction.
+			// The loaded content is exactly what is saved, unless there are unsaved changes to keep.
+			if (getMap().isModified())
+				getMap().putAll(loaded.getInternalMap());
+			else
+				getMap().reset(loaded.getInternalMap());
+			synchronized (syncLock) {
+				// Rows deleted after being read no longer match the loaded content.
+				if (deletions == preparedDeletions)
+					synced = true;
+			}
+			return true;
+		};
+	}
+
+	/**
+	 * Reloads this {@link SqlStorage}, reading its rows on one of the threads of its
+	 * {@link SqlDatabase} and then applying the reload on a {@link TaskScheduler#runSync(Runnable) sync}
+	 * task of {@code scheduler}, so the loaded content is swapped in on the main thread.
+	 *
+	 * @param scheduler The {@link TaskScheduler} used to apply the reload on the main thread.
+	 *
+	 * @return A {@link CompletableFuture} completed with whether the reload succeeded or not once it is applied.
+	 *
+	 * @throws NullPointerException if {@code scheduler} is {@code null}.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	@NotNull
+	public CompletableFuture<Boolean> reloadAsync(@NotNull TaskScheduler scheduler) {
+		Objects.requireNonNull(scheduler, "Scheduler cannot be null");
+		final CompletableFuture<Boolean> result = new CompletableFuture<>();
+		database.supplyAsync(this::prepareReload).whenComplete((apply, error) -> {
+			if (error != null)
+				result.completeExceptionally(error);
+			else if (apply == null)
+				result.complete(false);
+			else {
+				try {
+					scheduler.runSync(() -> {
+						try {
+							result.complete(apply.getAsBoolean());
+						} catch (Throwable t) {
+							result.completeExceptionally(t);
+						}
+					});
+				} catch (Throwable t) {
+					result.completeExceptionally(t);
+				}
+			}
+		});
+		return result;
+	}
+
+	/*
+	 * Migration
+	 */
+
+	/**
+	 * Imports every {@link FlatStorage} file (".mcufs") of {@code folder} to {@code table},
+	 * using the name of each file, without its extension, as the id of its storage. Files
+	 * aren't deleted, so it is up to the caller to remove them once the import is complete.
+	 *
+	 * @param database The {@link SqlDatabase} to import the files to.
+	 * @param table The table to import the files to.
+	 * @param folder The folder that contains the files.
+	 *
+	 * @return The amount of files imported. Files that can't be loaded or saved are skipped.
+	 *
+	 * @throws IllegalArgumentException if {@code table} isn't a valid table name.
+	 *
+	 * @since SkyUtils 1.0.0
+	 */
+	public static int importFiles(@NotNull SqlDatabase database, @NotNull String table, @NotNull File folder) {
+		final File[] files = folder.listFiles((dir, name) -> name.endsWith(".mcufs"));
+		if (files == null)
+			return 0;
+		int imported = 0;
+		for (File file : files) {
+			final FlatStorage source = new FlatStorage(file);
+			final String name = file.getName();
+			final SqlStorage target = new SqlStorage(database, table, name.substring(0, name.length() - 6));
+			if (!source.reload())
+				continue;
+			target.getMap().putAll(source.getMap().getInternalMap());
+			if (target.save())
+				imported++;
+			else
+				System.err.println("Failed to import " + file.getPath() + " to table " + table);
+		}
+		return imported;
+	}
+
+	/*
+	 * Object class
+	 */
+
+	@Override
+	public String toString() {
+		return "SqlStorage{table=" + table + ", id=" + id + ", content=" + getMap() + "}";
+	}
+}